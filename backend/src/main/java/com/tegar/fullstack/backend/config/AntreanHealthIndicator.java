@@ -0,0 +1,34 @@
+package com.tegar.fullstack.backend.config;
+
+import com.tegar.fullstack.backend.service.ThumbnailService;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health {@code antrean}: backlog pemrosesan upload (thumbnail). Antrean yang
+ * hampir penuh dilaporkan DEGRADED, bukan DOWN, karena check in tidak
+ * bergantung padanya; thumbnail yang terlewat dibuat saat diminta.
+ */
+@Component
+public class AntreanHealthIndicator extends AbstractHealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED");
+
+    private final ThumbnailService thumbnailService;
+
+    public AntreanHealthIndicator(ThumbnailService thumbnailService) {
+        super("Pemeriksaan antrean gagal");
+        this.thumbnailService = thumbnailService;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        int antrean = thumbnailService.getAntrean();
+        int kapasitas = thumbnailService.getKapasitasAntrean();
+        builder.status(antrean * 10 >= kapasitas * 9 ? DEGRADED : Status.UP)
+                .withDetail("thumbnail", antrean)
+                .withDetail("kapasitasThumbnail", kapasitas);
+    }
+}
@@ -0,0 +1,52 @@
+package com.tegar.fullstack.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Bungkus bean {@code dataSource} dengan {@link BulkheadDataSource}, seperti
+ * {@link SqlTimingConfig}, dan tolak start jika kuota koneksi tidak menyisakan
+ * cadangan presensi di pool tenant mana pun.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkheadConfig {
+
+    @Bean
+    public static BeanPostProcessor bulkheadDataSourcePostProcessor(
+            ObjectProvider<BulkheadProperties> properties,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof BulkheadDataSource)) {
+                    return new BulkheadDataSource(dataSource, properties.getObject(), meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public InitializingBean bulkheadKuotaCheck(
+            BulkheadProperties properties,
+            TenantProperties tenantProperties,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize) {
+        return () -> {
+            properties.periksaKuota(TenantContext.DEFAULT, maximumPoolSize);
+            if (tenantProperties.isEnabled()) {
+                tenantProperties.getShards().forEach((tenant, shard) ->
+                        properties.periksaKuota(tenant, shard.getMaximumPoolSize()));
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.tegar.fullstack.backend.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Kelas bulkhead request yang sedang diproses thread ini, diisi
+ * {@link BulkheadFilter}. Job terjadwal dan startup tidak punya kelas
+ * sehingga tidak terkena kuota koneksi maupun statement timeout.
+ */
+public final class BulkheadContext {
+
+    private static final ThreadLocal<BulkheadProperties.Kelas> CURRENT = new ThreadLocal<>();
+
+    private BulkheadContext() {
+    }
+
+    public static BulkheadProperties.Kelas get() {
+        return CURRENT.get();
+    }
+
+    public static void set(BulkheadProperties.Kelas kelas) {
+        CURRENT.set(kelas);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static <T> T call(BulkheadProperties.Kelas kelas, Supplier<T> task) {
+        BulkheadProperties.Kelas previous = CURRENT.get();
+        CURRENT.set(kelas);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.tegar.fullstack.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Partisi pool koneksi per kelas bulkhead: setiap kelas hanya boleh memegang
+ * {@code max-connections} koneksi sekaligus dari pool bersama. Jumlah kuota
+ * AUTH, LAPORAN dan BACA dibatasi ukuran pool dikurangi
+ * {@code presensi-reserve} (diperiksa saat start), sehingga check in selalu
+ * punya koneksi. Kuota dipasang di atas pool yang ada (juga
+ * shard tenant dan replica), bukan pool fisik terpisah per kelas. Setiap
+ * tenant punya pool sendiri, jadi kuotanya juga per tenant.
+ * <p>
+ * Koneksi kedua di thread yang sudah memegang kuota yang sama (mis.
+ * REQUIRES_NEW) tidak mengambil kuota lagi, agar satu request tidak menunggu
+ * dirinya sendiri. Jumlahnya dihitung per kuota, jadi koneksi bersarang dari
+ * kelas atau tenant lain tetap mengambil dan mengembalikan kuotanya sendiri.
+ * Setiap statement dari koneksi kelas tersebut diberi
+ * {@code statement-timeout-seconds}.
+ */
+public class BulkheadDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final BulkheadProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Map<BulkheadProperties.Kelas, Semaphore>> kuotaTenant = new ConcurrentHashMap<>();
+    // Jumlah koneksi terbuka per kuota (semaphore) di thread ini
+    private final ThreadLocal<Map<Semaphore, Integer>> dipegang = ThreadLocal.withInitial(IdentityHashMap::new);
+
+    public BulkheadDataSource(DataSource target, BulkheadProperties properties, MeterRegistry meterRegistry) {
+        super(target);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        BulkheadProperties.Kelas kelas = BulkheadContext.get();
+        if (kelas == null) {
+            return super.getConnection();
+        }
+        Semaphore semaphore = ambilKuota(kelas);
+        try {
+            return wrap(super.getConnection(), kelas, semaphore);
+        } catch (SQLException | RuntimeException e) {
+            kembalikan(semaphore);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Semaphore ambilKuota(BulkheadProperties.Kelas kelas) throws SQLException {
+        Semaphore semaphore = kuotaTenant.computeIfAbsent(TenantContext.get(), t -> buatKuota()).get(kelas);
+        if (semaphore == null) {
+            return null;
+        }
+        Map<Semaphore, Integer> count = dipegang.get();
+        if (!count.containsKey(semaphore)) {
+            boolean dapat;
+            try {
+                dapat = semaphore.tryAcquire(properties.getConnectionWaitMs(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dapat = false;
+            }
+            if (!dapat) {
+                meterRegistry.counter("bulkhead.ditolak", "kelas", kelas.name(), "jenis", "koneksi").increment();
+                throw new SQLTransientConnectionException("Kuota koneksi kelas " + kelas + " habis");
+            }
+        }
+        count.merge(semaphore, 1, Integer::sum);
+        return semaphore;
+    }
+
+    private Map<BulkheadProperties.Kelas, Semaphore> buatKuota() {
+        Map<BulkheadProperties.Kelas, Semaphore> kuota = new EnumMap<>(BulkheadProperties.Kelas.class);
+        for (BulkheadProperties.Kelas kelas : BulkheadProperties.Kelas.values()) {
+            BulkheadProperties.Sekat sekat = properties.get(kelas);
+            if (sekat != null && sekat.getMaxConnections() > 0) {
+                kuota.put(kelas, new Semaphore(sekat.getMaxConnections()));
+            }
+        }
+        return kuota;
+    }
+
+    private void kembalikan(Semaphore semaphore) {
+        if (semaphore == null) {
+            return;
+        }
+        Map<Semaphore, Integer> count = dipegang.get();
+        Integer sisa = count.get(semaphore);
+        // Ditutup di thread lain (tidak tercatat di thread ini): kembalikan langsung
+        if (sisa == null || sisa == 1) {
+            count.remove(semaphore);
+            semaphore.release();
+        } else {
+            count.put(semaphore, sisa - 1);
+        }
+    }
+
+    private Connection wrap(Connection connection, BulkheadProperties.Kelas kelas, Semaphore semaphore) {
+        int timeout = properties.get(kelas) != null ? properties.get(kelas).getStatementTimeoutSeconds() : 0;
+        AtomicBoolean ditutup = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(BulkheadDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "close" -> {
+                        try {
+                            yield invoke(connection, method, args);
+                        } finally {
+                            if (ditutup.compareAndSet(false, true)) {
+                                kembalikan(semaphore);
+                            }
+                        }
+                    }
+                    case "createStatement", "prepareStatement", "prepareCall" -> {
+                        Statement statement = (Statement) invoke(connection, method, args);
+                        if (timeout > 0) {
+                            statement.setQueryTimeout(timeout);
+                        }
+                        yield statement;
+                    }
+                    default -> invoke(connection, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
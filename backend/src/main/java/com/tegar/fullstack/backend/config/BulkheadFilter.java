@@ -0,0 +1,99 @@
+package com.tegar.fullstack.backend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batas request bersamaan per kelas endpoint. Laporan setahun penuh hanya
+ * bisa memakai jatah thread kelas {@code LAPORAN}; jika jatahnya habis,
+ * request berikutnya menunggu paling lama {@code max-wait-ms} lalu dijawab 503
+ * dengan {@code Retry-After}, sementara check in tetap punya jatah sendiri.
+ * <p>
+ * Kelas request disimpan di {@link BulkheadContext} untuk kuota koneksi dan
+ * statement timeout di {@link BulkheadDataSource}. Berjalan setelah
+ * {@link LoadSheddingFilter} dan sebelum filter security, sehingga pemuatan
+ * user dari JWT ikut dihitung ke kelasnya.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "app.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private static final long RETRY_AFTER_SECONDS = 2;
+
+    private final BulkheadProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<BulkheadProperties.Kelas, Semaphore> jatah = new EnumMap<>(BulkheadProperties.Kelas.class);
+
+    public BulkheadFilter(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        for (BulkheadProperties.Kelas kelas : BulkheadProperties.Kelas.values()) {
+            BulkheadProperties.Sekat sekat = properties.get(kelas);
+            if (sekat != null && sekat.getMaxConcurrent() > 0) {
+                Semaphore semaphore = new Semaphore(sekat.getMaxConcurrent());
+                jatah.put(kelas, semaphore);
+                Gauge.builder("bulkhead.aktif", semaphore, s -> sekat.getMaxConcurrent() - s.availablePermits())
+                        .description("Request yang sedang diproses per kelas bulkhead")
+                        .tag("kelas", kelas.name())
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain)
+            throws ServletException, IOException {
+
+        BulkheadProperties.Kelas kelas = properties.kelasUntuk(request.getRequestURI());
+        Semaphore semaphore = jatah.get(kelas);
+        if (semaphore != null && !masuk(semaphore, properties.get(kelas).getMaxWaitMs())) {
+            meterRegistry.counter("bulkhead.ditolak", "kelas", kelas.name(), "jenis", "request").increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(
+                    "{\"status\":503,\"message\":\"Terlalu banyak permintaan sejenis, silakan coba lagi\"}");
+            return;
+        }
+
+        BulkheadContext.set(kelas);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            BulkheadContext.clear();
+            if (semaphore != null) {
+                semaphore.release();
+            }
+        }
+    }
+
+    private static boolean masuk(Semaphore semaphore, long maxWaitMs) {
+        try {
+            return semaphore.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
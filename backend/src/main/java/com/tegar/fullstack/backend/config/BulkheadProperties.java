@@ -0,0 +1,98 @@
+package com.tegar.fullstack.backend.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sekat (bulkhead) per kelas endpoint ({@code app.bulkhead.*}).
+ * <p>
+ * Setiap kelas punya batas request bersamaan ({@link BulkheadFilter}), kuota
+ * koneksi dari pool dan statement timeout ({@link BulkheadDataSource}).
+ * Request yang path-nya tidak cocok dengan kelas mana pun masuk
+ * {@link Kelas#BACA}. Kelas yang tidak dikonfigurasi tidak dibatasi.
+ * <p>
+ * Koneksi untuk PRESENSI dijamin lewat {@code presensi-reserve}: jumlah kuota
+ * semua kelas lain tidak boleh melebihi ukuran pool dikurangi cadangan ini,
+ * diperiksa saat start oleh {@link #periksaKuota(String, int)}.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("app.bulkhead")
+public class BulkheadProperties {
+
+    public enum Kelas {
+        // Urutan = urutan pencocokan path
+        PRESENSI, AUTH, LAPORAN, BACA
+    }
+
+    private boolean enabled = true;
+    private long connectionWaitMs = 3000;
+    // Koneksi pool yang tidak pernah bisa diambil kelas selain PRESENSI
+    private int presensiReserve;
+    private Map<Kelas, Sekat> kelas = new EnumMap<>(Kelas.class);
+
+    @Getter
+    @Setter
+    public static class Sekat {
+        private List<String> paths = new ArrayList<>();
+        // 0 = tidak dibatasi
+        private int maxConcurrent;
+        private long maxWaitMs;
+        private int maxConnections;
+        private int statementTimeoutSeconds;
+    }
+
+    @Getter(AccessLevel.NONE)
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    public Sekat get(Kelas k) {
+        return kelas.get(k);
+    }
+
+    /**
+     * Pastikan kuota koneksi kelas lain menyisakan {@code presensi-reserve}
+     * koneksi pool {@code pool} untuk PRESENSI. Kelas selain PRESENSI tanpa
+     * kuota bisa memakai seluruh pool, jadi ikut ditolak.
+     */
+    public void periksaKuota(String pool, int maximumPoolSize) {
+        if (presensiReserve <= 0) {
+            return;
+        }
+        int total = 0;
+        for (Kelas k : Kelas.values()) {
+            if (k == Kelas.PRESENSI) {
+                continue;
+            }
+            Sekat sekat = kelas.get(k);
+            if (sekat == null || sekat.maxConnections <= 0) {
+                throw new IllegalStateException("Kelas " + k + " tanpa max-connections bisa menghabiskan pool "
+                        + pool + "; cadangan presensi tidak terjamin");
+            }
+            total += sekat.maxConnections;
+        }
+        if (total > maximumPoolSize - presensiReserve) {
+            throw new IllegalStateException("Jumlah max-connections (" + total + ") melebihi ukuran pool " + pool
+                    + " (" + maximumPoolSize + ") dikurangi presensi-reserve (" + presensiReserve + ")");
+        }
+    }
+
+    public Kelas kelasUntuk(String uri) {
+        for (Kelas k : Kelas.values()) {
+            Sekat sekat = kelas.get(k);
+            if (sekat != null && sekat.paths.stream().anyMatch(pattern -> matcher.match(pattern, uri))) {
+                return k;
+            }
+        }
+        return Kelas.BACA;
+    }
+}
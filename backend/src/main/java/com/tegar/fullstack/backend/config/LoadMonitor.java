@@ -0,0 +1,128 @@
+package com.tegar.fullstack.backend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sinyal beban untuk {@link LoadSheddingFilter} dan health {@code pool}.
+ * <p>
+ * Dua sinyal: jumlah request yang sedang diproses (dihitung filter) dan
+ * rata-rata waktu tunggu koneksi pool pada interval sampel terakhir, diambil
+ * dari timer {@code hikaricp.connections.acquire} semua pool (termasuk shard
+ * tenant dan replica). Beban dianggap lebih jika salah satunya melewati batas.
+ */
+@Slf4j
+@Component
+public class LoadMonitor {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxInFlight;
+    private final long maxPoolWaitNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Posisi timer acquire per pool pada sampel sebelumnya: {count, totalNanos}
+    private final Map<String, long[]> sampelSebelumnya = new HashMap<>();
+    private volatile long poolWaitNanos;
+    private volatile long lebihSejak;
+    private long sampelTerakhirNanos = System.nanoTime();
+
+    public LoadMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${app.admission.max-in-flight:150}") int maxInFlight,
+            @Value("${app.admission.max-pool-wait-ms:200}") long maxPoolWaitMs) {
+        this.meterRegistry = meterRegistry;
+        this.maxInFlight = maxInFlight;
+        this.maxPoolWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxPoolWaitMs);
+        Gauge.builder("admission.in.flight", inFlight, AtomicInteger::get)
+                .description("Request yang sedang diproses")
+                .register(meterRegistry);
+    }
+
+    public int masuk() {
+        return inFlight.incrementAndGet();
+    }
+
+    public void keluar() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public double getPoolWaitMs() {
+        return poolWaitNanos / 1_000_000.0;
+    }
+
+    public boolean isBebanLebih() {
+        return inFlight.get() > maxInFlight || poolWaitNanos > maxPoolWaitNanos;
+    }
+
+    /**
+     * Lama beban lebih berlangsung tanpa putus menurut sampel, 0 jika normal.
+     */
+    public long getLamaBebanLebihMs() {
+        long sejak = lebihSejak;
+        return sejak == 0 ? 0 : System.currentTimeMillis() - sejak;
+    }
+
+    /**
+     * Nilai gauge hikaricp per pool, mis. {@code active}, {@code pending}.
+     */
+    public Map<String, Map<String, Double>> getPools() {
+        Map<String, Map<String, Double>> pools = new HashMap<>();
+        for (String nama : new String[]{"active", "idle", "pending", "max"}) {
+            meterRegistry.find("hikaricp.connections." + nama).gauges().forEach(gauge ->
+                    pools.computeIfAbsent(gauge.getId().getTag("pool"), p -> new HashMap<>())
+                            .put(nama, gauge.value()));
+        }
+        return pools;
+    }
+
+    private double pending(String pool) {
+        Gauge gauge = meterRegistry.find("hikaricp.connections.pending").tag("pool", pool).gauge();
+        return gauge == null ? 0 : gauge.value();
+    }
+
+    @Scheduled(fixedDelayString = "${app.admission.sample-ms:500}")
+    public synchronized void sample() {
+        long now = System.nanoTime();
+        long selang = now - sampelTerakhirNanos;
+        sampelTerakhirNanos = now;
+        long terbesar = 0;
+        for (Timer timer : meterRegistry.find("hikaricp.connections.acquire").timers()) {
+            String pool = timer.getId().getTag("pool");
+            long count = timer.count();
+            long total = (long) timer.totalTime(TimeUnit.NANOSECONDS);
+            long[] sebelumnya = sampelSebelumnya.put(pool, new long[]{count, total});
+            if (sebelumnya != null && count > sebelumnya[0]) {
+                terbesar = Math.max(terbesar, (total - sebelumnya[1]) / (count - sebelumnya[0]));
+            } else if (pending(pool) > 0) {
+                // Tidak ada koneksi yang didapat tapi ada yang menunggu: pool
+                // macet, yang menunggu sudah menunggu minimal selama interval ini
+                terbesar = Math.max(terbesar, Math.max(poolWaitNanos, selang));
+            }
+        }
+        poolWaitNanos = terbesar;
+
+        boolean lebih = isBebanLebih();
+        if (lebih && lebihSejak == 0) {
+            lebihSejak = System.currentTimeMillis();
+            log.warn("Beban lebih: {} request berjalan, tunggu pool {} ms; request prioritas rendah ditolak",
+                    inFlight.get(), getPoolWaitMs());
+        } else if (!lebih && lebihSejak != 0) {
+            log.info("Beban kembali normal setelah {} ms", getLamaBebanLebihMs());
+            lebihSejak = 0;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.tegar.fullstack.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Admission control: saat {@link LoadMonitor} melaporkan beban lebih, request
+ * prioritas rendah ({@code app.admission.low-priority}, yaitu laporan dan
+ * ekspor) langsung dijawab 503 dengan {@code Retry-After}, sehingga thread
+ * Tomcat dan koneksi pool tersisa untuk check in, check out dan login.
+ * <p>
+ * Berjalan sebelum filter security agar request yang ditolak tidak sempat
+ * memuat user dari database.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private final LoadMonitor loadMonitor;
+    private final List<String> lowPriority;
+    private final long retryAfterSeconds;
+    private final Counter ditolak;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    public LoadSheddingFilter(
+            LoadMonitor loadMonitor,
+            MeterRegistry meterRegistry,
+            @Value("${app.admission.low-priority:}") List<String> lowPriority,
+            @Value("${app.admission.retry-after-seconds:5}") long retryAfterSeconds) {
+        this.loadMonitor = loadMonitor;
+        this.lowPriority = lowPriority;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.ditolak = Counter.builder("admission.ditolak")
+                .description("Request prioritas rendah yang ditolak karena beban lebih")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain)
+            throws ServletException, IOException {
+
+        loadMonitor.masuk();
+        try {
+            if (loadMonitor.isBebanLebih() && isLowPriority(request.getRequestURI())) {
+                ditolak.increment();
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write(
+                        "{\"status\":503,\"message\":\"Server sedang sibuk, silakan coba lagi\"}");
+                return;
+            }
+            filterChain.doFilter(request, response);
+        } finally {
+            loadMonitor.keluar();
+        }
+    }
+
+    private boolean isLowPriority(String uri) {
+        for (String pattern : lowPriority) {
+            if (matcher.match(pattern, uri)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
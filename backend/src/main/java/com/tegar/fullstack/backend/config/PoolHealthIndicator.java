@@ -0,0 +1,42 @@
+package com.tegar.fullstack.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health {@code pool}: pemakaian setiap pool koneksi dan sinyal beban.
+ * <p>
+ * Lonjakan singkat ditangani {@link LoadSheddingFilter}; node baru dinyatakan
+ * OUT_OF_SERVICE (keluar dari readiness) jika beban lebih berlangsung terus
+ * lebih lama dari {@code app.admission.unready-after-ms}.
+ */
+@Component
+public class PoolHealthIndicator extends AbstractHealthIndicator {
+
+    private final LoadMonitor loadMonitor;
+    private final long unreadyAfterMs;
+
+    public PoolHealthIndicator(
+            LoadMonitor loadMonitor,
+            @Value("${app.admission.unready-after-ms:30000}") long unreadyAfterMs) {
+        super("Pemeriksaan pool koneksi gagal");
+        this.loadMonitor = loadMonitor;
+        this.unreadyAfterMs = unreadyAfterMs;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        long lamaBebanLebih = loadMonitor.getLamaBebanLebihMs();
+        if (lamaBebanLebih > unreadyAfterMs) {
+            builder.outOfService();
+        } else {
+            builder.up();
+        }
+        builder.withDetail("inFlight", loadMonitor.getInFlight())
+                .withDetail("tungguPoolMs", loadMonitor.getPoolWaitMs())
+                .withDetail("bebanLebihMs", lamaBebanLebih)
+                .withDetail("pools", loadMonitor.getPools());
+    }
+}
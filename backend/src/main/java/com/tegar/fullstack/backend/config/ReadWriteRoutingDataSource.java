@@ -0,0 +1,72 @@
+package com.tegar.fullstack.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * DataSource yang mengarahkan transaksi {@code readOnly} ke replica dan
+ * semua yang lain ke primary.
+ * <p>
+ * Harus dibungkus {@code LazyConnectionDataSourceProxy}: transaction manager
+ * mengambil koneksi sebelum flag read-only transaksi terpasang, jadi koneksi
+ * fisik baru boleh dipilih saat statement pertama dijalankan.
+ * <p>
+ * Replica dilewati jika {@link ReplicaLagMonitor} menilainya tertinggal atau
+ * tidak sehat, dan jika pengambilan koneksinya gagal permintaan itu
+ * langsung dilayani primary.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return readOnly && lagMonitor.isReplicaUsable() ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Target.REPLICA) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                lagMonitor.markDown(e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (determineCurrentLookupKey() == Target.REPLICA) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                lagMonitor.markDown(e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+}
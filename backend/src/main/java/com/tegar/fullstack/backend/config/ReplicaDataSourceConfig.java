@@ -0,0 +1,63 @@
+package com.tegar.fullstack.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+
+/**
+ * Pool primary dan replica terpisah di balik {@link ReadWriteRoutingDataSource}.
+ * Aktif hanya jika {@code app.datasource.replica.jdbc-url} diisi; tanpa itu
+ * DataSource bawaan Spring Boot yang dipakai. Tidak digabung dengan routing
+ * tenant ({@link TenantDataSourceConfig}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.jdbc-url")
+@ConditionalOnProperty(name = "app.tenant.enabled", havingValue = "false", matchIfMissing = true)
+public class ReplicaDataSourceConfig {
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+    
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        // Replica yang mati tidak boleh menahan start aplikasi
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+    
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${app.datasource.replica.max-lag-ms:5000}") long maxLagMs) {
+        return new ReplicaLagMonitor(primary, replica, maxLagMs, Clock.systemUTC());
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, replicaLagMonitor));
+    }
+}
@@ -0,0 +1,77 @@
+package com.tegar.fullstack.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Penjaga lag replica berbasis heartbeat.
+ * <p>
+ * Setiap interval, primary menulis waktu sekarang ke {@code replica_heartbeat}
+ * lalu nilai yang sama dibaca dari replica; selisihnya adalah lag replikasi.
+ * Replica dipakai hanya jika lag di bawah batas dan probe terakhir berhasil.
+ * Setelah gagal (probe atau pengambilan koneksi), replica dianggap mati sampai
+ * probe berikutnya berhasil.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMs;
+    private final Clock clock;
+
+    private volatile boolean healthy;
+    private volatile long lagMs = -1;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMs, Clock clock) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMs = maxLagMs;
+        this.clock = clock;
+    }
+
+    public boolean isReplicaUsable() {
+        return healthy && lagMs >= 0 && lagMs <= maxLagMs;
+    }
+
+    public long getLagMs() {
+        return lagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.heartbeat-ms:1000}")
+    public void probe() {
+        long now = clock.millis();
+        try {
+            primary.update("MERGE INTO replica_heartbeat (id, ts_ms) KEY (id) VALUES (1, ?)", now);
+        } catch (RuntimeException e) {
+            // Primary sendiri bermasalah: biarkan status replica apa adanya
+            log.warn("Heartbeat primary gagal: {}", e.getMessage());
+            return;
+        }
+        try {
+            List<Long> ts = replica.queryForList("SELECT ts_ms FROM replica_heartbeat WHERE id = 1", Long.class);
+            lagMs = ts.isEmpty() ? Long.MAX_VALUE : Math.max(0, now - ts.get(0));
+            if (!healthy) {
+                log.info("Replica kembali sehat (lag {} ms)", lagMs);
+            }
+            healthy = true;
+            if (lagMs > maxLagMs) {
+                log.warn("Lag replica {} ms melebihi batas {} ms, baca diarahkan ke primary", lagMs, maxLagMs);
+            }
+        } catch (RuntimeException e) {
+            markDown(e);
+        }
+    }
+
+    public void markDown(Exception cause) {
+        if (healthy) {
+            log.warn("Replica tidak bisa dipakai, baca diarahkan ke primary: {}", cause.getMessage());
+        }
+        healthy = false;
+    }
+}
@@ -1,6 +1,9 @@
 package com.tegar.fullstack.backend.config;
 
 import com.tegar.fullstack.backend.security.JwtAuthenticationFilter;
+import com.tegar.fullstack.backend.security.PhotoAccessManager;
+import com.tegar.fullstack.backend.security.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -26,7 +29,9 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final PhotoAccessManager photoAccessManager;
     private final UserDetailsService userDetailsService;
+    private final MeterRegistry meterRegistry;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -49,12 +54,19 @@ public class SecurityConfig {
                         // PUBLIC
                         .requestMatchers(
                                 "/",
+                                "/health",
                                 "/error",
                                 "/favicon.ico",
                                 "/api/auth/**",
-                                "/h2-console/**")
+                                "/h2-console/**",
+                                // Actuator hanya di port management lokal (management.server.*)
+                                "/actuator/health",
+                                "/actuator/prometheus")
                         .permitAll()
 
+                        // Foto pegawai: ADMIN/HRD semua, pegawai hanya fotonya sendiri
+                        .requestMatchers("/uploads/**").access(photoAccessManager)
+
                         // ROLE BASED
                         .requestMatchers("/api/pegawai/**").hasAnyRole("ADMIN", "HRD")
                         .requestMatchers("/presensi/daftar/admin").hasAnyRole("ADMIN", "HRD")
@@ -81,7 +93,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 
     @Bean
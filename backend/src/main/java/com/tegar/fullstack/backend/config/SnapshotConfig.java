@@ -0,0 +1,25 @@
+package com.tegar.fullstack.backend.config;
+
+import com.tegar.fullstack.backend.service.SnapshotService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Pulihkan snapshot H2 sebelum Flyway berjalan, lalu mulai jurnal perubahan.
+ * Migrasi baru dijalankan di atas data yang sudah dipulihkan.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.snapshot.enabled", havingValue = "true")
+public class SnapshotConfig {
+    
+    @Bean
+    public FlywayMigrationStrategy snapshotMigrationStrategy(SnapshotService snapshotService) {
+        return flyway -> {
+            boolean restored = snapshotService.restore();
+            int executed = flyway.migrate().migrationsExecuted;
+            snapshotService.start(restored && executed == 0);
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.tegar.fullstack.backend.config;
+
+import com.tegar.fullstack.backend.service.SqlStatisticsService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Bungkus bean {@code dataSource} (bawaan Spring Boot, routing replica, atau
+ * routing tenant) dengan {@link SqlTimingDataSource}. Pool di bawahnya tidak
+ * dibungkus sendiri-sendiri, jadi setiap statement hanya diukur sekali.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql.timing.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTimingConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlTimingDataSourcePostProcessor(ObjectProvider<SqlStatisticsService> statistics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof SqlTimingDataSource)) {
+                    return new SqlTimingDataSource(dataSource, statistics.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
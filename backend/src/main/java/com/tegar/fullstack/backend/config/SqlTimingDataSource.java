@@ -0,0 +1,137 @@
+package com.tegar.fullstack.backend.config;
+
+import com.tegar.fullstack.backend.service.SqlStatisticsService;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mengukur waktu setiap {@code execute*} JDBC, baik dari Hibernate maupun
+ * JdbcTemplate, dan menyerahkannya ke {@link SqlStatisticsService}.
+ * <p>
+ * Koneksi dan statement dibungkus proxy. Untuk PreparedStatement dicatat tipe
+ * setiap parameter bind (bukan nilainya) agar log statement lambat bisa
+ * menunjukkan bentuk parameternya. Waktu yang diukur adalah eksekusi sampai
+ * driver mengembalikan hasil, tidak termasuk membaca ResultSet.
+ */
+public class SqlTimingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final SqlStatisticsService statistics;
+
+    public SqlTimingDataSource(DataSource target, SqlStatisticsService statistics) {
+        super(target);
+        this.statistics = statistics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    /**
+     * Tutup DataSource asal (pool Hikari, pool shard tenant) saat context ditutup.
+     */
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return (Connection) proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement", "prepareCall" -> wrapStatement((Statement) result, (String) args[0]);
+                case "createStatement" -> wrapStatement((Statement) result, null);
+                default -> result;
+            };
+        });
+    }
+
+    private Statement wrapStatement(Statement statement, String sql) {
+        Class<? extends Statement> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) proxy(type, statement, new StatementHandler(statement, sql));
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String sql;
+        private final Map<Integer, String> parameter = new TreeMap<>();
+        private int batch;
+
+        private StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                String executed = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+                String shape = name.equals("executeBatch") ? "batch x" + batch : parameter.values().toString();
+                long start = System.nanoTime();
+                try {
+                    return SqlTimingDataSource.invoke(target, method, args);
+                } finally {
+                    if (executed != null) {
+                        statistics.record(executed, System.nanoTime() - start, shape);
+                    }
+                    if (name.equals("executeBatch")) {
+                        batch = 0;
+                    }
+                }
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameter.put(index, name.equals("setNull") || args[1] == null
+                        ? "null" : args[1].getClass().getSimpleName());
+            } else if (name.equals("clearParameters")) {
+                parameter.clear();
+            } else if (name.equals("addBatch")) {
+                batch++;
+            } else if (name.equals("clearBatch")) {
+                batch = 0;
+            }
+            return SqlTimingDataSource.invoke(target, method, args);
+        }
+    }
+
+    private static Object proxy(Class<?> type, Object target, InvocationHandler handler) {
+        return Proxy.newProxyInstance(SqlTimingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (p, method, args) -> switch (method.getName()) {
+                    // Identitas proxy sendiri, agar perbandingan koneksi di Spring tetap konsisten
+                    case "equals" -> p == args[0];
+                    case "hashCode" -> System.identityHashCode(p);
+                    case "toString" -> "Timed[" + target + "]";
+                    default -> handler.invoke(p, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
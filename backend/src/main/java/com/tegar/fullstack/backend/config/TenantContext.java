@@ -0,0 +1,60 @@
+package com.tegar.fullstack.backend.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Tenant (perusahaan) untuk thread berjalan.
+ * <p>
+ * Diisi dari klaim {@code tenant} di JWT (atau header {@value #HEADER} untuk
+ * login dan init-data) oleh {@code JwtAuthenticationFilter}; job terjadwal
+ * memakai {@link #run} per tenant. Tanpa nilai, tenant {@value #DEFAULT}
+ * yang dipakai, sehingga deployment satu perusahaan tidak perlu mengisinya.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT = "default";
+    public static final String HEADER = "X-Tenant";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String get() {
+        String tenant = CURRENT.get();
+        return tenant != null ? tenant : DEFAULT;
+    }
+
+    public static boolean isDefault() {
+        return DEFAULT.equals(get());
+    }
+
+    public static void set(String tenant) {
+        CURRENT.set(tenant);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static void run(String tenant, Runnable task) {
+        call(tenant, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public static <T> T call(String tenant, Supplier<T> task) {
+        String previous = CURRENT.get();
+        CURRENT.set(tenant);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.tegar.fullstack.backend.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Memberi setiap session Hibernate tenant dari {@link TenantContext}.
+ * Koneksinya sudah diarahkan {@link TenantRoutingDataSource}; tenant di session
+ * membuat key second-level cache memuat tenant, sehingga entity dengan ID sama
+ * di dua tenant tidak saling menimpa.
+ */
+@Component
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver<String>, HibernatePropertiesCustomizer {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return TenantContext.get();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, this);
+    }
+}
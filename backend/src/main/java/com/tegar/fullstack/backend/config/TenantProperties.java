@@ -0,0 +1,49 @@
+package com.tegar.fullstack.backend.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daftar tenant ({@code app.tenant.*}). Tenant {@value TenantContext#DEFAULT}
+ * selalu ada dan memakai {@code spring.datasource}; tenant lain hanya aktif
+ * jika {@code app.tenant.enabled=true}, masing-masing dengan database (shard)
+ * dan pool koneksi sendiri.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("app.tenant")
+public class TenantProperties {
+
+    private boolean enabled;
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+
+    public List<String> getTenantIds() {
+        List<String> tenants = new ArrayList<>();
+        tenants.add(TenantContext.DEFAULT);
+        if (enabled) {
+            tenants.addAll(shards.keySet());
+        }
+        return tenants;
+    }
+
+    public boolean exists(String tenant) {
+        return TenantContext.DEFAULT.equals(tenant) || (enabled && shards.containsKey(tenant));
+    }
+}
@@ -0,0 +1,36 @@
+package com.tegar.fullstack.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mengarahkan koneksi ke database tenant dari {@link TenantContext}.
+ * Tenant yang tidak terdaftar ditolak, bukan dialihkan ke tenant default.
+ */
+public class TenantRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final Map<String, HikariDataSource> shards;
+
+    public TenantRoutingDataSource(DataSource defaultTenant, Map<String, HikariDataSource> shards) {
+        this.shards = shards;
+        Map<Object, Object> targets = new HashMap<>(shards);
+        targets.put(TenantContext.DEFAULT, defaultTenant);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(defaultTenant);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TenantContext.get();
+    }
+
+    public void close() {
+        shards.values().forEach(HikariDataSource::close);
+    }
+}
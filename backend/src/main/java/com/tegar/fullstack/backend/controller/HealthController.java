@@ -1,14 +1,26 @@
 package com.tegar.fullstack.backend.controller;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.CompositeHealth;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.HealthEndpointGroups;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
+@RequiredArgsConstructor
 public class HealthController {
     
+    private static final String READINESS = "readiness";
+    
+    private final HealthEndpoint healthEndpoint;
+    private final HealthEndpointGroups healthEndpointGroups;
+    
     @GetMapping("/")
     public ResponseEntity<?> root() {
         return ResponseEntity.ok(Map.of(
@@ -17,10 +29,22 @@ public class HealthController {
         ));
     }
     
+    /**
+     * Readiness untuk load balancer (grup health {@code readiness}: db, pool,
+     * diskSpace, antrean). 503 jika node sebaiknya tidak diberi traffic.
+     */
     @GetMapping("/health")
     public ResponseEntity<?> health() {
-        return ResponseEntity.ok(Map.of(
-            "status", "UP",
+        HealthComponent readiness = healthEndpoint.healthForPath(READINESS);
+        Map<String, Object> komponen = new LinkedHashMap<>();
+        if (readiness instanceof CompositeHealth composite) {
+            composite.getComponents().forEach((nama, health) -> komponen.put(nama, health.getStatus().getCode()));
+        }
+        int httpStatus = healthEndpointGroups.get(READINESS).getHttpCodeStatusMapper()
+                .getStatusCode(readiness.getStatus());
+        return ResponseEntity.status(httpStatus).body(Map.of(
+            "status", readiness.getStatus().getCode(),
+            "komponen", komponen,
             "service", "hr-system-backend",
             "timestamp", System.currentTimeMillis()
         ));
@@ -1,26 +1,40 @@
 package com.tegar.fullstack.backend.controller;
 
+import com.tegar.fullstack.backend.dto.request.DaftarPegawaiRequest;
 import com.tegar.fullstack.backend.dto.request.TambahPegawaiRequest;
+import com.tegar.fullstack.backend.dto.request.UbahPegawaiMassalRequest;
 import com.tegar.fullstack.backend.dto.request.UbahPegawaiRequest;
-import com.tegar.fullstack.backend.dto.response.ComboResponse;
+import com.tegar.fullstack.backend.dto.response.CacheRegionResponse;
+import com.tegar.fullstack.backend.dto.response.HalamanResponse;
+import com.tegar.fullstack.backend.dto.response.ImportPegawaiResponse;
+import com.tegar.fullstack.backend.dto.response.PegawaiCariResponse;
+import com.tegar.fullstack.backend.dto.response.PegawaiPerubahanResponse;
 import com.tegar.fullstack.backend.dto.response.PegawaiResponse;
+import com.tegar.fullstack.backend.dto.response.SqlStatistikResponse;
 import com.tegar.fullstack.backend.exception.BusinessException;
+import com.tegar.fullstack.backend.service.EntityCacheService;
+import com.tegar.fullstack.backend.service.MasterDataRegistry;
+import com.tegar.fullstack.backend.service.PegawaiImportService;
+import com.tegar.fullstack.backend.service.PegawaiSearchIndex;
+import com.tegar.fullstack.backend.service.PegawaiQueryService;
 import com.tegar.fullstack.backend.service.PegawaiService;
+import com.tegar.fullstack.backend.service.PhotoStorageService;
+import com.tegar.fullstack.backend.service.SqlStatisticsService;
+import com.tegar.fullstack.backend.service.ThumbnailService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/pegawai")
@@ -28,66 +42,64 @@ import java.util.UUID;
 public class PegawaiController {
     
     private final PegawaiService pegawaiService;
-    
-    private static final String UPLOAD_DIR = "./uploads/";
+    private final PegawaiQueryService pegawaiQueryService;
+    private final EntityCacheService entityCacheService;
+    private final PegawaiImportService pegawaiImportService;
+    private final MasterDataRegistry masterDataRegistry;
+    private final PhotoStorageService photoStorageService;
+    private final ThumbnailService thumbnailService;
+    private final SqlStatisticsService sqlStatisticsService;
     
     // ========== COMBO ENDPOINTS ==========
     
     @GetMapping("/combo/jabatan")
-    public ResponseEntity<?> comboJabatan() {
-        try {
-            List<ComboResponse> result = pegawaiService.getComboJabatan();
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            return ResponseEntity.status(501).body(List.of());
-        }
+    public ResponseEntity<?> comboJabatan(WebRequest webRequest) {
+        return comboResponse(MasterDataRegistry.Jenis.JABATAN, webRequest);
     }
     
     @GetMapping("/combo/departemen")
-    public ResponseEntity<?> comboDepartemen() {
-        try {
-            List<ComboResponse> result = pegawaiService.getComboDepartemen();
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            return ResponseEntity.status(501).body(List.of());
-        }
+    public ResponseEntity<?> comboDepartemen(WebRequest webRequest) {
+        return comboResponse(MasterDataRegistry.Jenis.DEPARTEMEN, webRequest);
     }
     
     @GetMapping("/combo/unit-kerja")
-    public ResponseEntity<?> comboUnitKerja() {
-        try {
-            List<ComboResponse> result = pegawaiService.getComboUnitKerja();
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            return ResponseEntity.status(501).body(List.of());
-        }
+    public ResponseEntity<?> comboUnitKerja(WebRequest webRequest) {
+        return comboResponse(MasterDataRegistry.Jenis.UNIT_KERJA, webRequest);
     }
     
     @GetMapping("/combo/pendidikan")
-    public ResponseEntity<?> comboPendidikan() {
-        try {
-            List<ComboResponse> result = pegawaiService.getComboPendidikan();
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            return ResponseEntity.status(501).body(List.of());
-        }
+    public ResponseEntity<?> comboPendidikan(WebRequest webRequest) {
+        return comboResponse(MasterDataRegistry.Jenis.PENDIDIKAN, webRequest);
     }
     
     @GetMapping("/combo/jenis-kelamin")
-    public ResponseEntity<?> comboJenisKelamin() {
+    public ResponseEntity<?> comboJenisKelamin(WebRequest webRequest) {
+        return comboResponse(MasterDataRegistry.Jenis.JENIS_KELAMIN, webRequest);
+    }
+    
+    @GetMapping("/combo/departemen-hrd")
+    public ResponseEntity<?> comboDepartemenHrd() {
         try {
-            List<ComboResponse> result = pegawaiService.getComboJenisKelamin();
+            List<Object[]> result = pegawaiQueryService.getComboDepartemenHrd();
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.status(501).body(List.of());
         }
     }
     
-    @GetMapping("/combo/departemen-hrd")
-    public ResponseEntity<?> comboDepartemenHrd() {
+    // JSON combo sudah diserialisasi di MasterDataRegistry; klien yang
+    // mengirim If-None-Match dengan ETag yang sama cukup dijawab 304
+    private ResponseEntity<?> comboResponse(MasterDataRegistry.Jenis jenis, WebRequest webRequest) {
         try {
-            List<Object[]> result = pegawaiService.getComboDepartemenHrd();
-            return ResponseEntity.ok(result);
+            MasterDataRegistry.ComboJson combo = masterDataRegistry.getComboJson(jenis);
+            if (webRequest.checkNotModified(combo.etag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(combo.etag()).build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(combo.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(combo.body());
         } catch (Exception e) {
             return ResponseEntity.status(501).body(List.of());
         }
@@ -96,17 +108,44 @@ public class PegawaiController {
     // ========== PEGAWAI ENDPOINTS ==========
     
     @GetMapping("/daftar")
-    public ResponseEntity<?> daftarPegawai(Authentication authentication) {
+    public ResponseEntity<?> daftarPegawai(Authentication authentication, WebRequest webRequest) {
         try {
             String profile = authentication.getAuthorities().iterator().next().getAuthority();
-            if (!profile.equals("ADMIN") && !profile.equals("HRD")) {
+            if (!profile.equals("ROLE_ADMIN") && !profile.equals("ROLE_HRD")) {
                 return ResponseEntity.status(403).body(Map.of(
                     "status", 403,
                     "message", "Akses ditolak"
                 ));
             }
             
-            List<PegawaiResponse> result = pegawaiService.getAllPegawai();
+            // Cek versi dulu: jika klien sudah punya data terbaru, tidak perlu memuat pegawai
+            String etag = "\"pegawai-" + pegawaiQueryService.getDaftarVersion() + "\"";
+            if (webRequest.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            
+            List<PegawaiResponse> result = pegawaiQueryService.getAllPegawai();
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(result);
+        } catch (BusinessException e) {
+            return ResponseEntity.status(501).body(Map.of(
+                "status", 501,
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(501).body(Map.of(
+                "status", 501,
+                "message", "Gagal mengambil data pegawai"
+            ));
+        }
+    }
+    
+    @GetMapping("/daftar-halaman")
+    public ResponseEntity<?> daftarPegawaiHalaman(@ModelAttribute DaftarPegawaiRequest request) {
+        try {
+            HalamanResponse<PegawaiResponse> result = pegawaiQueryService.getHalamanPegawai(request);
             return ResponseEntity.ok(result);
         } catch (BusinessException e) {
             return ResponseEntity.status(501).body(Map.of(
@@ -121,6 +160,92 @@ public class PegawaiController {
         }
     }
     
+    @GetMapping("/perubahan")
+    public ResponseEntity<?> perubahanPegawai(
+            @RequestParam(required = false) String sejak,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            HalamanResponse<PegawaiPerubahanResponse> result = pegawaiQueryService.getPerubahanPegawai(sejak, limit);
+            return ResponseEntity.ok(result);
+        } catch (BusinessException e) {
+            return ResponseEntity.status(501).body(Map.of(
+                "status", 501,
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(501).body(Map.of(
+                "status", 501,
+                "message", "Gagal mengambil perubahan pegawai"
+            ));
+        }
+    }
+    
+    @GetMapping("/cari")
+    public ResponseEntity<?> cariPegawai(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer kdDepartemen,
+            @RequestParam(required = false) Integer kdJabatan,
+            @RequestParam(required = false) Integer kdUnitKerja,
+            @RequestParam(required = false) Integer kdPendidikan,
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        try {
+            PegawaiSearchIndex.Filter filter = new PegawaiSearchIndex.Filter(
+                    kdDepartemen, kdJabatan, kdUnitKerja, kdPendidikan);
+            List<PegawaiCariResponse> result = pegawaiQueryService.cariPegawai(q, filter, Math.max(1, Math.min(limit, 100)));
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(501).body(Map.of(
+                "status", 501,
+                "message", "Gagal mencari pegawai"
+            ));
+        }
+    }
+    
+    @PostMapping("/admin-rebuild-indeks")
+    public ResponseEntity<?> adminRebuildIndeks() {
+        try {
+            int jumlah = pegawaiService.rebuildIndeksPencarian();
+            return ResponseEntity.ok(Map.of(
+                "message", "Indeks pencarian berhasil dibangun ulang",
+                "jumlah", jumlah
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(501).body(Map.of(
+                "status", 501,
+                "message", "Gagal membangun ulang indeks"
+            ));
+        }
+    }
+    
+    @GetMapping("/admin-cache-statistik")
+    public ResponseEntity<?> adminCacheStatistik() {
+        try {
+            List<CacheRegionResponse> result = entityCacheService.getStatistik();
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(501).body(Map.of(
+                "status", 501,
+                "message", "Gagal mengambil statistik cache"
+            ));
+        }
+    }
+    
+    @GetMapping("/admin-sql-statistik")
+    public ResponseEntity<?> adminSqlStatistik(
+            @RequestParam(defaultValue = "total") String urut,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<SqlStatistikResponse> result = sqlStatisticsService.getTop(urut, Math.min(limit, 200));
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(501).body(Map.of(
+                "status", 501,
+                "message", "Gagal mengambil statistik SQL"
+            ));
+        }
+    }
+    
     @PostMapping("/admin-tambah-pegawai")
     public ResponseEntity<?> adminTambahPegawai(
             @Valid @RequestBody TambahPegawaiRequest request,
@@ -128,7 +253,7 @@ public class PegawaiController {
         
         try {
             String profile = authentication.getAuthorities().iterator().next().getAuthority();
-            if (!profile.equals("ADMIN") && !profile.equals("HRD")) {
+            if (!profile.equals("ROLE_ADMIN") && !profile.equals("ROLE_HRD")) {
                 return ResponseEntity.status(403).body(Map.of(
                     "status", 403,
                     "message", "Akses ditolak"
@@ -151,6 +276,25 @@ public class PegawaiController {
         }
     }
     
+    @PostMapping("/admin-import-pegawai")
+    public ResponseEntity<?> adminImportPegawai(@RequestParam("files") MultipartFile file) {
+        try {
+            ImportPegawaiResponse result = pegawaiImportService.importPegawai(file);
+            return ResponseEntity.ok(result);
+            
+        } catch (BusinessException e) {
+            return ResponseEntity.status(501).body(Map.of(
+                "status", 501,
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(501).body(Map.of(
+                "status", 501,
+                "message", "Gagal mengimpor pegawai"
+            ));
+        }
+    }
+    
     @PostMapping("/admin-ubah-pegawai")
     public ResponseEntity<?> adminUbahPegawai(
             @RequestParam String idUser,
@@ -159,7 +303,7 @@ public class PegawaiController {
         
         try {
             String profile = authentication.getAuthorities().iterator().next().getAuthority();
-            if (!profile.equals("ADMIN") && !profile.equals("HRD")) {
+            if (!profile.equals("ROLE_ADMIN") && !profile.equals("ROLE_HRD")) {
                 return ResponseEntity.status(403).body(Map.of(
                     "status", 403,
                     "message", "Akses ditolak"
@@ -182,36 +326,56 @@ public class PegawaiController {
         }
     }
     
+    @PostMapping("/admin-ubah-pegawai-massal")
+    public ResponseEntity<?> adminUbahPegawaiMassal(@RequestBody UbahPegawaiMassalRequest request) {
+        try {
+            int jumlah = pegawaiService.ubahPegawaiMassal(request);
+            return ResponseEntity.ok(Map.of(
+                "message", "Pegawai berhasil diubah",
+                "jumlah", jumlah
+            ));
+            
+        } catch (BusinessException e) {
+            return ResponseEntity.status(501).body(Map.of(
+                "status", 501,
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(501).body(Map.of(
+                "status", 501,
+                "message", "Gagal mengubah pegawai"
+            ));
+        }
+    }
+    
+    @PostMapping("/admin-nonaktifkan-pegawai")
+    public ResponseEntity<?> adminNonaktifkanPegawai(@RequestParam String idUser) {
+        try {
+            pegawaiService.nonaktifkanPegawai(idUser);
+            return ResponseEntity.ok(Map.of("message", "Pegawai berhasil dinonaktifkan"));
+            
+        } catch (BusinessException e) {
+            return ResponseEntity.status(501).body(Map.of(
+                "status", 501,
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(501).body(Map.of(
+                "status", 501,
+                "message", "Gagal menonaktifkan pegawai"
+            ));
+        }
+    }
+    
     @PostMapping("/admin-ubah-photo")
     public ResponseEntity<?> adminUbahPhoto(
             @RequestParam String idUser,
             @RequestParam("files") MultipartFile file) {
         
         try {
-            // Validasi file
-            if (file.isEmpty()) {
-                throw new BusinessException(501, "File tidak boleh kosong");
-            }
-            
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            
-            if (!fileExtension.matches("\\.(jpg|jpeg|png|gif)$")) {
-                throw new BusinessException(501, "Format file tidak didukung");
-            }
-            
-            // Buat directory jika belum ada
-            File uploadDir = new File(UPLOAD_DIR);
-            if (!uploadDir.exists()) {
-                uploadDir.mkdirs();
-            }
-            
-            // Generate nama file unik
-            String fileName = UUID.randomUUID().toString() + fileExtension;
-            Path filePath = Paths.get(UPLOAD_DIR + fileName);
-            
-            // Simpan file
-            Files.copy(file.getInputStream(), filePath);
+            // Stream ke penyimpanan berbasis hash (duplikat disimpan sekali)
+            String fileName = photoStorageService.simpan(file);
+            thumbnailService.buatAsync(fileName);
             
             // Update photo di database
             pegawaiService.ubahPhotoPegawai(idUser, fileName);
@@ -247,30 +411,9 @@ public class PegawaiController {
         try {
             String userId = authentication.getName().split("\\|")[0];
             
-            // Validasi file
-            if (file.isEmpty()) {
-                throw new BusinessException(501, "File tidak boleh kosong");
-            }
-            
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            
-            if (!fileExtension.matches("\\.(jpg|jpeg|png|gif)$")) {
-                throw new BusinessException(501, "Format file tidak didukung");
-            }
-            
-            // Buat directory jika belum ada
-            File uploadDir = new File(UPLOAD_DIR);
-            if (!uploadDir.exists()) {
-                uploadDir.mkdirs();
-            }
-            
-            // Generate nama file unik
-            String fileName = UUID.randomUUID().toString() + fileExtension;
-            Path filePath = Paths.get(UPLOAD_DIR + fileName);
-            
-            // Simpan file
-            Files.copy(file.getInputStream(), filePath);
+            // Stream ke penyimpanan berbasis hash (duplikat disimpan sekali)
+            String fileName = photoStorageService.simpan(file);
+            thumbnailService.buatAsync(fileName);
             
             // Update photo di database
             pegawaiService.ubahPhotoSendiri(userId, fileName);
@@ -0,0 +1,225 @@
+package com.tegar.fullstack.backend.controller;
+
+import com.tegar.fullstack.backend.service.PhotoStorageService;
+import com.tegar.fullstack.backend.service.ThumbnailService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Menyajikan foto pegawai dari direktori upload. Hak akses diperiksa
+ * {@link com.tegar.fullstack.backend.security.PhotoAccessManager} sebelum
+ * request sampai ke sini.
+ * <p>
+ * Nama file unik (hash isi atau UUID lama), sehingga isi di balik sebuah URL
+ * tidak pernah berubah: ETag diambil dari nama file dan respons boleh di-cache
+ * selamanya oleh browser (bukan cache bersama). {@code If-None-Match} dijawab 304 tanpa menyentuh disk. Isi file
+ * dikirim lewat sendfile Tomcat bila tersedia (thread request langsung
+ * dilepas), atau {@link FileChannel#transferTo} sebagai cadangan.
+ * <p>
+ * Parameter {@code size} memilih thumbnail terkecil yang cukup besar. Selama
+ * thumbnail belum selesai dibuat, file asli dikirim dengan cache singkat.
+ */
+@RestController
+@RequiredArgsConstructor
+public class PhotoController {
+    
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    // private: foto butuh login, cache bersama (proxy/CDN) tidak boleh menyimpannya
+    private static final String CACHE_CONTROL = "private, max-age=31536000, immutable";
+    private static final String CACHE_CONTROL_FALLBACK = "private, max-age=60";
+    
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jpg", MediaType.IMAGE_JPEG_VALUE,
+            "jpeg", MediaType.IMAGE_JPEG_VALUE,
+            "png", MediaType.IMAGE_PNG_VALUE,
+            "gif", MediaType.IMAGE_GIF_VALUE);
+    
+    private final PhotoStorageService photoStorageService;
+    private final ThumbnailService thumbnailService;
+    
+    @GetMapping("/uploads/{*photo}")
+    public void photo(
+            @PathVariable String photo,
+            @RequestParam(required = false) Integer size,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        
+        String relative = photo.startsWith("/") ? photo.substring(1) : photo;
+        Path file = photoStorageService.resolve(relative);
+        String contentType = CONTENT_TYPES.get(extension(relative));
+        if (file == null || contentType == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        
+        String etag = etag(relative);
+        String cacheControl = CACHE_CONTROL;
+        
+        Integer ukuran = size != null ? thumbnailService.pilihUkuran(size) : null;
+        if (ukuran != null) {
+            Path variant = thumbnailService.getVariant(relative, ukuran);
+            if (variant != null) {
+                String variantRelative = photoStorageService.variant(relative, ukuran);
+                file = variant;
+                contentType = MediaType.IMAGE_JPEG_VALUE;
+                etag = etag(variantRelative);
+            } else {
+                // Thumbnail belum siap: kirim asli, cek lagi sebentar kemudian
+                cacheControl = CACHE_CONTROL_FALLBACK;
+            }
+        }
+        
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        
+        long length;
+        try {
+            length = Files.size(file);
+        } catch (NoSuchFileException e) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        
+        long start = 0;
+        long end = length;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] parsed = parseRange(range, length);
+            if (parsed == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (parsed.length == 2) {
+                start = parsed[0];
+                end = parsed[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+        
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod()) || end == start) {
+            return;
+        }
+        
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat mengirim file langsung dari kernel setelah handler selesai
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+    
+    /**
+     * Parse satu rentang {@code bytes=a-b}, {@code bytes=a-} atau {@code bytes=-n}.
+     * Mengembalikan {start, endExclusive}, array kosong untuk header yang
+     * diabaikan (multi-range atau bukan bytes; dijawab 200 penuh), atau
+     * {@code null} jika rentang tidak bisa dipenuhi.
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String from = spec.substring(0, dash).trim();
+            String to = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (from.isEmpty()) {
+                long suffix = Long.parseLong(to);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length;
+            } else {
+                start = Long.parseLong(from);
+                end = to.isEmpty() ? length : Math.min(Long.parseLong(to) + 1, length);
+            }
+            if (start >= length || start >= end) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+    
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag) || value.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String etag(String relative) {
+        String name = relative.substring(relative.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        return "\"" + (dot > 0 ? name.substring(0, dot) : name) + "\"";
+    }
+    
+    private static String extension(String relative) {
+        int dot = relative.lastIndexOf('.');
+        return dot >= 0 ? relative.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -1,15 +1,20 @@
 package com.tegar.fullstack.backend.controller;
 
-import com.tegar.fullstack.backend.dto.response.ComboResponse;
 import com.tegar.fullstack.backend.dto.response.PresensiResponse;
 import com.tegar.fullstack.backend.exception.BusinessException;
+import com.tegar.fullstack.backend.service.MasterDataRegistry;
+import com.tegar.fullstack.backend.service.PresensiQueryService;
 import com.tegar.fullstack.backend.service.PresensiService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -20,15 +25,26 @@ import java.util.Map;
 public class PresensiController {
 
     private final PresensiService presensiService;
+    private final PresensiQueryService presensiQueryService;
+    private final MasterDataRegistry masterDataRegistry;
+    private final MeterRegistry meterRegistry;
 
     @GetMapping("/combo/status-absen")
     public ResponseEntity<?> comboStatusAbsen(
             @RequestParam Long tglAwal,
-            @RequestParam Long tglAkhir) {
+            @RequestParam Long tglAkhir,
+            WebRequest webRequest) {
 
         try {
-            List<ComboResponse> result = presensiService.getComboStatusAbsen(tglAwal, tglAkhir);
-            return ResponseEntity.ok(result);
+            MasterDataRegistry.ComboJson combo = masterDataRegistry.getComboJson(MasterDataRegistry.Jenis.STATUS_ABSEN);
+            if (webRequest.checkNotModified(combo.etag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(combo.etag()).build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(combo.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(combo.body());
         } catch (Exception e) {
             return ResponseEntity.status(501).body(List.of());
         }
@@ -51,13 +67,13 @@ public class PresensiController {
                 .next()
                 .getAuthority();
 
-        if (!role.equals("ADMIN") && !role.equals("HRD")) {
+        if (!role.equals("ROLE_ADMIN") && !role.equals("ROLE_HRD")) {
             return ResponseEntity
                     .status(HttpStatus.FORBIDDEN)
                     .body("Akses ditolak");
         }
 
-        List<PresensiResponse> result = presensiService.getDaftarPresensiAdmin(tglAwal, tglAkhir);
+        List<PresensiResponse> result = presensiQueryService.getDaftarPresensiAdmin(tglAwal, tglAkhir);
 
         return ResponseEntity.ok(result);
     }
@@ -71,7 +87,7 @@ public class PresensiController {
         try {
             String userId = authentication.getName().split("\\|")[0];
 
-            List<PresensiResponse> result = presensiService.getDaftarPresensiPegawai(userId, tglAwal, tglAkhir);
+            List<PresensiResponse> result = presensiQueryService.getDaftarPresensiPegawai(userId, tglAwal, tglAkhir);
             return ResponseEntity.ok(result);
 
         } catch (BusinessException e) {
@@ -90,13 +106,16 @@ public class PresensiController {
         try {
             String userId = authentication.getName().split("\\|")[0];
             String jamMasuk = presensiService.checkIn(userId);
+            catatHasil("check-in", "berhasil");
             return ResponseEntity.ok(Map.of("jamMasuk", jamMasuk));
 
         } catch (BusinessException e) {
+            catatHasil("check-in", "ditolak");
             return ResponseEntity.status(501).body(Map.of(
                     "status", 501,
                     "message", e.getMessage()));
         } catch (Exception e) {
+            catatHasil("check-in", "gagal");
             return ResponseEntity.status(501).body(Map.of(
                     "status", 501,
                     "message", "Gagal check in"));
@@ -108,13 +127,16 @@ public class PresensiController {
         try {
             String userId = authentication.getName().split("\\|")[0];
             String jamKeluar = presensiService.checkOut(userId);
+            catatHasil("check-out", "berhasil");
             return ResponseEntity.ok(Map.of("jamKeluar", jamKeluar));
 
         } catch (BusinessException e) {
+            catatHasil("check-out", "ditolak");
             return ResponseEntity.status(501).body(Map.of(
                     "status", 501,
                     "message", e.getMessage()));
         } catch (Exception e) {
+            catatHasil("check-out", "gagal");
             return ResponseEntity.status(501).body(Map.of(
                     "status", 501,
                     "message", "Gagal check out"));
@@ -130,16 +152,27 @@ public class PresensiController {
         try {
             String userId = authentication.getName().split("\\|")[0];
             presensiService.absen(userId, tglAbsensi, kdStatus);
+            catatHasil("absen", "berhasil");
             return ResponseEntity.ok(Map.of("message", "Absen berhasil dicatat"));
 
         } catch (BusinessException e) {
+            catatHasil("absen", "ditolak");
             return ResponseEntity.status(501).body(Map.of(
                     "status", 501,
                     "message", e.getMessage()));
         } catch (Exception e) {
+            catatHasil("absen", "gagal");
             return ResponseEntity.status(501).body(Map.of(
                     "status", 501,
                     "message", "Gagal mencatat absen"));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Counter {@code presensi.hasil}: ditolak = aturan bisnis (sudah check in,
+     * belum check in, ...), gagal = error tak terduga.
+     */
+    private void catatHasil(String aksi, String hasil) {
+        meterRegistry.counter("presensi.hasil", "aksi", aksi, "hasil", hasil).increment();
+    }
+}
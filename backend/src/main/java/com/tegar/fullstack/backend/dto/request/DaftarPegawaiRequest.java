@@ -0,0 +1,32 @@
+package com.tegar.fullstack.backend.dto.request;
+
+import lombok.*;
+
+/**
+ * Parameter daftar pegawai berhalaman (keyset).
+ * <p>
+ * {@code setelah} adalah cursor dari halaman sebelumnya; kosong untuk
+ * halaman pertama.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class DaftarPegawaiRequest {
+    
+    // Filter
+    private Integer kdDepartemen;
+    private Integer kdJabatan;
+    private Integer kdUnitKerja;
+    private Integer kdJenisKelamin;
+    private Integer kdPendidikan;
+    
+    // Urutan: "nama" atau "id"; arah: "asc" atau "desc"
+    @Builder.Default
+    private String urut = "nama";
+    
+    @Builder.Default
+    private String arah = "asc";
+    
+    @Builder.Default
+    private Integer size = 50;
+    
+    private String setelah;
+}
@@ -0,0 +1,29 @@
+package com.tegar.fullstack.backend.dto.request;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Perubahan sebagian (mutasi/reorganisasi) untuk banyak pegawai sekaligus.
+ * Field kode yang bernilai null tidak diubah.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class UbahPegawaiMassalRequest {
+    
+    // Sasaran: daftar ID eksplisit dan/atau filter
+    private List<String> idUsers;
+    private Filter filter;
+    
+    // Nilai baru
+    private Integer kdDepartemen;
+    private Integer kdJabatan;
+    private Integer kdUnitKerja;
+    
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class Filter {
+        private Integer kdDepartemen;
+        private Integer kdJabatan;
+        private Integer kdUnitKerja;
+    }
+}
@@ -0,0 +1,17 @@
+package com.tegar.fullstack.backend.dto.response;
+
+import lombok.*;
+
+/**
+ * Statistik satu region second-level cache sejak aplikasi start.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class CacheRegionResponse {
+    private String region;
+    private long hit;
+    private long miss;
+    private long put;
+    private double hitRatio;
+    // Batas jumlah entri di heap (ehcache.xml); null jika tidak diketahui
+    private Long batas;
+}
@@ -0,0 +1,14 @@
+package com.tegar.fullstack.backend.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class HalamanResponse<T> {
+    private List<T> data;
+    
+    // Cursor untuk halaman berikutnya (null jika sudah halaman terakhir)
+    private String cursor;
+    private boolean adaLagi;
+}
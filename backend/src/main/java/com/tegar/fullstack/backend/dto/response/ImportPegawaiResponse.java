@@ -0,0 +1,29 @@
+package com.tegar.fullstack.backend.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportPegawaiResponse {
+
+    private int total;
+    private int berhasil;
+    private int gagal;
+    private List<Kesalahan> kesalahan;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Kesalahan {
+        private int baris;
+        private String email;
+        private String message;
+    }
+}
@@ -0,0 +1,19 @@
+package com.tegar.fullstack.backend.dto.response;
+
+import lombok.*;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class PegawaiCariResponse {
+    private String idUser;
+    private String namaLengkap;
+    private String nikUser;
+    private String email;
+    private Integer kdDepartemen;
+    private String namaDepartemen;
+    private Integer kdJabatan;
+    private String namaJabatan;
+    private Integer kdUnitKerja;
+    private String namaUnitKerja;
+    private Integer kdPendidikan;
+    private String namaPendidikan;
+}
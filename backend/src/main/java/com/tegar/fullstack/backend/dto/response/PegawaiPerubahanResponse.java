@@ -0,0 +1,24 @@
+package com.tegar.fullstack.backend.dto.response;
+
+import lombok.*;
+
+/**
+ * Satu entri delta-sync pegawai. Pegawai yang dinonaktifkan dikirim sebagai
+ * tombstone: {@code aktif = false} tanpa {@code pegawai}.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class PegawaiPerubahanResponse {
+    private String idUser;
+    private Long versi;
+    private Long updatedAtEpoch;
+    private boolean aktif;
+    private PegawaiResponse pegawai;
+    
+    // Dipakai oleh query JPQL; detail pegawai diisi terpisah
+    public PegawaiPerubahanResponse(String idUser, Long versi, Long updatedAtEpoch, Boolean aktif) {
+        this.idUser = idUser;
+        this.versi = versi;
+        this.updatedAtEpoch = updatedAtEpoch;
+        this.aktif = aktif == null || aktif;
+    }
+}
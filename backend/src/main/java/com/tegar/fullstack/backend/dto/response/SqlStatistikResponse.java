@@ -0,0 +1,21 @@
+package com.tegar.fullstack.backend.dto.response;
+
+import lombok.*;
+
+/**
+ * Latensi satu statement SQL ter-normalisasi sejak aplikasi start. Persentil
+ * berupa batas atas bucket histogram.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class SqlStatistikResponse {
+    private String sql;
+    private long jumlah;
+    // Eksekusi di atas app.sql.slow-threshold-ms
+    private long lambat;
+    private double totalMs;
+    private double rataRataMs;
+    private double maxMs;
+    private double p50Ms;
+    private double p95Ms;
+    private double p99Ms;
+}
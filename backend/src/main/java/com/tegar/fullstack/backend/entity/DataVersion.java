@@ -0,0 +1,22 @@
+package com.tegar.fullstack.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Nomor versi per kumpulan data, dinaikkan di transaksi yang sama dengan
+ * perubahan datanya. Dipakai sebagai ETag murah (satu lookup primary key).
+ */
+@Entity @Table(name = "data_version")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class DataVersion {
+    
+    public static final String PEGAWAI = "pegawai";
+    
+    @Id
+    @Column(name = "nama", length = 50)
+    private String nama;
+    
+    @Column(name = "versi", nullable = false)
+    private Long versi;
+}
@@ -1,9 +1,15 @@
 package com.tegar.fullstack.backend.entity;
 
+import com.tegar.fullstack.backend.service.MasterDataListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity @Table(name = "departemen")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+@EntityListeners(MasterDataListener.class)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Departemen {
     @Id
@@ -1,11 +1,19 @@
 package com.tegar.fullstack.backend.entity;
 
+import com.tegar.fullstack.backend.service.EntityCacheListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Instant;
 
+// Index untuk daftar, filter, dan delta-sync didefinisikan di db/migration;
+// region second-level cache dan batas ukurannya di ehcache.xml
 @Entity
 @Table(name = "pegawai")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(EntityCacheListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -64,6 +72,10 @@ public class Pegawai {
     @Column(name = "updated_at_epoch")
     private Long updatedAtEpoch;
 
+    // Diisi PegawaiVersi lewat JDBC di akhir transaksi, tidak pernah ditulis Hibernate
+    @Column(name = "versi_perubahan", insertable = false, updatable = false)
+    private Long versiPerubahan;
+
     @PreUpdate
     public void preUpdate() {
         updatedAtEpoch = Instant.now().getEpochSecond();
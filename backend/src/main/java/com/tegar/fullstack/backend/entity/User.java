@@ -1,11 +1,17 @@
 package com.tegar.fullstack.backend.entity;
 
+import com.tegar.fullstack.backend.service.EntityCacheListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Instant;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(EntityCacheListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -13,8 +19,8 @@ import java.time.Instant;
 @Builder
 public class User {
 
+    // Diisi oleh PegawaiIdAllocator (format USR000001)
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     @Column(name = "id_user", updatable = false, nullable = false)
     private String id;
 
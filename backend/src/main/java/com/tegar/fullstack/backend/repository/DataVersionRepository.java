@@ -0,0 +1,18 @@
+package com.tegar.fullstack.backend.repository;
+
+import com.tegar.fullstack.backend.entity.DataVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DataVersionRepository extends JpaRepository<DataVersion, String> {
+    
+    @Modifying
+    @Query("UPDATE DataVersion v SET v.versi = v.versi + 1 WHERE v.nama = :nama")
+    int increment(String nama);
+    
+    @Query("SELECT v.versi FROM DataVersion v WHERE v.nama = :nama")
+    Long findVersi(String nama);
+}
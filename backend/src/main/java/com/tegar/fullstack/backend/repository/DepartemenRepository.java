@@ -2,10 +2,14 @@ package com.tegar.fullstack.backend.repository;
 
 import com.tegar.fullstack.backend.entity.Departemen;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
 public interface DepartemenRepository extends JpaRepository<Departemen, Integer> {
     Optional<Departemen> findByNama(String nama);
+    
+    @Query("SELECT d.id FROM Departemen d WHERE d.nama = :nama")
+    Optional<Integer> findIdByNama(String nama);
 }
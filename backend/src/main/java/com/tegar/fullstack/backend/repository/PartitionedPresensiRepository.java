@@ -0,0 +1,247 @@
+package com.tegar.fullstack.backend.repository;
+
+import com.tegar.fullstack.backend.entity.Pegawai;
+import com.tegar.fullstack.backend.entity.Presensi;
+import com.tegar.fullstack.backend.entity.StatusAbsen;
+import com.tegar.fullstack.backend.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * PresensiRepository di atas partisi bulanan.
+ * <p>
+ * Lookup per tanggal hanya menyentuh satu partisi; query rentang digabung
+ * dengan UNION ALL hanya atas partisi yang beririsan dengan rentang, sehingga
+ * riwayat bertahun-tahun tidak ikut dibaca.
+ * <p>
+ * Bulan yang sudah diarsipkan ({@link PresensiArchive}) dibaca dari file arsip
+ * dan digabung dengan hasil partisi, sehingga pemanggil tidak perlu tahu di
+ * mana data berada. Bulan arsip bersifat read-only.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PartitionedPresensiRepository implements PresensiRepository {
+    
+    private static final String COLUMNS = "p.id, p.id_user, p.tgl_absensi, p.jam_masuk, p.jam_keluar, "
+            + "p.kd_status, p.created_at_epoch, g.nama_lengkap, s.nama_status";
+    
+    private static final RowMapper<Presensi> ROW_MAPPER = (rs, rowNum) -> Presensi.builder()
+            .id(rs.getLong("id"))
+            .pegawai(Pegawai.builder()
+                    .id(rs.getString("id_user"))
+                    .namaLengkap(rs.getString("nama_lengkap"))
+                    .build())
+            .tglAbsensi(rs.getLong("tgl_absensi"))
+            .jamMasuk(rs.getString("jam_masuk"))
+            .jamKeluar(rs.getString("jam_keluar"))
+            .statusAbsen(rs.getObject("kd_status") != null
+                    ? StatusAbsen.builder().id(rs.getInt("kd_status")).nama(rs.getString("nama_status")).build()
+                    : null)
+            .createdAtEpoch(rs.getObject("created_at_epoch", Long.class))
+            .build();
+    
+    private static final int ENRICH_CHUNK = 500;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final PresensiPartitions partitions;
+    private final PresensiArchive archive;
+    
+    @Override
+    public Presensi findByPegawaiAndTglAbsensi(Pegawai pegawai, Long tglAbsensi) {
+        YearMonth bulan = partitions.bulanOf(tglAbsensi);
+        // Partisi dulu, baru arsip (lihat liveTables)
+        String table = partitions.tableFor(tglAbsensi);
+        if (archive.isArchived(bulan)) {
+            List<Presensi> arsip = enrich(archive.read(bulan, pegawai.getId(), tglAbsensi, tglAbsensi));
+            return arsip.isEmpty() ? null : arsip.get(0);
+        }
+        if (table == null) {
+            return null;
+        }
+        List<Presensi> result = jdbcTemplate.query(sqlPerPegawaiTanggal(table), ROW_MAPPER,
+                pegawai.getId(), tglAbsensi);
+        return result.isEmpty() ? null : result.get(0);
+    }
+    
+    @Override
+    public List<Presensi> findByPegawaiAndTglAbsensiBetween(Pegawai pegawai, Long tglAwal, Long tglAkhir) {
+        NavigableSet<YearMonth> live = partitions.bulanBetween(tglAwal, tglAkhir);
+        List<String> tables = liveTables(live);
+        List<Presensi> arsip = readArchive(pegawai.getId(), tglAwal, tglAkhir, live);
+        if (tables.isEmpty()) {
+            return arsip;
+        }
+        List<Object> args = new ArrayList<>();
+        for (int i = 0; i < tables.size(); i++) {
+            args.add(pegawai.getId());
+            args.add(tglAwal);
+            args.add(tglAkhir);
+        }
+        return merge(arsip, jdbcTemplate.query(sqlPerPegawaiRentang(tables), ROW_MAPPER, args.toArray()));
+    }
+    
+    @Override
+    public List<Presensi> findByTglAbsensiBetween(Long tglAwal, Long tglAkhir) {
+        NavigableSet<YearMonth> live = partitions.bulanBetween(tglAwal, tglAkhir);
+        List<String> tables = liveTables(live);
+        List<Presensi> arsip = readArchive(null, tglAwal, tglAkhir, live);
+        if (tables.isEmpty()) {
+            return arsip;
+        }
+        List<Object> args = new ArrayList<>();
+        for (int i = 0; i < tables.size(); i++) {
+            args.add(tglAwal);
+            args.add(tglAkhir);
+        }
+        return merge(arsip, jdbcTemplate.query(sqlRentang(tables), ROW_MAPPER, args.toArray()));
+    }
+    
+    @Override
+    public Presensi save(Presensi presensi) {
+        if (archive.isArchived(partitions.bulanOf(presensi.getTglAbsensi()))) {
+            throw new BusinessException(501, "Presensi bulan tersebut sudah diarsipkan");
+        }
+        String table = partitions.tableForWrite(presensi.getTglAbsensi());
+        try {
+            return write(table, presensi);
+        } catch (DataIntegrityViolationException e) {
+            // Partisi dikunci karena sedang diarsipkan (bisa oleh node lain)
+            String lock = PresensiPartitions.lockName(partitions.bulanOf(presensi.getTglAbsensi()));
+            if (String.valueOf(e.getMessage()).toLowerCase(Locale.ROOT).contains(lock)) {
+                throw new BusinessException(501, "Presensi bulan tersebut sedang diarsipkan");
+            }
+            throw e;
+        }
+    }
+    
+    private Presensi write(String table, Presensi presensi) {
+        Integer kdStatus = presensi.getStatusAbsen() != null ? presensi.getStatusAbsen().getId() : null;
+        
+        if (presensi.getId() == null) {
+            Long id = jdbcTemplate.queryForObject(
+                    "SELECT NEXT VALUE FOR " + PresensiPartitions.SEQUENCE, Long.class);
+            jdbcTemplate.update("INSERT INTO " + table
+                            + " (id, id_user, tgl_absensi, jam_masuk, jam_keluar, kd_status, created_at_epoch) "
+                            + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    id, presensi.getPegawai().getId(), presensi.getTglAbsensi(), presensi.getJamMasuk(),
+                    presensi.getJamKeluar(), kdStatus, presensi.getCreatedAtEpoch());
+            presensi.setId(id);
+        } else {
+            jdbcTemplate.update("UPDATE " + table + " SET jam_masuk = ?, jam_keluar = ?, kd_status = ? WHERE id = ?",
+                    presensi.getJamMasuk(), presensi.getJamKeluar(), kdStatus, presensi.getId());
+        }
+        return presensi;
+    }
+    
+    // ========== ARSIP ==========
+    
+    /**
+     * Partisi dalam rentang yang belum diarsipkan. Selama pengarsipan berjalan
+     * sebuah bulan bisa ada di keduanya; file arsip yang dipakai.
+     * <p>
+     * Partisi dibaca lebih dulu, baru arsip: file arsip selalu ada sebelum
+     * partisinya di-drop, jadi bulan yang diarsipkan node lain di antara
+     * keduanya tetap ditemukan di arsip.
+     */
+    private List<String> liveTables(NavigableSet<YearMonth> live) {
+        List<String> tables = new ArrayList<>();
+        for (YearMonth bulan : live) {
+            if (!archive.isArchived(bulan)) {
+                tables.add(PresensiPartitions.tableName(bulan));
+            }
+        }
+        return tables;
+    }
+    
+    private List<Presensi> readArchive(String idUser, long tglAwal, long tglAkhir, Set<YearMonth> live) {
+        if (tglAwal > tglAkhir) {
+            return List.of();
+        }
+        List<Presensi> result = new ArrayList<>();
+        for (YearMonth bulan : archive.bulanBetween(partitions.bulanOf(tglAwal), partitions.bulanOf(tglAkhir), live)) {
+            result.addAll(archive.read(bulan, idUser, tglAwal, tglAkhir));
+        }
+        return enrich(result);
+    }
+    
+    private static List<Presensi> merge(List<Presensi> arsip, List<Presensi> live) {
+        if (arsip.isEmpty()) {
+            return live;
+        }
+        List<Presensi> result = new ArrayList<>(arsip.size() + live.size());
+        result.addAll(arsip);
+        result.addAll(live);
+        result.sort(Comparator.comparing(Presensi::getTglAbsensi).thenComparing(p -> p.getPegawai().getId()));
+        return result;
+    }
+    
+    /**
+     * Lengkapi nama pegawai dan status untuk baris arsip, yang hanya menyimpan kode.
+     */
+    private List<Presensi> enrich(List<Presensi> rows) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        Map<Integer, String> statuses = new HashMap<>();
+        jdbcTemplate.query("SELECT kd_status, nama_status FROM status_absen",
+                rs -> { statuses.put(rs.getInt(1), rs.getString(2)); });
+        
+        List<String> ids = rows.stream().map(p -> p.getPegawai().getId()).distinct().toList();
+        Map<String, String> names = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += ENRICH_CHUNK) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + ENRICH_CHUNK));
+            jdbcTemplate.query("SELECT id_user, nama_lengkap FROM pegawai WHERE id_user IN ("
+                            + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")",
+                    rs -> { names.put(rs.getString(1), rs.getString(2)); }, chunk.toArray());
+        }
+        
+        // Sama dengan JOIN pada partisi: baris tanpa pegawai tidak ikut
+        List<Presensi> result = new ArrayList<>(rows.size());
+        for (Presensi row : rows) {
+            String nama = names.get(row.getPegawai().getId());
+            if (nama == null) {
+                continue;
+            }
+            row.getPegawai().setNamaLengkap(nama);
+            if (row.getStatusAbsen() != null) {
+                row.getStatusAbsen().setNama(statuses.get(row.getStatusAbsen().getId()));
+            }
+            result.add(row);
+        }
+        return result;
+    }
+    
+    // ========== SQL ==========
+    
+    static String sqlPerPegawaiTanggal(String table) {
+        return select(table) + " WHERE p.id_user = ? AND p.tgl_absensi = ?";
+    }
+    
+    static String sqlPerPegawaiRentang(List<String> tables) {
+        return union(tables, " WHERE p.id_user = ? AND p.tgl_absensi BETWEEN ? AND ?");
+    }
+    
+    static String sqlRentang(List<String> tables) {
+        return union(tables, " WHERE p.tgl_absensi BETWEEN ? AND ?");
+    }
+    
+    private static String union(List<String> tables, String where) {
+        List<String> parts = new ArrayList<>();
+        for (String table : tables) {
+            parts.add(select(table) + where);
+        }
+        return String.join(" UNION ALL ", parts) + " ORDER BY tgl_absensi, id_user";
+    }
+    
+    private static String select(String table) {
+        return "SELECT " + COLUMNS + " FROM " + table + " p "
+                + "JOIN pegawai g ON g.id_user = p.id_user "
+                + "LEFT JOIN status_absen s ON s.kd_status = p.kd_status";
+    }
+}
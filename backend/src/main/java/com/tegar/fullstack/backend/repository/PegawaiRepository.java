@@ -1,17 +1,63 @@
 package com.tegar.fullstack.backend.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import com.tegar.fullstack.backend.dto.response.PegawaiPerubahanResponse;
+import com.tegar.fullstack.backend.dto.response.PegawaiResponse;
 import com.tegar.fullstack.backend.entity.Departemen;
 import com.tegar.fullstack.backend.entity.Pegawai;
 import com.tegar.fullstack.backend.entity.User;
 
-public interface PegawaiRepository extends JpaRepository<Pegawai, String> {
+public interface PegawaiRepository extends JpaRepository<Pegawai, String>, PegawaiRepositoryCustom {
 
     Optional<Pegawai> findByUser(User user);
     List<Pegawai> findByDepartemen(Departemen departemen);
 
+    // Combo: nama pegawai + jabatan sebagai skalar, tanpa hidrasi entity
+    @Query("SELECT p.namaLengkap, j.id, j.nama FROM Pegawai p LEFT JOIN p.jabatan j "
+            + "WHERE p.departemen.id = :kdDepartemen")
+    List<Object[]> findComboByDepartemen(Integer kdDepartemen);
+
+    // Satu query join langsung ke DTO: tanpa hidrasi entity dan tanpa N+1
+    @Query("SELECT new com.tegar.fullstack.backend.dto.response.PegawaiResponse("
+            + "u.profile, u.id, p.namaLengkap, p.tempatLahir, p.tanggalLahir, u.email, p.nikUser, "
+            + "j.id, j.nama, d.id, d.nama, uk.id, uk.nama, jk.id, jk.nama, pd.id, pd.nama, p.photo) "
+            + "FROM Pegawai p JOIN p.user u "
+            + "LEFT JOIN p.jabatan j LEFT JOIN p.departemen d LEFT JOIN p.unitKerja uk "
+            + "LEFT JOIN p.jenisKelamin jk LEFT JOIN p.pendidikan pd")
+    List<PegawaiResponse> findAllResponses();
+
+    @Query("SELECT new com.tegar.fullstack.backend.dto.response.PegawaiResponse("
+            + "u.profile, u.id, p.namaLengkap, p.tempatLahir, p.tanggalLahir, u.email, p.nikUser, "
+            + "j.id, j.nama, d.id, d.nama, uk.id, uk.nama, jk.id, jk.nama, pd.id, pd.nama, p.photo) "
+            + "FROM Pegawai p JOIN p.user u "
+            + "LEFT JOIN p.jabatan j LEFT JOIN p.departemen d LEFT JOIN p.unitKerja uk "
+            + "LEFT JOIN p.jenisKelamin jk LEFT JOIN p.pendidikan pd "
+            + "WHERE p.id IN :ids")
+    List<PegawaiResponse> findResponsesByIds(Collection<String> ids);
+
+    // Keyset di atas index (versi_perubahan, id_user); versi dicap berurutan
+    // sesuai urutan commit (lihat PegawaiVersi)
+    @Query("SELECT new com.tegar.fullstack.backend.dto.response.PegawaiPerubahanResponse("
+            + "p.id, p.versiPerubahan, p.updatedAtEpoch, u.active) "
+            + "FROM Pegawai p JOIN p.user u "
+            + "WHERE p.versiPerubahan >= :sejakVersi "
+            + "AND (p.versiPerubahan > :sejakVersi OR p.id > :sejakId) "
+            + "ORDER BY p.versiPerubahan, p.id")
+    List<PegawaiPerubahanResponse> findPerubahan(long sejakVersi, String sejakId, Limit limit);
+
+    @Query("SELECT DISTINCT p.photo FROM Pegawai p WHERE p.photo IS NOT NULL")
+    List<String> findAllPhotos();
+
+    boolean existsByUserEmailAndPhoto(String email, String photo);
+
+    @Query("SELECT p.nikUser FROM Pegawai p WHERE p.nikUser IN :nikUsers")
+    List<String> findExistingNikUsers(Collection<String> nikUsers);
+
 }
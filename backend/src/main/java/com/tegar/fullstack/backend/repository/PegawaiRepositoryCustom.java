@@ -0,0 +1,18 @@
+package com.tegar.fullstack.backend.repository;
+
+import com.tegar.fullstack.backend.dto.request.DaftarPegawaiRequest;
+import com.tegar.fullstack.backend.dto.response.PegawaiResponse;
+
+import java.util.List;
+
+public interface PegawaiRepositoryCustom {
+    
+    /**
+     * Satu halaman daftar pegawai dengan keyset pagination.
+     *
+     * @param lastNama nama pada baris terakhir halaman sebelumnya (urut nama)
+     * @param lastId   ID pada baris terakhir halaman sebelumnya
+     * @param limit    jumlah baris maksimum yang diambil
+     */
+    List<PegawaiResponse> findHalaman(DaftarPegawaiRequest request, String lastNama, String lastId, int limit);
+}
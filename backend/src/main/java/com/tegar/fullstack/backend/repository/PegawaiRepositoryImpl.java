@@ -0,0 +1,77 @@
+package com.tegar.fullstack.backend.repository;
+
+import com.tegar.fullstack.backend.dto.request.DaftarPegawaiRequest;
+import com.tegar.fullstack.backend.dto.response.PegawaiResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PegawaiRepositoryImpl implements PegawaiRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<PegawaiResponse> findHalaman(DaftarPegawaiRequest request, String lastNama, String lastId, int limit) {
+        List<String> where = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>();
+        
+        // Filter memakai kolom FK langsung (p.x.id), tidak perlu join tambahan
+        addFilter(where, params, "p.departemen.id", "kdDepartemen", request.getKdDepartemen());
+        addFilter(where, params, "p.jabatan.id", "kdJabatan", request.getKdJabatan());
+        addFilter(where, params, "p.unitKerja.id", "kdUnitKerja", request.getKdUnitKerja());
+        addFilter(where, params, "p.jenisKelamin.id", "kdJenisKelamin", request.getKdJenisKelamin());
+        addFilter(where, params, "p.pendidikan.id", "kdPendidikan", request.getKdPendidikan());
+        
+        boolean desc = "desc".equalsIgnoreCase(request.getArah());
+        String cmp = desc ? "<" : ">";
+        String cmpEq = desc ? "<=" : ">=";
+        String dir = desc ? " DESC" : " ASC";
+        
+        String orderBy;
+        if ("id".equalsIgnoreCase(request.getUrut())) {
+            if (lastId != null) {
+                where.add("p.id " + cmp + " :lastId");
+                params.put("lastId", lastId);
+            }
+            orderBy = "p.id" + dir;
+        } else {
+            if (lastId != null) {
+                // Bentuk (nama >= x AND (nama > x OR id > y)) agar index (nama, id)
+                // tetap bisa dipakai sebagai range scan
+                where.add("p.namaLengkap " + cmpEq + " :lastNama AND (p.namaLengkap " + cmp
+                        + " :lastNama OR p.id " + cmp + " :lastId)");
+                params.put("lastNama", lastNama);
+                params.put("lastId", lastId);
+            }
+            orderBy = "p.namaLengkap" + dir + ", p.id" + dir;
+        }
+        
+        String jpql = "SELECT new com.tegar.fullstack.backend.dto.response.PegawaiResponse("
+                + "u.profile, u.id, p.namaLengkap, p.tempatLahir, p.tanggalLahir, u.email, p.nikUser, "
+                + "j.id, j.nama, d.id, d.nama, uk.id, uk.nama, jk.id, jk.nama, pd.id, pd.nama, p.photo) "
+                + "FROM Pegawai p JOIN p.user u "
+                + "LEFT JOIN p.jabatan j LEFT JOIN p.departemen d LEFT JOIN p.unitKerja uk "
+                + "LEFT JOIN p.jenisKelamin jk LEFT JOIN p.pendidikan pd"
+                + (where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where))
+                + " ORDER BY " + orderBy;
+        
+        TypedQuery<PegawaiResponse> query = entityManager.createQuery(jpql, PegawaiResponse.class);
+        params.forEach(query::setParameter);
+        query.setMaxResults(limit);
+        
+        return query.getResultList();
+    }
+    
+    private void addFilter(List<String> where, Map<String, Object> params, String path, String name, Integer value) {
+        if (value != null) {
+            where.add(path + " = :" + name);
+            params.put(name, value);
+        }
+    }
+}
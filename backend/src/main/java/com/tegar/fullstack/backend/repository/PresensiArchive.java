@@ -0,0 +1,499 @@
+package com.tegar.fullstack.backend.repository;
+
+import com.tegar.fullstack.backend.config.TenantContext;
+import com.tegar.fullstack.backend.entity.Pegawai;
+import com.tegar.fullstack.backend.entity.Presensi;
+import com.tegar.fullstack.backend.entity.StatusAbsen;
+import com.tegar.fullstack.backend.service.CacheInvalidationBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Arsip presensi bulanan dalam file kolumnar terkompresi
+ * ({@code presensi_yyyymm.col}).
+ * <p>
+ * Baris diurutkan menurut (tgl_absensi, id_user) lalu disimpan per kolom,
+ * masing-masing di-deflate terpisah:
+ * <ul>
+ *   <li>tgl_absensi: delta dari baris sebelumnya (varint)</li>
+ *   <li>id_user dan kd_status: dictionary + indeks per baris</li>
+ *   <li>jam masuk/keluar: detik dalam hari + 1 (0 = kosong)</li>
+ *   <li>id dan created_at_epoch: delta (zigzag varint)</li>
+ * </ul>
+ * File dibaca lewat memory-mapping; file yang tidak memuat pegawai yang dicari
+ * dilewati hanya dengan membaca dictionary id_user.
+ * <p>
+ * Arsip tenant selain default disimpan di subdirektori bernama tenant.
+ * <p>
+ * Daftar arsip per tenant di memori hanya cache dari isi direktori. Arsip
+ * yang dibuat node lain diketahui lewat invalidasi region
+ * {@value PresensiPartitions#REGION} (drop partisi), dan di antara dua poll
+ * lewat pengecekan ulang ke disk untuk bulan yang tidak dikenal.
+ */
+@Slf4j
+@Component
+public class PresensiArchive {
+
+    private static final int MAGIC = 0x50525343; // "PRSC"
+    private static final short VERSION = 1;
+    private static final String EXTENSION = ".col";
+    private static final DateTimeFormatter JAM = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private static final int COL_TGL = 0;
+    private static final int COL_USER = 1;
+    private static final int COL_STATUS = 2;
+    private static final int COL_JAM_MASUK = 3;
+    private static final int COL_JAM_KELUAR = 4;
+    private static final int COL_ID = 5;
+    private static final int COL_CREATED = 6;
+    private static final int COLUMNS = 7;
+
+    // magic, versi, bulan (yyyymm), jumlah baris, jumlah kolom, lalu per kolom
+    // panjang asli + panjang terkompresi
+    private static final int OFFSET_ROWS = 10;
+    private static final int OFFSET_COLUMNS = 15;
+    private static final int HEADER = OFFSET_COLUMNS + COLUMNS * 8;
+
+    private final Path dir;
+    private final Map<String, NavigableMap<YearMonth, MappedByteBuffer>> files = new ConcurrentHashMap<>();
+
+    public PresensiArchive(@Value("${app.presensi.archive.dir:./archive/presensi}") String dir) {
+        this.dir = Paths.get(dir).toAbsolutePath().normalize();
+    }
+
+    public boolean isArchived(YearMonth bulan) {
+        return files().containsKey(bulan) || temukan(bulan);
+    }
+
+    /**
+     * Bulan arsip dalam rentang (inklusif). Jika ada bulan di rentang yang
+     * bukan arsip dan bukan partisi live ({@code live}), direktori dibaca ulang
+     * dulu: arsip bisa saja baru dibuat node lain yang sudah men-drop
+     * partisinya.
+     */
+    public NavigableSet<YearMonth> bulanBetween(YearMonth awal, YearMonth akhir, Set<YearMonth> live) {
+        if (awal.isAfter(akhir)) {
+            return Collections.emptyNavigableSet();
+        }
+        NavigableMap<YearMonth, MappedByteBuffer> files = files();
+        for (YearMonth bulan = awal; !bulan.isAfter(akhir); bulan = bulan.plusMonths(1)) {
+            if (!files.containsKey(bulan) && !live.contains(bulan)) {
+                segarkan(files);
+                break;
+            }
+        }
+        return files.navigableKeySet().subSet(awal, true, akhir, true);
+    }
+
+    /**
+     * Partisi dibuat atau di-drop node lain (termasuk setelah pengarsipan):
+     * samakan daftar arsip tenant ini dengan direktori.
+     */
+    @EventListener
+    public void onInvalidation(CacheInvalidationBus.Invalidation invalidation) {
+        if (invalidation.berlakuUntuk(PresensiPartitions.REGION)) {
+            segarkan(files());
+        }
+    }
+
+    public int count(YearMonth bulan) {
+        MappedByteBuffer buffer = files().get(bulan);
+        return buffer == null ? 0 : buffer.getInt(OFFSET_ROWS);
+    }
+
+    /**
+     * Tulis arsip satu bulan. File ditulis ke file sementara lalu dipasang
+     * secara atomik, dan sejak itu menjadi sumber data bulan tersebut. File
+     * arsip yang sudah ada tidak pernah ditimpa: arsip yang lebih dulu jadi
+     * (mis. dari node lain) tetap dipakai.
+     */
+    public void write(YearMonth bulan, List<Presensi> rows) throws IOException {
+        List<Presensi> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparing(Presensi::getTglAbsensi)
+                .thenComparing(p -> p.getPegawai().getId())
+                .thenComparing(Presensi::getId));
+
+        byte[][] raw = new byte[COLUMNS][];
+        raw[COL_TGL] = encodeTgl(sorted);
+        raw[COL_USER] = encodeUser(sorted);
+        raw[COL_STATUS] = encodeStatus(sorted);
+        raw[COL_JAM_MASUK] = encodeJam(sorted, Presensi::getJamMasuk);
+        raw[COL_JAM_KELUAR] = encodeJam(sorted, Presensi::getJamKeluar);
+        raw[COL_ID] = encodeId(sorted);
+        raw[COL_CREATED] = encodeCreated(sorted);
+
+        byte[][] compressed = new byte[COLUMNS][];
+        for (int i = 0; i < COLUMNS; i++) {
+            compressed[i] = deflate(raw[i]);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        header.putInt(MAGIC).putShort(VERSION)
+                .putInt(bulan.getYear() * 100 + bulan.getMonthValue())
+                .putInt(sorted.size())
+                .put((byte) COLUMNS);
+        for (int i = 0; i < COLUMNS; i++) {
+            header.putInt(raw[i].length).putInt(compressed[i].length);
+        }
+
+        Files.createDirectories(dir());
+        Path temp = Files.createTempFile(dir(), "arsip-", ".part");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                out.write(header.array());
+                for (byte[] column : compressed) {
+                    out.write(column);
+                }
+            }
+            // rename() menimpa target tanpa peringatan; hard link gagal jika sudah ada
+            Files.createLink(file(bulan), temp);
+        } catch (FileAlreadyExistsException e) {
+            log.warn("Arsip presensi {} sudah ada, tidak ditimpa", bulan);
+            files().put(bulan, map(file(bulan)));
+            return;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        files().put(bulan, map(file(bulan)));
+        log.info("Arsip presensi {} ditulis: {} baris", bulan, sorted.size());
+    }
+
+    public void delete(YearMonth bulan) throws IOException {
+        files().remove(bulan);
+        Files.deleteIfExists(file(bulan));
+    }
+
+    /**
+     * Baca baris arsip dalam rentang tanggal (inklusif), opsional hanya untuk
+     * satu pegawai. {@code pegawai} dan {@code statusAbsen} hanya berisi kode.
+     */
+    public List<Presensi> read(YearMonth bulan, String idUser, long tglAwal, long tglAkhir) {
+        MappedByteBuffer mapped = files().get(bulan);
+        if (mapped == null) {
+            return List.of();
+        }
+        ByteBuffer buffer = mapped.duplicate();
+        int rows = buffer.getInt(OFFSET_ROWS);
+
+        ByteBuffer[] columns = new ByteBuffer[COLUMNS];
+        int[] rawLength = new int[COLUMNS];
+        int[] length = new int[COLUMNS];
+        int[] offset = new int[COLUMNS];
+        int position = HEADER;
+        for (int i = 0; i < COLUMNS; i++) {
+            rawLength[i] = buffer.getInt(OFFSET_COLUMNS + i * 8);
+            length[i] = buffer.getInt(OFFSET_COLUMNS + i * 8 + 4);
+            offset[i] = position;
+            position += length[i];
+        }
+
+        // Dictionary pegawai lebih dulu: jika pegawai tidak ada, file dilewati
+        ByteBuffer userColumn = inflate(buffer, offset[COL_USER], length[COL_USER], rawLength[COL_USER]);
+        String[] users = new String[readVarint(userColumn)];
+        int target = -1;
+        for (int i = 0; i < users.length; i++) {
+            byte[] bytes = new byte[readVarint(userColumn)];
+            userColumn.get(bytes);
+            users[i] = new String(bytes, StandardCharsets.UTF_8);
+            if (users[i].equals(idUser)) {
+                target = i;
+            }
+        }
+        if (idUser != null && target < 0) {
+            return List.of();
+        }
+
+        for (int i = 0; i < COLUMNS; i++) {
+            if (i != COL_USER) {
+                columns[i] = inflate(buffer, offset[i], length[i], rawLength[i]);
+            }
+        }
+
+        ByteBuffer statusColumn = columns[COL_STATUS];
+        Integer[] statuses = new Integer[readVarint(statusColumn)];
+        for (int i = 0; i < statuses.length; i++) {
+            long kode = unzigzag(readVarLong(statusColumn));
+            statuses[i] = kode < 0 ? null : (int) kode;
+        }
+
+        List<Presensi> result = new ArrayList<>();
+        long tgl = 0;
+        long id = 0;
+        for (int row = 0; row < rows; row++) {
+            tgl = row == 0 ? unzigzag(readVarLong(columns[COL_TGL])) : tgl + readVarLong(columns[COL_TGL]);
+            id += unzigzag(readVarLong(columns[COL_ID]));
+            int user = readVarint(userColumn);
+            Integer status = statuses[readVarint(statusColumn)];
+            int masuk = readVarint(columns[COL_JAM_MASUK]);
+            int keluar = readVarint(columns[COL_JAM_KELUAR]);
+            long created = readVarLong(columns[COL_CREATED]);
+
+            // Baris terurut tanggal: berhenti begitu melewati rentang
+            if (tgl > tglAkhir) {
+                break;
+            }
+            if (tgl < tglAwal || (idUser != null && user != target)) {
+                continue;
+            }
+
+            result.add(Presensi.builder()
+                    .id(id)
+                    .pegawai(Pegawai.builder().id(users[user]).build())
+                    .tglAbsensi(tgl)
+                    .jamMasuk(decodeJam(masuk))
+                    .jamKeluar(decodeJam(keluar))
+                    .statusAbsen(status != null ? StatusAbsen.builder().id(status).build() : null)
+                    .createdAtEpoch(created == 0 ? null : tgl + unzigzag(created - 1))
+                    .build());
+        }
+        return result;
+    }
+
+    // ========== ENCODING ==========
+
+    private static byte[] encodeTgl(List<Presensi> rows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long previous = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            long tgl = rows.get(i).getTglAbsensi();
+            // Baris terurut, jadi delta tidak pernah negatif
+            writeVarLong(out, i == 0 ? zigzag(tgl) : tgl - previous);
+            previous = tgl;
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encodeUser(List<Presensi> rows) {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (Presensi row : rows) {
+            dictionary.putIfAbsent(row.getPegawai().getId(), dictionary.size());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarLong(out, dictionary.size());
+        for (String user : dictionary.keySet()) {
+            byte[] bytes = user.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, bytes.length);
+            out.writeBytes(bytes);
+        }
+        for (Presensi row : rows) {
+            writeVarLong(out, dictionary.get(row.getPegawai().getId()));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encodeStatus(List<Presensi> rows) {
+        Map<Integer, Integer> dictionary = new LinkedHashMap<>();
+        for (Presensi row : rows) {
+            dictionary.putIfAbsent(kdStatus(row), dictionary.size());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarLong(out, dictionary.size());
+        for (Integer kode : dictionary.keySet()) {
+            writeVarLong(out, zigzag(kode));
+        }
+        for (Presensi row : rows) {
+            writeVarLong(out, dictionary.get(kdStatus(row)));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encodeJam(List<Presensi> rows, Function<Presensi, String> jam) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (Presensi row : rows) {
+            String value = jam.apply(row);
+            writeVarLong(out, value == null ? 0 : LocalTime.parse(value, JAM).toSecondOfDay() + 1);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encodeId(List<Presensi> rows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long previous = 0;
+        for (Presensi row : rows) {
+            writeVarLong(out, zigzag(row.getId() - previous));
+            previous = row.getId();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encodeCreated(List<Presensi> rows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (Presensi row : rows) {
+            Long created = row.getCreatedAtEpoch();
+            writeVarLong(out, created == null ? 0 : zigzag(created - row.getTglAbsensi()) + 1);
+        }
+        return out.toByteArray();
+    }
+
+    private static int kdStatus(Presensi row) {
+        return row.getStatusAbsen() != null ? row.getStatusAbsen().getId() : -1;
+    }
+
+    private static String decodeJam(int value) {
+        return value == 0 ? null : LocalTime.ofSecondOfDay(value - 1).format(JAM);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        return (int) readVarLong(in);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static ByteBuffer inflate(ByteBuffer source, int offset, int length, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            // Input langsung dari buffer yang di-mmap, tanpa salinan ke heap
+            inflater.setInput(source.slice(offset, length));
+            byte[] raw = new byte[rawLength];
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                read += inflater.inflate(raw, read, rawLength - read);
+            }
+            return ByteBuffer.wrap(raw);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Arsip presensi rusak", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // ========== FILE ==========
+
+    private Path file(YearMonth bulan) {
+        return dir().resolve(PresensiPartitions.tableName(bulan) + EXTENSION);
+    }
+
+    private Path dir() {
+        return TenantContext.isDefault() ? dir : dir.resolve(TenantContext.get());
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+                throw new IOException("Bukan arsip presensi: " + file);
+            }
+            return buffer;
+        }
+    }
+
+    private NavigableMap<YearMonth, MappedByteBuffer> files() {
+        return files.computeIfAbsent(TenantContext.get(), tenant -> {
+            NavigableMap<YearMonth, MappedByteBuffer> files = new ConcurrentSkipListMap<>();
+            segarkan(files);
+            return files;
+        });
+    }
+
+    /**
+     * Cek satu bulan langsung ke disk (satu stat), untuk bulan yang belum ada
+     * di daftar.
+     */
+    private boolean temukan(YearMonth bulan) {
+        Path file = file(bulan);
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try {
+            files().putIfAbsent(bulan, map(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Gagal membaca arsip presensi " + file, e);
+        }
+        return true;
+    }
+
+    /**
+     * Samakan daftar dengan isi direktori; file yang sudah di-map dipakai ulang.
+     */
+    private void segarkan(NavigableMap<YearMonth, MappedByteBuffer> files) {
+        Path dir = dir();
+        Set<YearMonth> ada = new HashSet<>();
+        if (Files.isDirectory(dir)) {
+            try (Stream<Path> list = Files.list(dir)) {
+                for (Path file : list.toList()) {
+                    String name = file.getFileName().toString();
+                    if (!name.matches(PresensiPartitions.PREFIX + "[0-9]{6}\\" + EXTENSION)) {
+                        continue;
+                    }
+                    String suffix = name.substring(PresensiPartitions.PREFIX.length(),
+                            name.length() - EXTENSION.length());
+                    YearMonth bulan = YearMonth.of(Integer.parseInt(suffix.substring(0, 4)),
+                            Integer.parseInt(suffix.substring(4)));
+                    ada.add(bulan);
+                    if (!files.containsKey(bulan)) {
+                        files.putIfAbsent(bulan, map(file));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Gagal membaca direktori arsip presensi " + dir, e);
+            }
+        }
+        files.keySet().retainAll(ada);
+    }
+}
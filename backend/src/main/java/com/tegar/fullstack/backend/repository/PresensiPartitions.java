@@ -0,0 +1,318 @@
+package com.tegar.fullstack.backend.repository;
+
+import com.tegar.fullstack.backend.config.TenantContext;
+import com.tegar.fullstack.backend.config.TenantProperties;
+import com.tegar.fullstack.backend.exception.BusinessException;
+import com.tegar.fullstack.backend.service.CacheInvalidationBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Daftar partisi bulanan tabel presensi ({@code presensi_yyyymm}).
+ * <p>
+ * Partisi bulan berjalan dan bulan berikutnya disiapkan saat start dan setiap
+ * hari, sehingga check-in tidak pernah menunggu DDL. Partisi untuk bulan lain
+ * (mis. absen mundur) dibuat saat pertama kali ditulis, selama bulannya tidak
+ * lebih tua dari {@code partition-max-past-months} dan tidak lebih jauh dari
+ * {@code partition-max-ahead-months} dari bulan berjalan; tanggal dari client
+ * tidak bisa membuat tabel untuk bulan sembarang.
+ * <p>
+ * DDL di H2 meng-commit transaksi yang sedang berjalan, jadi pembuatan
+ * partisi selalu dijalankan di transaksi terpisah (REQUIRES_NEW). Setiap DDL
+ * diumumkan lewat {@link PartisiBerubah} di dalam transaksi tersebut.
+ * <p>
+ * Daftar partisi disimpan per tenant, karena setiap tenant punya database
+ * sendiri ({@link TenantContext}). Partisi yang dibuat atau dihapus node lain
+ * diketahui lewat {@link CacheInvalidationBus} (region {@value #REGION}); di
+ * antara dua poll, bulan yang tidak ada di daftar dicek ulang ke
+ * {@code information_schema} paling sering sekali per {@code recheck-ms}.
+ */
+@Slf4j
+@Component
+public class PresensiPartitions {
+    
+    public static final String PREFIX = "presensi_";
+    public static final String SEQUENCE = "presensi_id_seq";
+    public static final String REGION = "presensi-partisi";
+    
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate requiresNew;
+    private final ZoneId zone = ZoneId.systemDefault();
+    
+    private final TenantProperties tenantProperties;
+    private final CacheInvalidationBus invalidationBus;
+    private final long recheckMs;
+    private final int maxPastMonths;
+    private final int maxAheadMonths;
+    private final Map<String, Daftar> partisi = new ConcurrentHashMap<>();
+    
+    private static final class Daftar {
+        private final NavigableSet<YearMonth> bulan = new ConcurrentSkipListSet<>();
+        private volatile long dimuatMs;
+    }
+    
+    public PresensiPartitions(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager, TenantProperties tenantProperties,
+                              CacheInvalidationBus invalidationBus,
+                              @Value("${app.presensi.partition-recheck-ms:1000}") long recheckMs,
+                              @Value("${app.presensi.partition-max-past-months:120}") int maxPastMonths,
+                              @Value("${app.presensi.partition-max-ahead-months:12}") int maxAheadMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.tenantProperties = tenantProperties;
+        this.invalidationBus = invalidationBus;
+        this.recheckMs = recheckMs;
+        this.maxPastMonths = maxPastMonths;
+        this.maxAheadMonths = maxAheadMonths;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    public static String tableName(YearMonth bulan) {
+        return PREFIX + bulan.format(SUFFIX);
+    }
+    
+    /**
+     * DDL satu partisi. Dipakai juga oleh migrasi yang memindahkan data lama.
+     * CHECK memastikan baris tidak pernah masuk ke partisi yang salah. Sengaja
+     * tanpa foreign key: DDL dengan FK mengunci tabel pegawai, padahal partisi
+     * bisa dibuat saat transaksi lain sedang mengubah pegawai (pegawai sendiri
+     * tidak pernah dihapus, hanya dinonaktifkan).
+     */
+    public static List<String> ddl(YearMonth bulan, ZoneId zone) {
+        String table = tableName(bulan);
+        long awal = bulan.atDay(1).atStartOfDay(zone).toEpochSecond();
+        long akhir = bulan.plusMonths(1).atDay(1).atStartOfDay(zone).toEpochSecond();
+        
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS " + table + " ("
+                        + "id BIGINT NOT NULL PRIMARY KEY, "
+                        + "id_user VARCHAR(255) NOT NULL, "
+                        + "tgl_absensi BIGINT NOT NULL, "
+                        + "jam_masuk VARCHAR(8), "
+                        + "jam_keluar VARCHAR(8), "
+                        + "kd_status INTEGER, "
+                        + "created_at_epoch BIGINT, "
+                        + "CONSTRAINT ck_" + table + "_tgl CHECK (tgl_absensi >= " + awal
+                        + " AND tgl_absensi < " + akhir + "))",
+                "CREATE INDEX IF NOT EXISTS idx_" + table + "_user_tgl ON " + table + " (id_user, tgl_absensi)",
+                "CREATE INDEX IF NOT EXISTS idx_" + table + "_tgl ON " + table + " (tgl_absensi)");
+    }
+    
+    public YearMonth bulanOf(long tglAbsensi) {
+        return YearMonth.from(Instant.ofEpochSecond(tglAbsensi).atZone(zone));
+    }
+    
+    /**
+     * Nama tabel partisi untuk tanggal tersebut, atau {@code null} jika belum ada.
+     */
+    public String tableFor(long tglAbsensi) {
+        YearMonth bulan = bulanOf(tglAbsensi);
+        if (!partisi().contains(bulan)) {
+            muatUlang();
+        }
+        return partisi().contains(bulan) ? tableName(bulan) : null;
+    }
+    
+    /**
+     * Nama tabel partisi untuk ditulisi; dibuat lebih dulu jika belum ada.
+     */
+    public String tableForWrite(long tglAbsensi) {
+        YearMonth bulan = bulanOf(tglAbsensi);
+        if (!partisi().contains(bulan)) {
+            YearMonth sekarang = YearMonth.now(zone);
+            if (bulan.isBefore(sekarang.minusMonths(maxPastMonths)) || bulan.isAfter(sekarang.plusMonths(maxAheadMonths))) {
+                throw new BusinessException(501, "Tanggal presensi di luar rentang yang diizinkan");
+            }
+        }
+        ensure(bulan);
+        return tableName(bulan);
+    }
+    
+    /**
+     * Partisi yang ada dan beririsan dengan rentang tanggal (inklusif), urut waktu.
+     */
+    public List<String> tablesBetween(long tglAwal, long tglAkhir) {
+        List<String> tables = new ArrayList<>();
+        for (YearMonth bulan : bulanBetween(tglAwal, tglAkhir)) {
+            tables.add(tableName(bulan));
+        }
+        return tables;
+    }
+    
+    public NavigableSet<YearMonth> bulanBetween(long tglAwal, long tglAkhir) {
+        if (tglAwal > tglAkhir) {
+            return Collections.emptyNavigableSet();
+        }
+        YearMonth awal = bulanOf(tglAwal);
+        YearMonth akhir = bulanOf(tglAkhir);
+        if (partisi().subSet(awal, true, akhir, true).size() < awal.until(akhir, ChronoUnit.MONTHS) + 1) {
+            muatUlang();
+        }
+        return partisi().subSet(awal, true, akhir, true);
+    }
+    
+    public NavigableSet<YearMonth> getPartisi() {
+        return Collections.unmodifiableNavigableSet(partisi());
+    }
+    
+    public void ensure(YearMonth bulan) {
+        if (partisi().contains(bulan)) {
+            return;
+        }
+        synchronized (this) {
+            if (partisi().contains(bulan)) {
+                return;
+            }
+            execute(tableName(bulan), ddl(bulan, zone));
+            partisi().add(bulan);
+            log.info("Partisi presensi {} dibuat", tableName(bulan));
+        }
+    }
+    
+    /**
+     * Jadikan partisi read-only untuk semua node sebelum isinya diarsipkan:
+     * constraint {@code CHECK (FALSE)} tanpa memeriksa baris lama menolak
+     * setiap INSERT/UPDATE berikutnya, sedangkan DELETE tetap bisa. DDL ini
+     * menunggu lock eksklusif tabel, jadi tulisan yang sedang berjalan sudah
+     * commit saat constraint terpasang. Aman diulang.
+     */
+    public void kunci(YearMonth bulan) {
+        String table = tableName(bulan);
+        execute(table, List.of("ALTER TABLE " + table + " ADD CONSTRAINT IF NOT EXISTS "
+                + lockName(bulan) + " CHECK (FALSE) NOCHECK"));
+        log.info("Partisi presensi {} dikunci untuk diarsipkan", table);
+    }
+    
+    /**
+     * Apakah tabel partisi masih ada, langsung dari {@code information_schema}
+     * tanpa daftar di memori (mis. sudah di-drop node lain).
+     */
+    public boolean ada(YearMonth bulan) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables "
+                + "WHERE table_schema = SCHEMA() AND LOWER(table_name) = ?", Integer.class, tableName(bulan));
+        return count != null && count > 0;
+    }
+    
+    public static String lockName(YearMonth bulan) {
+        return "ck_" + tableName(bulan) + "_arsip";
+    }
+    
+    public ZoneId getZone() {
+        return zone;
+    }
+    
+    /**
+     * Hapus tabel partisi (setelah isinya diarsipkan).
+     */
+    public synchronized void drop(YearMonth bulan) {
+        partisi().remove(bulan);
+        execute(tableName(bulan), List.of("DROP TABLE IF EXISTS " + tableName(bulan)));
+        log.info("Partisi presensi {} dihapus", tableName(bulan));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.presensi.partition-cron:0 5 0 * * *}")
+    public void siapkanPartisi() {
+        YearMonth sekarang = YearMonth.now(zone);
+        for (String tenant : tenantProperties.getTenantIds()) {
+            TenantContext.run(tenant, () -> {
+                ensure(sekarang);
+                ensure(sekarang.plusMonths(1));
+            });
+        }
+    }
+    
+    @EventListener
+    public void onInvalidation(CacheInvalidationBus.Invalidation invalidation) {
+        if (invalidation.berlakuUntuk(REGION)) {
+            partisi.remove(TenantContext.get());
+        }
+    }
+    
+    private void execute(String table, List<String> ddl) {
+        requiresNew.executeWithoutResult(status -> {
+            ddl.forEach(jdbcTemplate::execute);
+            invalidationBus.publish(REGION);
+            eventPublisher.publishEvent(new PartisiBerubah(table, ddl));
+        });
+    }
+    
+    private NavigableSet<YearMonth> partisi() {
+        return daftar().bulan;
+    }
+    
+    private Daftar daftar() {
+        return partisi.computeIfAbsent(TenantContext.get(), tenant -> {
+            Daftar daftar = new Daftar();
+            daftar.bulan.addAll(load());
+            daftar.dimuatMs = System.currentTimeMillis();
+            return daftar;
+        });
+    }
+    
+    /**
+     * Samakan daftar dengan {@code information_schema} jika pemuatan terakhir
+     * sudah lebih lama dari {@code recheck-ms}.
+     */
+    private void muatUlang() {
+        Daftar daftar = daftar();
+        if (System.currentTimeMillis() - daftar.dimuatMs < recheckMs) {
+            return;
+        }
+        // Sama dengan ensure/drop agar DDL yang sedang berjalan tidak tertimpa
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (now - daftar.dimuatMs < recheckMs) {
+                return;
+            }
+            daftar.dimuatMs = now;
+            NavigableSet<YearMonth> terbaru = load();
+            daftar.bulan.addAll(terbaru);
+            daftar.bulan.retainAll(terbaru);
+        }
+    }
+    
+    private NavigableSet<YearMonth> load() {
+        NavigableSet<YearMonth> partisi = new ConcurrentSkipListSet<>();
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT LOWER(table_name) FROM information_schema.tables "
+                        + "WHERE table_schema = SCHEMA() AND REGEXP_LIKE(LOWER(table_name), '^presensi_[0-9]{6}$')",
+                String.class);
+        for (String table : tables) {
+            partisi.add(YearMonth.parse(table.substring(PREFIX.length()), SUFFIX));
+        }
+        return partisi;
+    }
+    
+    /**
+     * DDL yang baru saja dijalankan terhadap sebuah partisi.
+     */
+    public record PartisiBerubah(String table, List<String> ddl) {
+    }
+}
@@ -2,8 +2,11 @@ package com.tegar.fullstack.backend.repository;
 
 import com.tegar.fullstack.backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +14,7 @@ public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByEmailAndProfile(String email, String profile);
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(Collection<String> emails);
 }
@@ -1,10 +1,17 @@
 package com.tegar.fullstack.backend.security;
 
+import com.tegar.fullstack.backend.config.TenantContext;
+import com.tegar.fullstack.backend.config.TenantProperties;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,12 +23,25 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+/**
+ * Autentikasi JWT sekaligus penentu tenant request: klaim {@code tenant} di
+ * token, atau header {@value TenantContext#HEADER} untuk request tanpa token
+ * (login, init-data). Tenant diisi sebelum user dimuat karena tabel users
+ * berada di database tenant.
+ * <p>
+ * Waktu verifikasi token dicatat di {@code auth.jwt.verify} dengan tag
+ * {@code hasil} (valid, kedaluwarsa, invalid). Token kedaluwarsa atau tidak
+ * sah tidak menggagalkan request: request diteruskan tanpa autentikasi, dan
+ * security yang menolaknya jika endpoint-nya butuh login.
+ */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsService;
+    private final TenantProperties tenantProperties;
+    private final MeterRegistry meterRegistry;
 
     @Override
     protected void doFilterInternal(
@@ -31,11 +51,46 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         String authHeader = request.getHeader("Authorization");
+        String token = null;
+        String tenant = request.getHeader(TenantContext.HEADER);
 
         if (StringUtils.hasText(authHeader) && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
+            token = authHeader.substring(7);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String hasil = "invalid";
+            try {
+                if (jwtTokenProvider.validateToken(token)) {
+                    // Klaim di token yang berlaku, bukan header dari klien
+                    tenant = jwtTokenProvider.extractTenant(token);
+                    hasil = "valid";
+                } else {
+                    token = null;
+                    hasil = "kedaluwarsa";
+                }
+            } catch (ExpiredJwtException e) {
+                token = null;
+                hasil = "kedaluwarsa";
+            } catch (JwtException | IllegalArgumentException e) {
+                // Tanda tangan salah, format rusak, atau token kosong
+                token = null;
+            } finally {
+                sample.stop(meterRegistry.timer("auth.jwt.verify", "hasil", hasil));
+            }
+        }
 
-            if (jwtTokenProvider.validateToken(token)) {
+        if (!StringUtils.hasText(tenant)) {
+            tenant = TenantContext.DEFAULT;
+        }
+        if (!tenantProperties.exists(tenant)) {
+            response.setStatus(501);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"status\":501,\"message\":\"Tenant tidak dikenal\"}");
+            return;
+        }
+
+        TenantContext.set(tenant);
+        try {
+            if (token != null) {
                 String email = jwtTokenProvider.extractUsername(token);
                 UserDetails userDetails = userDetailsService.loadUserByUsername(email);
 
@@ -51,8 +106,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 SecurityContextHolder.getContext()
                         .setAuthentication(authentication);
             }
-        }
 
-        filterChain.doFilter(request, response);
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.tegar.fullstack.backend.security;
 
+import com.tegar.fullstack.backend.config.TenantContext;
 import com.tegar.fullstack.backend.entity.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
@@ -25,6 +26,7 @@ public class JwtTokenProvider {
     public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", user.getProfile());
+        claims.put("tenant", TenantContext.get());
 
         return Jwts.builder()
                 .claims(claims)
@@ -39,6 +41,14 @@ public class JwtTokenProvider {
         return extractClaim(token, Claims::getSubject);
     }
 
+    /**
+     * Tenant pemilik token; token lama tanpa klaim tenant milik tenant default.
+     */
+    public String extractTenant(String token) {
+        String tenant = extractClaim(token, claims -> claims.get("tenant", String.class));
+        return tenant != null ? tenant : TenantContext.DEFAULT;
+    }
+
     public boolean validateToken(String token) {
         return !extractExpiration(token).before(new Date());
     }
@@ -0,0 +1,50 @@
+package com.tegar.fullstack.backend.security;
+
+import com.tegar.fullstack.backend.repository.PegawaiRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Akses foto pegawai di {@code /uploads/**}: ADMIN dan HRD boleh melihat semua
+ * foto, pegawai lain hanya foto miliknya sendiri (path sama dengan kolom
+ * {@code photo} pegawai dengan email login). Thumbnail ({@code ?size=})
+ * mengikuti hak akses foto aslinya.
+ */
+@Component
+@RequiredArgsConstructor
+public class PhotoAccessManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private static final String PREFIX = "/uploads/";
+    private static final Set<String> SEMUA_FOTO = Set.of("ROLE_ADMIN", "ROLE_HRD");
+
+    private final PegawaiRepository pegawaiRepository;
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        Authentication auth = authentication.get();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return new AuthorizationDecision(false);
+        }
+        for (GrantedAuthority authority : auth.getAuthorities()) {
+            if (SEMUA_FOTO.contains(authority.getAuthority())) {
+                return new AuthorizationDecision(true);
+            }
+        }
+        String path = context.getRequest().getRequestURI()
+                .substring(context.getRequest().getContextPath().length());
+        if (!path.startsWith(PREFIX)) {
+            return new AuthorizationDecision(false);
+        }
+        return new AuthorizationDecision(
+                pegawaiRepository.existsByUserEmailAndPhoto(auth.getName(), path.substring(PREFIX.length())));
+    }
+}
@@ -18,6 +18,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 
@@ -31,6 +32,9 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
     private final AuthenticationManager authenticationManager;
+    private final PegawaiIdAllocator pegawaiIdAllocator;
+    private final PegawaiVersi pegawaiVersi;
+    private final PegawaiSearchIndex pegawaiSearchIndex;
 
     @Transactional
     public Map<String, String> initData(InitDataRequest request) {
@@ -43,6 +47,7 @@ public class AuthService {
         String email = generateAdminEmail(request.getPerusahaan());
 
         User admin = new User();
+        admin.setId(pegawaiIdAllocator.nextId());
         admin.setEmail(email);
         admin.setPassword(passwordEncoder.encode(rawPassword));
         admin.setProfile("ADMIN");
@@ -51,14 +56,17 @@ public class AuthService {
         admin.setActive(true);
         admin.setCreatedAtEpoch(Instant.now().getEpochSecond());
 
-        userRepository.saveAndFlush(admin);
+        admin = userRepository.saveAndFlush(admin);
 
         Pegawai pegawai = new Pegawai();
         pegawai.setUser(admin);
         pegawai.setNamaLengkap(request.getNamaAdmin());
         pegawai.setCreatedAtEpoch(Instant.now().getEpochSecond());
+        pegawai.setUpdatedAtEpoch(Instant.now().getEpochSecond());
 
         pegawaiRepository.saveAndFlush(pegawai);
+        pegawaiVersi.tandaiBerubah(List.of(admin.getId()));
+        pegawaiSearchIndex.refreshAfterCommit(List.of(admin.getId()));
 
         return Map.of(
                 "email", email,
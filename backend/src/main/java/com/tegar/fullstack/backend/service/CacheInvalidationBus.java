@@ -0,0 +1,186 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.config.TenantContext;
+import com.tegar.fullstack.backend.config.TenantProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Invalidasi cache di memori antar node tanpa broker.
+ * <p>
+ * Penulisan yang mengubah data ber-cache menambah baris
+ * {@code (region, key, version)} ke tabel {@code cache_invalidation} di
+ * transaksi yang sama, jadi baris hanya terlihat jika perubahannya commit.
+ * Setiap node membaca baris baru secara berkala lewat primary key
+ * ({@code version > posisi}) dan menerbitkan {@link Invalidation} untuk baris
+ * dari node lain; pemilik cache mendengarkannya dengan {@code @EventListener}.
+ * Cache node penulis sendiri sudah dibuang di tempat.
+ * <p>
+ * Version diambil dari identity, sehingga transaksi yang commit belakangan bisa
+ * membawa version lebih kecil. Posisi tidak dimajukan melewati celah version
+ * sampai celahnya terisi atau lebih tua dari {@code gap-timeout-ms} (transaksi
+ * yang di-rollback juga meninggalkan celah). Pada poll pertama, dan setelah
+ * poll tertunda lebih lama dari masa simpan baris, node tidak tahu apa yang
+ * terlewat sehingga semua cache lokal dibuang ({@link Invalidation#SEMUA}).
+ * <p>
+ * Setiap tenant punya tabel di databasenya sendiri dan posisi baca sendiri;
+ * event diterbitkan di dalam {@link TenantContext} tenant tersebut.
+ */
+@Slf4j
+@Service
+public class CacheInvalidationBus {
+
+    /**
+     * Satu invalidasi dari node lain. {@code key} null berarti seluruh region.
+     */
+    public record Invalidation(String region, String key, long version) {
+
+        public static final String SEMUA = "*";
+
+        public boolean semua() {
+            return SEMUA.equals(region);
+        }
+
+        public boolean berlakuUntuk(String nama) {
+            return semua() || region.equals(nama);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final int batchSize;
+    private final long gapTimeoutMs;
+    private final long retentionMs;
+    private final TenantProperties tenantProperties;
+    private final Map<String, Posisi> posisiTenant = new ConcurrentHashMap<>();
+
+    private static final class Posisi {
+        private long posisi = -1;
+        private long celahSejak;
+        private long pollTerakhir;
+        private final TreeSet<Long> sudahDiterapkan = new TreeSet<>();
+    }
+
+    public CacheInvalidationBus(
+            JdbcTemplate jdbcTemplate,
+            ApplicationEventPublisher eventPublisher,
+            TenantProperties tenantProperties,
+            @Value("${app.cache.invalidation.batch-size:500}") int batchSize,
+            @Value("${app.cache.invalidation.gap-timeout-ms:10000}") long gapTimeoutMs,
+            @Value("${app.cache.invalidation.retention-ms:3600000}") long retentionMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.tenantProperties = tenantProperties;
+        this.batchSize = Math.max(1, batchSize);
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.retentionMs = retentionMs;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Catat invalidasi per key di transaksi berjalan.
+     */
+    public void publish(String region, Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<Object[]> rows = new ArrayList<>(keys.size());
+        keys.forEach(key -> rows.add(new Object[]{region, String.valueOf(key), nodeId, now}));
+        jdbcTemplate.batchUpdate("INSERT INTO cache_invalidation (region, cache_key, node_id, created_at_ms) "
+                + "VALUES (?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * Catat invalidasi seluruh region di transaksi berjalan.
+     */
+    public void publish(String region) {
+        jdbcTemplate.update("INSERT INTO cache_invalidation (region, cache_key, node_id, created_at_ms) "
+                + "VALUES (?, NULL, ?, ?)", region, nodeId, System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.poll-ms:1000}")
+    public void poll() {
+        for (String tenant : tenantProperties.getTenantIds()) {
+            Posisi p = posisiTenant.computeIfAbsent(tenant, t -> new Posisi());
+            synchronized (p) {
+                TenantContext.run(tenant, () -> poll(p));
+            }
+        }
+    }
+
+    private void poll(Posisi p) {
+        long now = System.currentTimeMillis();
+        if (p.posisi < 0 || now - p.pollTerakhir > retentionMs) {
+            p.posisi = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(version), 0) FROM cache_invalidation", Long.class);
+            p.sudahDiterapkan.clear();
+            p.celahSejak = 0;
+            p.pollTerakhir = now;
+            log.info("Posisi invalidasi cache node {} tenant {} = {}, semua cache lokal dibuang",
+                    nodeId, TenantContext.get(), p.posisi);
+            eventPublisher.publishEvent(new Invalidation(Invalidation.SEMUA, null, p.posisi));
+            return;
+        }
+
+        List<Object[]> rows = jdbcTemplate.query(
+                "SELECT version, region, cache_key, node_id FROM cache_invalidation "
+                        + "WHERE version > ? ORDER BY version LIMIT ?",
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4)},
+                p.posisi, batchSize);
+        p.pollTerakhir = now;
+
+        boolean tertahan = false;
+        for (Object[] row : rows) {
+            long version = (Long) row[0];
+            if (!tertahan && version != p.posisi + 1) {
+                if (p.celahSejak == 0) {
+                    p.celahSejak = now;
+                }
+                tertahan = now - p.celahSejak < gapTimeoutMs;
+            }
+            if (!tertahan) {
+                p.posisi = version;
+                p.celahSejak = 0;
+            }
+            if (!nodeId.equals(row[3]) && !p.sudahDiterapkan.contains(version)) {
+                eventPublisher.publishEvent(new Invalidation((String) row[1], (String) row[2], version));
+            }
+            if (tertahan) {
+                p.sudahDiterapkan.add(version);
+            }
+        }
+        p.sudahDiterapkan.headSet(p.posisi, true).clear();
+    }
+
+    /**
+     * Hapus baris yang lebih tua dari masa simpan.
+     */
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.cleanup-ms:600000}")
+    public void bersihkan() {
+        long batas = System.currentTimeMillis() - retentionMs;
+        for (String tenant : tenantProperties.getTenantIds()) {
+            int deleted = TenantContext.call(tenant, () ->
+                    jdbcTemplate.update("DELETE FROM cache_invalidation WHERE created_at_ms < ?", batas));
+            if (deleted > 0) {
+                log.debug("{} baris invalidasi cache tenant {} dihapus", deleted, tenant);
+            }
+        }
+    }
+}
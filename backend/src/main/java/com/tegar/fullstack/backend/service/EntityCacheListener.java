@@ -0,0 +1,28 @@
+package com.tegar.fullstack.backend.service;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Entity listener untuk entity READ_WRITE di second-level cache: setiap
+ * perubahan dicatat ke {@link CacheInvalidationBus} agar node lain membuang
+ * entrinya. Entity baru tidak perlu dicatat karena belum ada di cache mana pun.
+ * <p>
+ * Seperti {@link MasterDataListener}, service diambil secara lazy karena
+ * listener dibuat saat EntityManagerFactory dibangun.
+ */
+public class EntityCacheListener {
+
+    private final ObjectProvider<EntityCacheService> entityCacheService;
+
+    public EntityCacheListener(ObjectProvider<EntityCacheService> entityCacheService) {
+        this.entityCacheService = entityCacheService;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        entityCacheService.ifAvailable(service -> service.publishChange(entity));
+    }
+}
@@ -0,0 +1,156 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.config.TenantContext;
+import com.tegar.fullstack.backend.config.TenantIdentifierResolver;
+import com.tegar.fullstack.backend.dto.response.CacheRegionResponse;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import org.ehcache.config.SizedResourcePool;
+import org.ehcache.config.ResourceType;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Operasi dan statistik second-level cache Hibernate.
+ * <p>
+ * UPDATE lewat JDBC tidak melewati Hibernate, jadi entri cache baris yang
+ * diubah harus dibuang manual: sekarang (agar sisa transaksi membaca dari
+ * database) dan lagi setelah commit (agar transaksi lain yang sempat memuat
+ * nilai lama tidak meninggalkannya di cache).
+ * <p>
+ * Node lain diberi tahu lewat {@link CacheInvalidationBus} dengan region nama
+ * kelas entity dan key id-nya.
+ */
+@Service
+public class EntityCacheService {
+
+    private final SessionFactory sessionFactory;
+    private final CacheInvalidationBus invalidationBus;
+
+    public EntityCacheService(EntityManagerFactory entityManagerFactory, CacheInvalidationBus invalidationBus) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.invalidationBus = invalidationBus;
+    }
+
+    public void evictAfterCommit(Class<?> entityClass, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<?> copy = List.copyOf(ids);
+        evict(entityClass, copy);
+        invalidationBus.publish(entityClass.getName(), copy);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(entityClass, copy);
+                }
+            });
+        }
+    }
+
+    /**
+     * Dipanggil {@link EntityCacheListener} setelah entity ber-cache diubah
+     * atau dihapus lewat JPA; cache lokal sudah diperbarui Hibernate.
+     */
+    public void publishChange(Object entity) {
+        Object id = sessionFactory.getPersistenceUnitUtil().getIdentifier(entity);
+        invalidationBus.publish(entity.getClass().getName(), List.of(id));
+    }
+
+    @EventListener
+    public void onInvalidation(CacheInvalidationBus.Invalidation invalidation) {
+        if (invalidation.semua()) {
+            sessionFactory.getCache().evictAllRegions();
+            return;
+        }
+        for (EntityType<?> entity : sessionFactory.getMetamodel().getEntities()) {
+            Class<?> entityClass = entity.getJavaType();
+            if (!entityClass.getName().equals(invalidation.region())) {
+                continue;
+            }
+            if (invalidation.key() == null) {
+                sessionFactory.getCache().evictEntityData(entityClass);
+            } else {
+                evict(entityClass, List.of(toId(entity.getIdType().getJavaType(), invalidation.key())));
+            }
+        }
+    }
+
+    public List<CacheRegionResponse> getStatistik() {
+        Statistics statistics = sessionFactory.getStatistics();
+        List<CacheRegionResponse> result = new ArrayList<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics stats = statistics.getDomainDataRegionStatistics(region);
+            long hit = stats.getHitCount();
+            long miss = stats.getMissCount();
+            result.add(CacheRegionResponse.builder()
+                    .region(region)
+                    .hit(hit)
+                    .miss(miss)
+                    .put(stats.getPutCount())
+                    .hitRatio(hit + miss == 0 ? 0 : (double) hit / (hit + miss))
+                    .batas(batas(region))
+                    .build());
+        }
+        return result;
+    }
+
+    /**
+     * Key cache memuat tenant session ({@link TenantIdentifierResolver}),
+     * sedangkan {@code Cache.evictEntityData(Class, id)} membuat key tanpa
+     * tenant; karena itu key dibuat sendiri untuk tenant berjalan.
+     */
+    private void evict(Class<?> entityClass, Collection<?> ids) {
+        SessionFactoryImplementor factory = sessionFactory.unwrap(SessionFactoryImplementor.class);
+        EntityPersister persister = factory.getMappingMetamodel().getEntityDescriptor(entityClass);
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        if (access == null) {
+            return;
+        }
+        String tenant = TenantContext.get();
+        ids.forEach(id -> access.evict(access.generateCacheKey(id, persister, factory, tenant)));
+    }
+
+    private static Object toId(Class<?> idType, String key) {
+        if (idType == Integer.class) {
+            return Integer.valueOf(key);
+        }
+        if (idType == Long.class) {
+            return Long.valueOf(key);
+        }
+        return key;
+    }
+
+    private Long batas(String region) {
+        if (!(sessionFactory.unwrap(SessionFactoryImplementor.class).getCache().getRegionFactory()
+                instanceof JCacheRegionFactory regionFactory)) {
+            return null;
+        }
+        try {
+            javax.cache.Cache<Object, Object> cache = regionFactory.getCacheManager().getCache(region);
+            if (cache == null) {
+                return null;
+            }
+            @SuppressWarnings("unchecked")
+            SizedResourcePool heap = cache.unwrap(org.ehcache.Cache.class).getRuntimeConfiguration()
+                    .getResourcePools().getPoolForResource(ResourceType.Core.HEAP);
+            return heap != null ? heap.getSize() : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.tegar.fullstack.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Lease antar node di tabel {@code job_lock} untuk job terjadwal yang berjalan
+ * di setiap node tetapi hanya boleh dikerjakan satu node sekaligus.
+ * <p>
+ * Lease diambil dengan satu UPDATE bersyarat (kosong, kedaluwarsa, atau milik
+ * node ini) atau INSERT untuk nama baru; primary key menolak INSERT kedua.
+ * Lease dicatat di transaksi terpisah (REQUIRES_NEW) agar langsung terlihat
+ * node lain dan tidak ikut lepas saat DDL H2 meng-commit transaksi pemanggil.
+ * Node diidentifikasi dengan node id {@link CacheInvalidationBus}; setiap
+ * tenant punya tabelnya sendiri.
+ */
+@Slf4j
+@Service
+public class JobLock {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+    private final TransactionTemplate requiresNew;
+
+    public JobLock(JdbcTemplate jdbcTemplate, CacheInvalidationBus invalidationBus,
+                   PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = invalidationBus.getNodeId();
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Ambil (atau perpanjang) lease selama {@code durasiMs}.
+     *
+     * @return {@code false} jika lease sedang dipegang node lain
+     */
+    public boolean ambil(String nama, long durasiMs) {
+        long now = System.currentTimeMillis();
+        Boolean dapat = requiresNew.execute(status -> {
+            int updated = jdbcTemplate.update("UPDATE job_lock SET node_id = ?, sampai_ms = ? "
+                    + "WHERE nama = ? AND (sampai_ms < ? OR node_id = ?)", nodeId, now + durasiMs, nama, now, nodeId);
+            if (updated > 0) {
+                return true;
+            }
+            try {
+                jdbcTemplate.update("INSERT INTO job_lock (nama, node_id, sampai_ms) VALUES (?, ?, ?)",
+                        nama, nodeId, now + durasiMs);
+                return true;
+            } catch (DuplicateKeyException e) {
+                return false;
+            }
+        });
+        if (!Boolean.TRUE.equals(dapat)) {
+            log.debug("Lease {} sedang dipegang node lain", nama);
+        }
+        return Boolean.TRUE.equals(dapat);
+    }
+
+    /**
+     * Lepas lease milik node ini; lease node lain tidak tersentuh.
+     */
+    public void lepas(String nama) {
+        requiresNew.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE job_lock SET sampai_ms = 0 WHERE nama = ? AND node_id = ?", nama, nodeId));
+    }
+}
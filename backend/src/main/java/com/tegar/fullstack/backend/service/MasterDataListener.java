@@ -0,0 +1,29 @@
+package com.tegar.fullstack.backend.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Entity listener untuk tabel master: setiap perubahan membuang cache
+ * {@link MasterDataRegistry} setelah commit.
+ * <p>
+ * Dibuat oleh Hibernate lewat Spring, jadi registry diambil secara lazy untuk
+ * menghindari dependensi melingkar saat EntityManagerFactory dibangun.
+ */
+public class MasterDataListener {
+
+    private final ObjectProvider<MasterDataRegistry> masterDataRegistry;
+
+    public MasterDataListener(ObjectProvider<MasterDataRegistry> masterDataRegistry) {
+        this.masterDataRegistry = masterDataRegistry;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        masterDataRegistry.ifAvailable(registry -> registry.invalidateAfterCommit(entity.getClass()));
+    }
+}
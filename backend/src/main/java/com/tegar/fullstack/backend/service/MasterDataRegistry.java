@@ -0,0 +1,194 @@
+package com.tegar.fullstack.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tegar.fullstack.backend.config.TenantContext;
+import com.tegar.fullstack.backend.dto.response.ComboResponse;
+import com.tegar.fullstack.backend.entity.*;
+import com.tegar.fullstack.backend.repository.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cache master data (jabatan, departemen, dst.) di memori.
+ * <p>
+ * Setiap jenis master disimpan sebagai snapshot: daftar combo, indeks nama per
+ * kode, serta JSON combo yang sudah diserialisasi berikut ETag-nya. Snapshot
+ * dimuat saat pertama dibutuhkan dan dibuang setelah commit transaksi yang
+ * mengubah master data (lihat {@link MasterDataListener}). Node lain diberi
+ * tahu lewat {@link CacheInvalidationBus} dengan region nama kelas entity.
+ * Snapshot disimpan per tenant ({@link TenantContext}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MasterDataRegistry {
+
+    public enum Jenis {
+        JABATAN, DEPARTEMEN, UNIT_KERJA, PENDIDIKAN, JENIS_KELAMIN, STATUS_ABSEN
+    }
+
+    public record ComboJson(byte[] body, String etag) {
+    }
+
+    private record Snapshot(List<ComboResponse> combo, Map<Integer, String> nama, ComboJson json) {
+    }
+
+    private static final Map<Class<?>, Jenis> JENIS_BY_ENTITY = Map.of(
+            Jabatan.class, Jenis.JABATAN,
+            Departemen.class, Jenis.DEPARTEMEN,
+            UnitKerja.class, Jenis.UNIT_KERJA,
+            Pendidikan.class, Jenis.PENDIDIKAN,
+            JenisKelamin.class, Jenis.JENIS_KELAMIN,
+            StatusAbsen.class, Jenis.STATUS_ABSEN);
+
+    private final JabatanRepository jabatanRepository;
+    private final DepartemenRepository departemenRepository;
+    private final UnitKerjaRepository unitKerjaRepository;
+    private final PendidikanRepository pendidikanRepository;
+    private final JenisKelaminRepository jenisKelaminRepository;
+    private final StatusAbsenRepository statusAbsenRepository;
+    private final ObjectMapper objectMapper;
+    private final CacheInvalidationBus invalidationBus;
+
+    private final Map<String, Map<Jenis, Snapshot>> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public List<ComboResponse> getCombo(Jenis jenis) {
+        return snapshot(jenis).combo();
+    }
+
+    public ComboJson getComboJson(Jenis jenis) {
+        return snapshot(jenis).json();
+    }
+
+    public boolean exists(Jenis jenis, Integer kode) {
+        return kode != null && snapshot(jenis).nama().containsKey(kode);
+    }
+
+    public String getNama(Jenis jenis, Integer kode) {
+        return kode != null ? snapshot(jenis).nama().get(kode) : null;
+    }
+
+    public void invalidate(Jenis jenis) {
+        generation.incrementAndGet();
+        snapshots().remove(jenis);
+        log.debug("Cache master data {} dibuang", jenis);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        snapshots().clear();
+    }
+
+    /**
+     * Buang snapshot setelah transaksi berjalan di-commit; di luar transaksi
+     * langsung dibuang.
+     */
+    public void invalidateAfterCommit(Class<?> entityClass) {
+        Jenis jenis = JENIS_BY_ENTITY.get(entityClass);
+        if (jenis == null) {
+            return;
+        }
+
+        invalidationBus.publish(entityClass.getName());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            String tenant = TenantContext.get();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    TenantContext.run(tenant, () -> invalidate(jenis));
+                }
+            });
+        } else {
+            invalidate(jenis);
+        }
+    }
+
+    @EventListener
+    public void onInvalidation(CacheInvalidationBus.Invalidation invalidation) {
+        if (invalidation.semua()) {
+            invalidateAll();
+            return;
+        }
+        JENIS_BY_ENTITY.forEach((entityClass, jenis) -> {
+            if (entityClass.getName().equals(invalidation.region())) {
+                invalidate(jenis);
+            }
+        });
+    }
+
+    private Snapshot snapshot(Jenis jenis) {
+        Map<Jenis, Snapshot> tenantSnapshots = snapshots();
+        Snapshot snapshot = tenantSnapshots.get(jenis);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        // Jika ada invalidasi selama pemuatan, hasilnya dipakai sekali saja
+        // tanpa disimpan agar data lama tidak tertahan di cache
+        long startGeneration = generation.get();
+        snapshot = load(jenis);
+        if (generation.get() == startGeneration) {
+            tenantSnapshots.putIfAbsent(jenis, snapshot);
+        }
+        return snapshot;
+    }
+
+    private Map<Jenis, Snapshot> snapshots() {
+        return snapshots.computeIfAbsent(TenantContext.get(), tenant -> new ConcurrentHashMap<>());
+    }
+
+    private Snapshot load(Jenis jenis) {
+        return switch (jenis) {
+            case JABATAN -> build(jabatanRepository::findAll, Jabatan::getId, Jabatan::getNama);
+            case DEPARTEMEN -> build(departemenRepository::findAll, Departemen::getId, Departemen::getNama);
+            case UNIT_KERJA -> build(unitKerjaRepository::findAll, UnitKerja::getId, UnitKerja::getNama);
+            case PENDIDIKAN -> build(pendidikanRepository::findAll, Pendidikan::getId, Pendidikan::getNama);
+            case JENIS_KELAMIN -> build(jenisKelaminRepository::findAll, JenisKelamin::getId, JenisKelamin::getNama);
+            case STATUS_ABSEN -> build(statusAbsenRepository::findAll, StatusAbsen::getId, StatusAbsen::getNama);
+        };
+    }
+
+    private <T> Snapshot build(Supplier<List<T>> finder, Function<T, Integer> kode, Function<T, String> nama) {
+        List<ComboResponse> combo = finder.get().stream()
+                .map(e -> ComboResponse.builder()
+                        .kode(kode.apply(e))
+                        .nama(nama.apply(e))
+                        .build())
+                .collect(Collectors.toUnmodifiableList());
+
+        Map<Integer, String> namaByKode = new HashMap<>();
+        combo.forEach(c -> namaByKode.put(c.getKode(), c.getNama()));
+
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(combo);
+            return new Snapshot(combo, Collections.unmodifiableMap(namaByKode), new ComboJson(body, etag(body)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Gagal serialisasi combo", e);
+        }
+    }
+
+    private String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
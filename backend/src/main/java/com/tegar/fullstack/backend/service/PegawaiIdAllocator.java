@@ -0,0 +1,124 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.config.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Pembagi ID pegawai ("USR" + nomor urut) berbasis sequence database.
+ * <p>
+ * Sequence dinaikkan sebesar {@code blockSize}, sehingga setiap node mengambil
+ * satu blok nomor sekaligus lalu membagikannya dari memori. Dua node (atau dua
+ * request bersamaan) tidak pernah mendapat nomor yang sama karena tiap blok
+ * berasal dari satu {@code NEXT VALUE} yang atomik di database.
+ * <p>
+ * Setiap tenant punya sequence di databasenya sendiri, jadi blok yang sedang
+ * dibagikan juga disimpan per tenant.
+ * <p>
+ * Ukuran blok yang dipakai selalu INCREMENT sequence yang sebenarnya (dibaca
+ * dari {@code INFORMATION_SCHEMA.SEQUENCES}), bukan {@code block-size} node
+ * ini: {@code CREATE SEQUENCE IF NOT EXISTS} tidak mengubah sequence yang
+ * sudah ada, dan blok yang lebih besar dari INCREMENT akan tumpang tindih
+ * dengan blok node lain. Sequence disiapkan di transaksi terpisah
+ * (REQUIRES_NEW) karena DDL di H2 meng-commit transaksi pemanggil.
+ */
+@Slf4j
+@Component
+public class PegawaiIdAllocator {
+
+    private static final String SEQUENCE_NAME = "user_id_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String prefix;
+    private final int width;
+    private final int blockSize;
+    private final TransactionTemplate requiresNew;
+
+    private static final class Blok {
+        // INCREMENT sequence, 0 jika sequence belum disiapkan
+        private long increment;
+        private long next;
+        private long limit;
+    }
+
+    private final Map<String, Blok> blok = new ConcurrentHashMap<>();
+
+    public PegawaiIdAllocator(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.pegawai.id.prefix:USR}") String prefix,
+            @Value("${app.pegawai.id.width:6}") int width,
+            @Value("${app.pegawai.id.block-size:50}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.prefix = prefix;
+        this.width = width;
+        this.blockSize = blockSize;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String nextId() {
+        Blok b = blok.computeIfAbsent(TenantContext.get(), tenant -> new Blok());
+        synchronized (b) {
+            if (b.next >= b.limit) {
+                allocateBlock(b);
+            }
+            return format(b.next++);
+        }
+    }
+
+    private String format(long number) {
+        // Lebar minimum saja; nomor yang lebih panjang tetap ditulis utuh
+        return prefix + String.format("%0" + width + "d", number);
+    }
+
+    private void allocateBlock(Blok b) {
+        ensureSequence(b);
+
+        Long start = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + SEQUENCE_NAME, Long.class);
+        b.next = start;
+        b.limit = start + b.increment;
+
+        log.debug("Blok ID pegawai tenant {} dialokasikan: {} s/d {}", TenantContext.get(), b.next, b.limit - 1);
+    }
+
+    private void ensureSequence(Blok b) {
+        if (b.increment > 0) {
+            return;
+        }
+        b.increment = requiresNew.execute(status -> createSequence());
+        if (b.increment != blockSize) {
+            log.warn("INCREMENT sequence {} tenant {} adalah {}, bukan block-size {}; blok mengikuti sequence",
+                    SEQUENCE_NAME, TenantContext.get(), b.increment, blockSize);
+        }
+    }
+
+    private long createSequence() {
+        // Mulai setelah nomor terbesar yang sudah ada agar data lama tidak bentrok
+        Long maxExisting = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(CAST(SUBSTRING(id_user, ?) AS BIGINT)), 0) FROM users "
+                        + "WHERE REGEXP_LIKE(id_user, ?)",
+                Long.class,
+                prefix.length() + 1,
+                "^" + Pattern.quote(prefix) + "[0-9]+$");
+
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE_NAME
+                + " START WITH " + (maxExisting + 1)
+                + " INCREMENT BY " + blockSize);
+
+        return jdbcTemplate.queryForObject(
+                "SELECT increment FROM information_schema.sequences "
+                        + "WHERE sequence_schema = SCHEMA() AND LOWER(sequence_name) = ?",
+                Long.class,
+                SEQUENCE_NAME);
+    }
+}
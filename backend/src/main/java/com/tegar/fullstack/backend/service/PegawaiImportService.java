@@ -0,0 +1,469 @@
+package com.tegar.fullstack.backend.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tegar.fullstack.backend.dto.request.TambahPegawaiRequest;
+import com.tegar.fullstack.backend.dto.response.ImportPegawaiResponse;
+import com.tegar.fullstack.backend.exception.BusinessException;
+import com.tegar.fullstack.backend.repository.PegawaiRepository;
+import com.tegar.fullstack.backend.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Import pegawai massal dari file CSV atau JSON.
+ * <p>
+ * Baris yang valid disimpan sekaligus; baris yang gagal dilaporkan per nomor
+ * baris di file (baris header dan baris kosong ikut dihitung) tanpa
+ * membatalkan baris lainnya.
+ */
+@Slf4j
+@Service
+public class PegawaiImportService {
+
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (id_user, email, password, profile, is_active, created_at_epoch) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_PEGAWAI =
+            "INSERT INTO pegawai (id_user, nama_lengkap, tempat_lahir, tanggal_lahir, nik_user, "
+                    + "kd_jabatan, kd_departemen, kd_unit_kerja, kd_jenis_kelamin, kd_pendidikan, "
+                    + "created_at_epoch, updated_at_epoch) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final PegawaiRepository pegawaiRepository;
+    private final MasterDataRegistry masterDataRegistry;
+    private final PasswordEncoder passwordEncoder;
+    private final PegawaiIdAllocator pegawaiIdAllocator;
+    private final PegawaiVersi pegawaiVersi;
+    private final PegawaiSearchIndex pegawaiSearchIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ForkJoinPool hashPool;
+    private final int batchSize;
+    private final int maxRows;
+
+    public PegawaiImportService(
+            UserRepository userRepository,
+            PegawaiRepository pegawaiRepository,
+            MasterDataRegistry masterDataRegistry,
+            PasswordEncoder passwordEncoder,
+            PegawaiIdAllocator pegawaiIdAllocator,
+            PegawaiVersi pegawaiVersi,
+            PegawaiSearchIndex pegawaiSearchIndex,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Value("${app.pegawai.import.hash-parallelism:4}") int hashParallelism,
+            @Value("${app.pegawai.import.batch-size:500}") int batchSize,
+            @Value("${app.pegawai.import.max-rows:10000}") int maxRows) {
+        this.userRepository = userRepository;
+        this.pegawaiRepository = pegawaiRepository;
+        this.masterDataRegistry = masterDataRegistry;
+        this.passwordEncoder = passwordEncoder;
+        this.pegawaiIdAllocator = pegawaiIdAllocator;
+        this.pegawaiVersi = pegawaiVersi;
+        this.pegawaiSearchIndex = pegawaiSearchIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.hashPool = new ForkJoinPool(hashParallelism);
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdown();
+    }
+
+    public ImportPegawaiResponse importPegawai(MultipartFile file) {
+        List<Baris> rows = parse(file);
+        List<ImportPegawaiResponse.Kesalahan> kesalahan = new ArrayList<>();
+
+        // Validasi per baris (format, master data, duplikat di dalam file)
+        Set<String> emailDalamFile = new HashSet<>();
+        Set<String> nikDalamFile = new HashSet<>();
+        List<Baris> valid = new ArrayList<>();
+
+        for (Baris baris : rows) {
+            String error = validate(baris, emailDalamFile, nikDalamFile);
+            if (error != null) {
+                kesalahan.add(toKesalahan(baris, error));
+            } else {
+                valid.add(baris);
+            }
+        }
+
+        // Cek email & NIK yang sudah terdaftar dengan satu IN query
+        valid = rejectExisting(valid, kesalahan);
+
+        // Hash password di luar transaksi agar koneksi DB tidak tertahan
+        hashPasswords(valid);
+
+        List<Baris> siap = valid;
+        Integer berhasil = transactionTemplate.execute(status -> insert(siap, kesalahan));
+
+        kesalahan.sort(Comparator.comparingInt(ImportPegawaiResponse.Kesalahan::getBaris));
+
+        log.info("Import pegawai selesai: {} baris, {} berhasil, {} gagal",
+                rows.size(), berhasil, kesalahan.size());
+
+        return ImportPegawaiResponse.builder()
+                .total(rows.size())
+                .berhasil(berhasil != null ? berhasil : 0)
+                .gagal(kesalahan.size())
+                .kesalahan(kesalahan)
+                .build();
+    }
+
+    // ========== PARSING ==========
+
+    private List<Baris> parse(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new BusinessException(501, "File tidak boleh kosong");
+        }
+
+        String fileName = Optional.ofNullable(file.getOriginalFilename()).orElse("").toLowerCase();
+
+        try (InputStream in = file.getInputStream()) {
+            if (fileName.endsWith(".csv")) {
+                return parseCsv(in);
+            }
+            if (fileName.endsWith(".json")) {
+                return parseJson(in);
+            }
+        } catch (IOException e) {
+            throw new BusinessException(501, "Gagal membaca file");
+        }
+
+        throw new BusinessException(501, "Format file tidak didukung");
+    }
+
+    /**
+     * CSV dengan baris header berisi nama field {@link TambahPegawaiRequest}.
+     * Field bertanda kutip didukung, tetapi tidak boleh memuat baris baru.
+     */
+    private List<Baris> parseCsv(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            throw new BusinessException(501, "File tidak boleh kosong");
+        }
+        if (headerLine.startsWith("\uFEFF")) {
+            headerLine = headerLine.substring(1);
+        }
+
+        List<String> header = parseCsvLine(headerLine).stream()
+                .map(h -> h.trim().toLowerCase())
+                .collect(Collectors.toList());
+
+        List<Baris> rows = new ArrayList<>();
+        String line;
+        // Nomor baris fisik di file, header = baris 1
+        int nomorBaris = 1;
+        while ((line = reader.readLine()) != null) {
+            nomorBaris++;
+            if (line.isBlank()) {
+                continue;
+            }
+            checkMaxRows(rows.size());
+
+            List<String> values = parseCsvLine(line);
+            Map<String, String> row = new HashMap<>();
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                String value = values.get(i).trim();
+                row.put(header.get(i), value.isEmpty() ? null : value);
+            }
+
+            int nomor = nomorBaris;
+            try {
+                TambahPegawaiRequest request = TambahPegawaiRequest.builder()
+                        .namaLengkap(row.get("namalengkap"))
+                        .email(row.get("email"))
+                        .tempatLahir(row.get("tempatlahir"))
+                        .tanggalLahir(parseLong(row.get("tanggallahir")))
+                        .kdJenisKelamin(parseInteger(row.get("kdjeniskelamin")))
+                        .kdPendidikan(parseInteger(row.get("kdpendidikan")))
+                        .kdJabatan(parseInteger(row.get("kdjabatan")))
+                        .kdDepartemen(parseInteger(row.get("kddepartemen")))
+                        .kdUnitKerja(parseInteger(row.get("kdunitkerja")))
+                        .password(row.get("password"))
+                        .passwordC(row.getOrDefault("passwordc", row.get("password")))
+                        .nikUser(row.get("nikuser"))
+                        .build();
+                rows.add(new Baris(nomor, request, null));
+            } catch (NumberFormatException e) {
+                rows.add(new Baris(nomor, TambahPegawaiRequest.builder().email(row.get("email")).build(),
+                        "Format angka tidak valid"));
+            }
+        }
+        return rows;
+    }
+
+    private List<Baris> parseJson(InputStream in) throws IOException {
+        List<Baris> rows = new ArrayList<>();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BusinessException(501, "Format JSON harus berupa array");
+            }
+
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new BusinessException(501, "Format JSON tidak lengkap");
+                }
+                checkMaxRows(rows.size());
+
+                // Baris tempat elemen dimulai di file
+                int nomor = parser.currentTokenLocation().getLineNr();
+                if (token != JsonToken.START_OBJECT) {
+                    // Elemen selain objek dilaporkan, elemen berikutnya tetap diproses
+                    parser.skipChildren();
+                    rows.add(new Baris(nomor, TambahPegawaiRequest.builder().build(), "Elemen harus berupa objek"));
+                    continue;
+                }
+                // Baca per objek, bukan seluruh file sekaligus
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    rows.add(new Baris(nomor, objectMapper.treeToValue(node, TambahPegawaiRequest.class), null));
+                } catch (JsonProcessingException e) {
+                    rows.add(new Baris(nomor,
+                            TambahPegawaiRequest.builder().email(node.path("email").asText(null)).build(),
+                            "Format data tidak valid"));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private void checkMaxRows(int count) {
+        if (count >= maxRows) {
+            throw new BusinessException(501, "Jumlah baris melebihi batas " + maxRows);
+        }
+    }
+
+    private Long parseLong(String value) {
+        return value != null ? Long.valueOf(value) : null;
+    }
+
+    private Integer parseInteger(String value) {
+        return value != null ? Integer.valueOf(value) : null;
+    }
+
+    // ========== VALIDASI ==========
+
+    private String validate(Baris baris, Set<String> emailDalamFile, Set<String> nikDalamFile) {
+        if (baris.error != null) {
+            return baris.error;
+        }
+
+        TambahPegawaiRequest request = baris.request;
+
+        Set<ConstraintViolation<TambahPegawaiRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+
+        if (!request.getPassword().equals(request.getPasswordC())) {
+            return "Password tidak sama";
+        }
+        if (!masterDataRegistry.exists(MasterDataRegistry.Jenis.JABATAN, request.getKdJabatan())) {
+            return "Jabatan tidak ditemukan";
+        }
+        if (!masterDataRegistry.exists(MasterDataRegistry.Jenis.DEPARTEMEN, request.getKdDepartemen())) {
+            return "Departemen tidak ditemukan";
+        }
+        if (!masterDataRegistry.exists(MasterDataRegistry.Jenis.UNIT_KERJA, request.getKdUnitKerja())) {
+            return "Unit kerja tidak ditemukan";
+        }
+        if (!masterDataRegistry.exists(MasterDataRegistry.Jenis.PENDIDIKAN, request.getKdPendidikan())) {
+            return "Pendidikan tidak ditemukan";
+        }
+        if (!masterDataRegistry.exists(MasterDataRegistry.Jenis.JENIS_KELAMIN, request.getKdJenisKelamin())) {
+            return "Jenis kelamin tidak ditemukan";
+        }
+
+        if (!emailDalamFile.add(request.getEmail())) {
+            return "Email duplikat di dalam file";
+        }
+        if (request.getNikUser() != null && !nikDalamFile.add(request.getNikUser())) {
+            return "NIK duplikat di dalam file";
+        }
+        return null;
+    }
+
+    private List<Baris> rejectExisting(List<Baris> rows, List<ImportPegawaiResponse.Kesalahan> kesalahan) {
+        Set<String> emails = findExisting(
+                rows.stream().map(b -> b.request.getEmail()).collect(Collectors.toList()),
+                userRepository::findExistingEmails);
+
+        Set<String> nikUsers = findExisting(
+                rows.stream().map(b -> b.request.getNikUser()).filter(Objects::nonNull).collect(Collectors.toList()),
+                pegawaiRepository::findExistingNikUsers);
+
+        List<Baris> result = new ArrayList<>();
+        for (Baris baris : rows) {
+            if (emails.contains(baris.request.getEmail())) {
+                kesalahan.add(toKesalahan(baris, "Email sudah terdaftar"));
+            } else if (baris.request.getNikUser() != null && nikUsers.contains(baris.request.getNikUser())) {
+                kesalahan.add(toKesalahan(baris, "NIK sudah terdaftar"));
+            } else {
+                result.add(baris);
+            }
+        }
+        return result;
+    }
+
+    private Set<String> findExisting(List<String> values, Function<Collection<String>, List<String>> query) {
+        Set<String> existing = new HashSet<>();
+        for (int i = 0; i < values.size(); i += IN_CHUNK_SIZE) {
+            existing.addAll(query.apply(values.subList(i, Math.min(i + IN_CHUNK_SIZE, values.size()))));
+        }
+        return existing;
+    }
+
+    // ========== PENYIMPANAN ==========
+
+    private void hashPasswords(List<Baris> rows) {
+        try {
+            // parallelStream di dalam pool sendiri memakai worker pool tersebut,
+            // bukan common pool milik JVM
+            hashPool.submit(() -> rows.parallelStream()
+                    .forEach(b -> b.passwordHash = passwordEncoder.encode(b.request.getPassword())))
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(501, "Import dibatalkan");
+        } catch (ExecutionException e) {
+            throw new BusinessException(501, "Gagal memproses password");
+        }
+    }
+
+    private int insert(List<Baris> rows, List<ImportPegawaiResponse.Kesalahan> kesalahan) {
+        // Cek ulang di dalam transaksi: email bisa saja didaftarkan selama proses hashing
+        List<Baris> siap = rejectExisting(rows, kesalahan);
+        if (siap.isEmpty()) {
+            return 0;
+        }
+
+        long now = Instant.now().getEpochSecond();
+        for (Baris baris : siap) {
+            baris.userId = pegawaiIdAllocator.nextId();
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_USER, siap, batchSize, (ps, b) -> {
+            ps.setString(1, b.userId);
+            ps.setString(2, b.request.getEmail());
+            ps.setString(3, b.passwordHash);
+            ps.setString(4, "PEGAWAI");
+            ps.setBoolean(5, true);
+            ps.setLong(6, now);
+        });
+
+        jdbcTemplate.batchUpdate(INSERT_PEGAWAI, siap, batchSize, (ps, b) -> {
+            TambahPegawaiRequest request = b.request;
+            ps.setString(1, b.userId);
+            ps.setString(2, request.getNamaLengkap());
+            ps.setString(3, request.getTempatLahir());
+            ps.setLong(4, request.getTanggalLahir());
+            ps.setString(5, request.getNikUser());
+            ps.setInt(6, request.getKdJabatan());
+            ps.setInt(7, request.getKdDepartemen());
+            ps.setInt(8, request.getKdUnitKerja());
+            ps.setInt(9, request.getKdJenisKelamin());
+            ps.setInt(10, request.getKdPendidikan());
+            ps.setLong(11, now);
+            ps.setLong(12, now);
+        });
+
+        // Dicap setelah batch insert, tepat sebelum commit (lihat PegawaiVersi)
+        List<String> userIds = siap.stream().map(b -> b.userId).collect(Collectors.toList());
+        pegawaiVersi.tandaiBerubah(userIds);
+        pegawaiSearchIndex.refreshAfterCommit(userIds);
+
+        return siap.size();
+    }
+
+    private ImportPegawaiResponse.Kesalahan toKesalahan(Baris baris, String message) {
+        return ImportPegawaiResponse.Kesalahan.builder()
+                .baris(baris.nomor)
+                .email(baris.request != null ? baris.request.getEmail() : null)
+                .message(message)
+                .build();
+    }
+
+    private static class Baris {
+        private final int nomor;
+        private final TambahPegawaiRequest request;
+        private final String error;
+        private String passwordHash;
+        private String userId;
+
+        private Baris(int nomor, TambahPegawaiRequest request, String error) {
+            this.nomor = nomor;
+            this.request = request;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.dto.request.DaftarPegawaiRequest;
+import com.tegar.fullstack.backend.dto.response.HalamanResponse;
+import com.tegar.fullstack.backend.dto.response.PegawaiCariResponse;
+import com.tegar.fullstack.backend.dto.response.PegawaiPerubahanResponse;
+import com.tegar.fullstack.backend.dto.response.PegawaiResponse;
+import com.tegar.fullstack.backend.entity.DataVersion;
+import com.tegar.fullstack.backend.exception.BusinessException;
+import com.tegar.fullstack.backend.repository.DataVersionRepository;
+import com.tegar.fullstack.backend.repository.DepartemenRepository;
+import com.tegar.fullstack.backend.repository.PegawaiRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sisi baca pegawai (daftar, combo, delta-sync, pencarian).
+ * <p>
+ * Semua method berjalan di transaksi read-only: Hibernate memakai flush mode
+ * MANUAL dan session read-only, dan query mengembalikan proyeksi DTO atau
+ * skalar, sehingga tidak ada entity yang dihidrasi, di-snapshot, atau
+ * di-dirty-check. Perubahan data tetap lewat {@link PegawaiService}.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class PegawaiQueryService {
+    
+    // Penanda cursor delta-sync berbasis versi (lihat PegawaiVersi)
+    private static final String CURSOR_VERSI = "v";
+    
+    private final PegawaiRepository pegawaiRepository;
+    private final DepartemenRepository departemenRepository;
+    private final DataVersionRepository dataVersionRepository;
+    private final PegawaiSearchIndex pegawaiSearchIndex;
+    private final MasterDataRegistry masterDataRegistry;
+    
+    // ========== COMBO METHODS ==========
+    
+    public List<Object[]> getComboDepartemenHrd() {
+        // Mendapatkan pegawai di departemen HRD
+        Integer kdHrd = departemenRepository.findIdByNama("HRD")
+                .orElseThrow(() -> new BusinessException(501, "Departemen HRD tidak ditemukan"));
+        
+        return pegawaiRepository.findComboByDepartemen(kdHrd);
+    }
+    
+    // ========== DAFTAR PEGAWAI ==========
+    
+    public List<PegawaiResponse> getAllPegawai() {
+        return pegawaiRepository.findAllResponses();
+    }
+    
+    /**
+     * Daftar pegawai berhalaman dengan filter master dan keyset pagination:
+     * biaya per halaman tetap, berapa pun jauhnya halaman yang dibuka.
+     */
+    public HalamanResponse<PegawaiResponse> getHalamanPegawai(DaftarPegawaiRequest request) {
+        int size = Math.max(1, Math.min(request.getSize() != null ? request.getSize() : 50, 200));
+        boolean urutId = "id".equalsIgnoreCase(request.getUrut());
+        
+        String lastNama = null;
+        String lastId = null;
+        if (request.getSetelah() != null && !request.getSetelah().isBlank()) {
+            String[] cursor = decodeCursor(request.getSetelah());
+            if (urutId) {
+                lastId = cursor[cursor.length - 1];
+            } else {
+                if (cursor.length != 2) {
+                    throw new BusinessException(501, "Cursor tidak valid");
+                }
+                lastNama = cursor[0];
+                lastId = cursor[1];
+            }
+        }
+        
+        // Ambil satu baris lebih untuk mengetahui apakah masih ada halaman berikutnya
+        List<PegawaiResponse> rows = pegawaiRepository.findHalaman(request, lastNama, lastId, size + 1);
+        boolean adaLagi = rows.size() > size;
+        List<PegawaiResponse> data = adaLagi ? rows.subList(0, size) : rows;
+        
+        String cursor = null;
+        if (adaLagi) {
+            PegawaiResponse last = data.get(data.size() - 1);
+            cursor = urutId ? encodeCursor(last.getIdUser()) : encodeCursor(last.getNamaLengkap(), last.getIdUser());
+        }
+        
+        return HalamanResponse.<PegawaiResponse>builder()
+                .data(new ArrayList<>(data))
+                .cursor(cursor)
+                .adaLagi(adaLagi)
+                .build();
+    }
+    
+    /**
+     * Delta-sync: pegawai yang dibuat, diubah, atau dinonaktifkan setelah cursor.
+     * Cursor kosong berarti sinkronisasi penuh dari awal; cursor pada respons
+     * selalu diisi sehingga klien cukup menyimpannya untuk panggilan berikutnya.
+     */
+    public HalamanResponse<PegawaiPerubahanResponse> getPerubahanPegawai(String sejak, Integer limit) {
+        int size = Math.max(1, Math.min(limit != null ? limit : 500, 1000));
+        
+        long sejakVersi = -1;
+        String sejakId = "";
+        if (sejak != null && !sejak.isBlank()) {
+            String[] cursor = decodeCursor(sejak);
+            // Cursor lama berbasis waktu (dua bagian) diulang dari awal
+            if (cursor.length == 3 && CURSOR_VERSI.equals(cursor[0])) {
+                try {
+                    sejakVersi = Long.parseLong(cursor[1]);
+                } catch (NumberFormatException e) {
+                    throw new BusinessException(501, "Cursor tidak valid");
+                }
+                sejakId = cursor[2];
+            } else if (cursor.length != 2) {
+                throw new BusinessException(501, "Cursor tidak valid");
+            }
+        }
+        
+        List<PegawaiPerubahanResponse> rows = pegawaiRepository.findPerubahan(
+                sejakVersi, sejakId, Limit.of(size + 1));
+        boolean adaLagi = rows.size() > size;
+        List<PegawaiPerubahanResponse> data = new ArrayList<>(adaLagi ? rows.subList(0, size) : rows);
+        
+        // Detail hanya untuk pegawai aktif; tombstone cukup ID-nya
+        List<String> aktifIds = data.stream()
+                .filter(PegawaiPerubahanResponse::isAktif)
+                .map(PegawaiPerubahanResponse::getIdUser)
+                .toList();
+        if (!aktifIds.isEmpty()) {
+            Map<String, PegawaiResponse> detail = pegawaiRepository.findResponsesByIds(aktifIds).stream()
+                    .collect(Collectors.toMap(PegawaiResponse::getIdUser, Function.identity()));
+            data.forEach(d -> d.setPegawai(detail.get(d.getIdUser())));
+        }
+        
+        String cursor = sejak;
+        if (!data.isEmpty()) {
+            PegawaiPerubahanResponse last = data.get(data.size() - 1);
+            cursor = encodeCursor(CURSOR_VERSI, String.valueOf(last.getVersi()), last.getIdUser());
+        }
+        
+        return HalamanResponse.<PegawaiPerubahanResponse>builder()
+                .data(data)
+                .cursor(cursor)
+                .adaLagi(adaLagi)
+                .build();
+    }
+    
+    /**
+     * Versi daftar pegawai; berubah setiap kali ada pegawai yang ditambah
+     * atau diubah. Cukup untuk menjawab If-None-Match tanpa memuat data.
+     */
+    public long getDaftarVersion() {
+        Long versi = dataVersionRepository.findVersi(DataVersion.PEGAWAI);
+        return versi != null ? versi : 0L;
+    }
+    
+    /**
+     * Pencarian typeahead dari indeks di memori; tidak menyentuh database
+     * sehingga tidak perlu transaksi maupun koneksi.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<PegawaiCariResponse> cariPegawai(String query, PegawaiSearchIndex.Filter filter, int limit) {
+        List<PegawaiCariResponse> result = pegawaiSearchIndex.search(query, filter, limit);
+        
+        result.forEach(p -> {
+            p.setNamaDepartemen(masterDataRegistry.getNama(MasterDataRegistry.Jenis.DEPARTEMEN, p.getKdDepartemen()));
+            p.setNamaJabatan(masterDataRegistry.getNama(MasterDataRegistry.Jenis.JABATAN, p.getKdJabatan()));
+            p.setNamaUnitKerja(masterDataRegistry.getNama(MasterDataRegistry.Jenis.UNIT_KERJA, p.getKdUnitKerja()));
+            p.setNamaPendidikan(masterDataRegistry.getNama(MasterDataRegistry.Jenis.PENDIDIKAN, p.getKdPendidikan()));
+        });
+        return result;
+    }
+
+    // ========== CURSOR ==========
+    
+    private String encodeCursor(String... values) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join("\0", values).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private String[] decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\0", -1);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(501, "Cursor tidak valid");
+        }
+    }
+}
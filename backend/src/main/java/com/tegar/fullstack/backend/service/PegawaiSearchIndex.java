@@ -0,0 +1,706 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.config.TenantContext;
+import com.tegar.fullstack.backend.config.TenantProperties;
+import com.tegar.fullstack.backend.dto.response.PegawaiCariResponse;
+import com.tegar.fullstack.backend.dto.response.PegawaiResponse;
+import com.tegar.fullstack.backend.repository.PegawaiRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Indeks pencarian pegawai di memori (nama lengkap, NIK, email).
+ * <p>
+ * Data disimpan per kolom dalam array paralel (bukan satu objek per pegawai)
+ * dan diindeks dengan dua jenis n-gram:
+ * <ul>
+ *     <li>trigram seluruh teks, untuk query 3 karakter atau lebih (substring);</li>
+ *     <li>awalan 1-2 karakter tiap kata, untuk query yang lebih pendek.</li>
+ * </ul>
+ * Kandidat dari posting list terkecil selalu diverifikasi dengan
+ * {@code contains}/{@code startsWith}, jadi hasilnya tepat. Semua kandidat
+ * yang cocok diberi peringkat lewat heap berukuran {@code limit}, sehingga
+ * top-N tidak bergantung pada urutan posting.
+ * <p>
+ * Perubahan diterapkan per pegawai setelah commit; dokumen lama hanya ditandai
+ * terhapus dan indeks dipadatkan ulang bila sampahnya sudah banyak. Perubahan
+ * yang datang selama rebuild dicatat dan diterapkan ulang ke segment baru
+ * sebelum segment itu dipasang, agar tidak tertimpa data rebuild. Node lain
+ * diberi tahu lewat {@link CacheInvalidationBus} (region {@value #REGION}).
+ * Setiap tenant punya indeks dan lock sendiri.
+ */
+@Slf4j
+@Component
+public class PegawaiSearchIndex {
+
+    public record Filter(Integer kdDepartemen, Integer kdJabatan, Integer kdUnitKerja, Integer kdPendidikan) {
+    }
+
+    public static final String REGION = "pegawai-cari";
+
+    private static final char SEPARATOR = '\u0001';
+    private static final int MIN_COMPACT_DELETED = 1000;
+
+    private final PegawaiRepository pegawaiRepository;
+    private final CacheInvalidationBus invalidationBus;
+    private final TenantProperties tenantProperties;
+
+    // Satu indeks dan lock per tenant, jadi pembaruan tenant besar tidak
+    // menahan pencarian tenant lain
+    private final Map<String, Indeks> indeks = new ConcurrentHashMap<>();
+
+    public PegawaiSearchIndex(PegawaiRepository pegawaiRepository, CacheInvalidationBus invalidationBus,
+                              TenantProperties tenantProperties) {
+        this.pegawaiRepository = pegawaiRepository;
+        this.invalidationBus = invalidationBus;
+        this.tenantProperties = tenantProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        tenantProperties.getTenantIds().forEach(tenant -> TenantContext.run(tenant, this::rebuild));
+    }
+
+    /**
+     * Bangun ulang seluruh indeks dari database (satu query proyeksi).
+     *
+     * @return jumlah pegawai yang terindeks
+     */
+    public int rebuild() {
+        Indeks idx = indeks();
+        // Satu rebuild per tenant sekaligus, agar hanya ada satu catatan perubahan
+        idx.rebuildLock.lock();
+        try {
+            idx.lock.writeLock().lock();
+            try {
+                idx.tertunda = new ArrayList<>();
+            } finally {
+                idx.lock.writeLock().unlock();
+            }
+
+            long start = System.nanoTime();
+            List<PegawaiResponse> all = pegawaiRepository.findAllResponses();
+            load(all);
+            log.info("Indeks pencarian pegawai tenant {} dibangun: {} pegawai dalam {} ms",
+                    TenantContext.get(), all.size(), (System.nanoTime() - start) / 1_000_000);
+            return all.size();
+        } finally {
+            idx.lock.writeLock().lock();
+            try {
+                idx.tertunda = null;
+            } finally {
+                idx.lock.writeLock().unlock();
+            }
+            idx.rebuildLock.unlock();
+        }
+    }
+
+    public void load(Collection<PegawaiResponse> pegawai) {
+        Segment baru = new Segment(Math.max(16, pegawai.size()));
+        baru.tambahSemua(() -> pegawai.forEach(baru::add));
+
+        Indeks idx = indeks();
+        idx.lock.writeLock().lock();
+        try {
+            if (idx.tertunda != null) {
+                // Perubahan sejak rebuild mulai membaca database, urut seperti aslinya
+                idx.tertunda.forEach(perubahan -> perubahan.accept(baru));
+                idx.tertunda.clear();
+            }
+            idx.segment = baru;
+            compactIfNeeded(idx);
+        } finally {
+            idx.lock.writeLock().unlock();
+        }
+    }
+
+    public void upsert(Collection<PegawaiResponse> pegawai) {
+        terapkan(segment -> {
+            for (PegawaiResponse p : pegawai) {
+                segment.remove(p.getIdUser());
+                segment.add(p);
+            }
+        });
+    }
+
+    public void remove(Collection<String> idUsers) {
+        terapkan(segment -> idUsers.forEach(segment::remove));
+    }
+
+    /**
+     * Muat ulang pegawai tertentu dari database setelah transaksi berjalan
+     * di-commit, sehingga indeks tidak pernah berisi data yang di-rollback.
+     */
+    public void refreshAfterCommit(Collection<String> idUsers) {
+        if (idUsers.isEmpty()) {
+            return;
+        }
+
+        List<String> ids = List.copyOf(idUsers);
+        invalidationBus.publish(REGION, ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            String tenant = TenantContext.get();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    TenantContext.run(tenant, () -> refresh(ids));
+                }
+            });
+        } else {
+            refresh(ids);
+        }
+    }
+
+    @EventListener
+    public void onInvalidation(CacheInvalidationBus.Invalidation invalidation) {
+        if (!invalidation.berlakuUntuk(REGION)) {
+            return;
+        }
+        if (invalidation.key() == null) {
+            rebuild();
+        } else {
+            refresh(List.of(invalidation.key()));
+        }
+    }
+
+    public int size() {
+        Indeks idx = indeks();
+        idx.lock.readLock().lock();
+        try {
+            return idx.segment.ordinals.size();
+        } finally {
+            idx.lock.readLock().unlock();
+        }
+    }
+
+    public List<PegawaiCariResponse> search(String query, Filter filter, int limit) {
+        String q = query != null ? query.trim().toLowerCase(Locale.ROOT) : "";
+
+        Indeks idx = indeks();
+        idx.lock.readLock().lock();
+        try {
+            return idx.segment.search(q, filter, limit);
+        } finally {
+            idx.lock.readLock().unlock();
+        }
+    }
+
+    private void refresh(List<String> ids) {
+        try {
+            List<PegawaiResponse> pegawai = pegawaiRepository.findResponsesByIds(ids);
+
+            terapkan(segment -> {
+                // Hapus semua dulu: ID yang tidak kembali berarti sudah tidak ada
+                ids.forEach(segment::remove);
+                pegawai.forEach(segment::add);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Gagal memperbarui indeks pencarian untuk {} pegawai", ids.size(), e);
+        }
+    }
+
+    /**
+     * Terapkan perubahan ke segment aktif; selama rebuild juga dicatat untuk
+     * segment yang sedang dibangun.
+     */
+    private void terapkan(Consumer<Segment> perubahan) {
+        Indeks idx = indeks();
+        idx.lock.writeLock().lock();
+        try {
+            perubahan.accept(idx.segment);
+            if (idx.tertunda != null) {
+                idx.tertunda.add(perubahan);
+            }
+            compactIfNeeded(idx);
+        } finally {
+            idx.lock.writeLock().unlock();
+        }
+    }
+
+    private void compactIfNeeded(Indeks idx) {
+        if (idx.segment.deleted >= MIN_COMPACT_DELETED && idx.segment.deleted * 2 >= idx.segment.size) {
+            idx.segment = idx.segment.compact();
+        }
+    }
+
+    private Indeks indeks() {
+        return indeks.computeIfAbsent(TenantContext.get(), tenant -> new Indeks());
+    }
+
+    // ========== STRUKTUR INDEKS ==========
+
+    private static final class Indeks {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final ReentrantLock rebuildLock = new ReentrantLock();
+        private Segment segment = new Segment(16);
+        // Perubahan selama rebuild berjalan, null jika tidak ada rebuild
+        private List<Consumer<Segment>> tertunda;
+    }
+
+    private static final class Segment {
+
+        private String[] ids;
+        private String[] nama;
+        private String[] nik;
+        private String[] email;
+        private String[] teks;
+        private int[] departemen;
+        private int[] jabatan;
+        private int[] unitKerja;
+        private int[] pendidikan;
+
+        // Semua ordinal (termasuk yang dihapus) urut teks lalu ordinal, yaitu
+        // urutan peringkat di antara dokumen dengan kelas yang sama
+        private int[] urutNama;
+        private boolean bulk;
+
+        private final BitSet dihapus = new BitSet();
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final Map<Long, Postings> postings = new HashMap<>();
+
+        private int size;
+        private int deleted;
+
+        private Segment(int capacity) {
+            ids = new String[capacity];
+            nama = new String[capacity];
+            nik = new String[capacity];
+            email = new String[capacity];
+            teks = new String[capacity];
+            departemen = new int[capacity];
+            jabatan = new int[capacity];
+            unitKerja = new int[capacity];
+            pendidikan = new int[capacity];
+            urutNama = new int[capacity];
+        }
+
+        /**
+         * Tambah banyak dokumen sekaligus: urutan nama disusun sekali di akhir,
+         * bukan disisipkan satu per satu.
+         */
+        private void tambahSemua(Runnable tambah) {
+            bulk = true;
+            try {
+                tambah.run();
+            } finally {
+                bulk = false;
+            }
+            Integer[] urut = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                urut[i] = i;
+            }
+            Arrays.sort(urut, this::bandingNama);
+            for (int i = 0; i < size; i++) {
+                urutNama[i] = urut[i];
+            }
+        }
+
+        private int bandingNama(int a, int b) {
+            int banding = teks[a].compareTo(teks[b]);
+            return banding != 0 ? banding : Integer.compare(a, b);
+        }
+
+        private void add(PegawaiResponse p) {
+            add(p.getIdUser(), p.getNamaLengkap(), p.getNikUser(), p.getEmail(),
+                    kode(p.getKdDepartemen()), kode(p.getKdJabatan()),
+                    kode(p.getKdUnitKerja()), kode(p.getKdPendidikan()));
+        }
+
+        private void add(String id, String namaLengkap, String nikUser, String mail,
+                         int kdDepartemen, int kdJabatan, int kdUnitKerja, int kdPendidikan) {
+            if (size == ids.length) {
+                grow();
+            }
+
+            int ordinal = size++;
+            ids[ordinal] = id;
+            nama[ordinal] = namaLengkap;
+            nik[ordinal] = nikUser;
+            email[ordinal] = mail;
+            departemen[ordinal] = kdDepartemen;
+            jabatan[ordinal] = kdJabatan;
+            unitKerja[ordinal] = kdUnitKerja;
+            pendidikan[ordinal] = kdPendidikan;
+
+            String text = normalize(namaLengkap) + SEPARATOR + normalize(nikUser) + SEPARATOR + normalize(mail);
+            teks[ordinal] = text;
+            ordinals.put(id, ordinal);
+
+            indexTrigrams(ordinal, text);
+            indexPrefixes(ordinal, text);
+
+            if (!bulk) {
+                // Ordinal baru selalu terbesar: posisinya setelah semua teks yang <= teks ini
+                int posisi = cariAkhir(text, ordinal);
+                System.arraycopy(urutNama, posisi, urutNama, posisi + 1, ordinal - posisi);
+                urutNama[posisi] = ordinal;
+            }
+        }
+
+        /**
+         * Posisi pertama di {@link #urutNama} (dari {@code n} entri) yang teksnya
+         * tidak lebih kecil dari {@code teksCari}.
+         */
+        private int cariAwal(String teksCari, int n) {
+            return cari(teksCari, n, false);
+        }
+
+        /**
+         * Posisi pertama di {@link #urutNama} (dari {@code n} entri) yang teksnya
+         * lebih besar dari {@code teksCari}.
+         */
+        private int cariAkhir(String teksCari, int n) {
+            return cari(teksCari, n, true);
+        }
+
+        private int cari(String teksCari, int n, boolean termasukSama) {
+            int lo = 0;
+            int hi = n;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int banding = teks[urutNama[mid]].compareTo(teksCari);
+                if (banding < 0 || (termasukSama && banding == 0)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private void remove(String id) {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal != null) {
+                dihapus.set(ordinal);
+                deleted++;
+            }
+        }
+
+        private Segment compact() {
+            Segment baru = new Segment(Math.max(16, size - deleted));
+            baru.tambahSemua(() -> {
+                for (int i = 0; i < size; i++) {
+                    if (!dihapus.get(i)) {
+                        baru.add(ids[i], nama[i], nik[i], email[i], departemen[i], jabatan[i], unitKerja[i], pendidikan[i]);
+                    }
+                }
+            });
+            return baru;
+        }
+
+        private List<PegawaiCariResponse> search(String q, Filter filter, int limit) {
+            if (limit <= 0) {
+                return List.of();
+            }
+            Postings kandidat = null;
+            if (!q.isEmpty()) {
+                kandidat = candidates(q);
+                if (kandidat == null) {
+                    return List.of();
+                }
+            }
+
+            int[] hasil;
+            if (kandidat == null || kandidat.size > size / 8) {
+                // Kandidat banyak: telusuri urutan nama, berhenti begitu limit terpenuhi
+                hasil = telusuriUrutNama(q, filter, limit);
+            } else {
+                TopN top = new TopN(this, q, limit);
+                for (int j = 0; j < kandidat.size; j++) {
+                    int i = kandidat.data[j];
+                    if (!dihapus.get(i) && matchesFilter(i, filter) && matchesText(i, q)) {
+                        top.offer(i);
+                    }
+                }
+                hasil = top.sorted();
+            }
+
+            List<PegawaiCariResponse> response = new ArrayList<>(hasil.length);
+            for (int i : hasil) {
+                response.add(PegawaiCariResponse.builder()
+                        .idUser(ids[i])
+                        .namaLengkap(nama[i])
+                        .nikUser(nik[i])
+                        .email(email[i])
+                        .kdDepartemen(nullable(departemen[i]))
+                        .kdJabatan(nullable(jabatan[i]))
+                        .kdUnitKerja(nullable(unitKerja[i]))
+                        .kdPendidikan(nullable(pendidikan[i]))
+                        .build());
+            }
+            return response;
+        }
+
+        /**
+         * Top-N dengan peringkat yang sama seperti {@link TopN}: teks berawalan
+         * query membentuk satu rentang di urutan nama (dicari biner), sisanya
+         * ditelusuri dari awal urutan nama.
+         */
+        private int[] telusuriUrutNama(String q, Filter filter, int limit) {
+            int[] hasil = new int[Math.min(limit, size)];
+            int n = 0;
+            if (!q.isEmpty()) {
+                for (int j = cariAwal(q, size); j < size && n < hasil.length; j++) {
+                    int i = urutNama[j];
+                    if (!teks[i].startsWith(q)) {
+                        break;
+                    }
+                    if (!dihapus.get(i) && matchesFilter(i, filter)) {
+                        hasil[n++] = i;
+                    }
+                }
+            }
+            for (int j = 0; j < size && n < hasil.length; j++) {
+                int i = urutNama[j];
+                if (!dihapus.get(i) && (q.isEmpty() || !teks[i].startsWith(q))
+                        && matchesFilter(i, filter) && (q.isEmpty() || matchesText(i, q))) {
+                    hasil[n++] = i;
+                }
+            }
+            return Arrays.copyOf(hasil, n);
+        }
+
+        /**
+         * Posting list terpendek yang memuat semua kandidat, atau null jika
+         * dipastikan tidak ada yang cocok.
+         */
+        private Postings candidates(String q) {
+            if (q.length() >= 3) {
+                Postings terkecil = null;
+                for (int i = 0; i + 3 <= q.length(); i++) {
+                    Postings p = postings.get(trigram(q.charAt(i), q.charAt(i + 1), q.charAt(i + 2)));
+                    if (p == null) {
+                        return null;
+                    }
+                    if (terkecil == null || p.size < terkecil.size) {
+                        terkecil = p;
+                    }
+                }
+                return terkecil;
+            }
+
+            if (isWord(q)) {
+                return postings.get(q.length() == 1 ? prefix(q.charAt(0)) : prefix(q.charAt(0), q.charAt(1)));
+            }
+
+            // Query pendek berisi simbol (mis. "@"): periksa semua dokumen
+            Postings semua = new Postings();
+            for (int i = 0; i < size; i++) {
+                semua.add(i);
+            }
+            return semua;
+        }
+
+        private boolean matchesText(int ordinal, String q) {
+            String text = teks[ordinal];
+            if (q.length() >= 3 || !isWord(q)) {
+                return text.contains(q);
+            }
+            // Query 1-2 huruf dicocokkan ke awal kata
+            for (int i = 0; i < text.length(); i++) {
+                if ((i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1))) && text.startsWith(q, i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matchesFilter(int i, Filter filter) {
+            return filter == null
+                    || (matches(filter.kdDepartemen(), departemen[i])
+                    && matches(filter.kdJabatan(), jabatan[i])
+                    && matches(filter.kdUnitKerja(), unitKerja[i])
+                    && matches(filter.kdPendidikan(), pendidikan[i]));
+        }
+
+        private boolean matches(Integer expected, int actual) {
+            return expected == null || expected == actual;
+        }
+
+        private void indexTrigrams(int ordinal, String text) {
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                char a = text.charAt(i);
+                char b = text.charAt(i + 1);
+                char c = text.charAt(i + 2);
+                if (a != SEPARATOR && b != SEPARATOR && c != SEPARATOR) {
+                    postings.computeIfAbsent(trigram(a, b, c), k -> new Postings()).add(ordinal);
+                }
+            }
+        }
+
+        private void indexPrefixes(int ordinal, String text) {
+            for (int i = 0; i < text.length(); i++) {
+                char a = text.charAt(i);
+                boolean awalKata = Character.isLetterOrDigit(a)
+                        && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)));
+                if (!awalKata) {
+                    continue;
+                }
+                postings.computeIfAbsent(prefix(a), k -> new Postings()).add(ordinal);
+                if (i + 1 < text.length() && Character.isLetterOrDigit(text.charAt(i + 1))) {
+                    postings.computeIfAbsent(prefix(a, text.charAt(i + 1)), k -> new Postings()).add(ordinal);
+                }
+            }
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            nama = Arrays.copyOf(nama, capacity);
+            nik = Arrays.copyOf(nik, capacity);
+            email = Arrays.copyOf(email, capacity);
+            teks = Arrays.copyOf(teks, capacity);
+            departemen = Arrays.copyOf(departemen, capacity);
+            jabatan = Arrays.copyOf(jabatan, capacity);
+            unitKerja = Arrays.copyOf(unitKerja, capacity);
+            pendidikan = Arrays.copyOf(pendidikan, capacity);
+            urutNama = Arrays.copyOf(urutNama, capacity);
+        }
+
+        private static long trigram(char a, char b, char c) {
+            return ((long) a << 32) | ((long) b << 16) | c;
+        }
+
+        // Kunci awalan diberi penanda di bit atas agar tidak bentrok dengan trigram
+        private static long prefix(char a) {
+            return (1L << 48) | a;
+        }
+
+        private static long prefix(char a, char b) {
+            return (2L << 48) | ((long) a << 16) | b;
+        }
+
+        private static boolean isWord(String q) {
+            return q.chars().allMatch(Character::isLetterOrDigit);
+        }
+
+        private static String normalize(String value) {
+            return value != null ? value.toLowerCase(Locale.ROOT) : "";
+        }
+
+        private static int kode(Integer value) {
+            return value != null ? value : 0;
+        }
+
+        private static Integer nullable(int value) {
+            return value != 0 ? value : null;
+        }
+    }
+
+    /**
+     * {@code limit} dokumen terbaik dari semua kandidat, dalam heap ordinal
+     * tanpa boxing. Peringkat: teks yang diawali query dulu, lalu nama
+     * (huruf kecil, awal {@code teks}), lalu ordinal agar urutan stabil.
+     */
+    private static final class TopN {
+        private final Segment segment;
+        private final String q;
+        // Heap terbalik: heap[0] kandidat terburuk dari top-N sementara
+        private final int[] heap;
+        private int size;
+
+        private TopN(Segment segment, String q, int limit) {
+            this.segment = segment;
+            this.q = q;
+            this.heap = new int[Math.min(limit, Math.max(16, segment.size))];
+        }
+
+        private void offer(int ordinal) {
+            if (size < heap.length) {
+                heap[size] = ordinal;
+                naik(size++);
+            } else if (banding(ordinal, heap[0]) < 0) {
+                heap[0] = ordinal;
+                turun(0);
+            }
+        }
+
+        private int[] sorted() {
+            Integer[] urut = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                urut[i] = heap[i];
+            }
+            Arrays.sort(urut, this::banding);
+            int[] hasil = new int[size];
+            for (int i = 0; i < size; i++) {
+                hasil[i] = urut[i];
+            }
+            return hasil;
+        }
+
+        private int banding(int a, int b) {
+            int kelas = Integer.compare(kelas(a), kelas(b));
+            if (kelas != 0) {
+                return kelas;
+            }
+            int nama = segment.teks[a].compareTo(segment.teks[b]);
+            return nama != 0 ? nama : Integer.compare(a, b);
+        }
+
+        private int kelas(int ordinal) {
+            return q.isEmpty() || segment.teks[ordinal].startsWith(q) ? 0 : 1;
+        }
+
+        private void naik(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (banding(heap[i], heap[parent]) <= 0) {
+                    return;
+                }
+                tukar(i, parent);
+                i = parent;
+            }
+        }
+
+        private void turun(int i) {
+            while (true) {
+                int terburuk = i;
+                int kiri = 2 * i + 1;
+                int kanan = kiri + 1;
+                if (kiri < size && banding(heap[kiri], heap[terburuk]) > 0) {
+                    terburuk = kiri;
+                }
+                if (kanan < size && banding(heap[kanan], heap[terburuk]) > 0) {
+                    terburuk = kanan;
+                }
+                if (terburuk == i) {
+                    return;
+                }
+                tukar(i, terburuk);
+                i = terburuk;
+            }
+        }
+
+        private void tukar(int a, int b) {
+            int tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+
+    /** Daftar ordinal (naik) tanpa boxing. */
+    private static final class Postings {
+        private int[] data = new int[4];
+        private int size;
+
+        private void add(int ordinal) {
+            if (size > 0 && data[size - 1] == ordinal) {
+                return;
+            }
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = ordinal;
+        }
+    }
+}
@@ -1,20 +1,22 @@
 package com.tegar.fullstack.backend.service;
 
 import com.tegar.fullstack.backend.dto.request.TambahPegawaiRequest;
+import com.tegar.fullstack.backend.dto.request.UbahPegawaiMassalRequest;
 import com.tegar.fullstack.backend.dto.request.UbahPegawaiRequest;
-import com.tegar.fullstack.backend.dto.response.ComboResponse;
-import com.tegar.fullstack.backend.dto.response.PegawaiResponse;
 import com.tegar.fullstack.backend.entity.*;
 import com.tegar.fullstack.backend.exception.BusinessException;
 import com.tegar.fullstack.backend.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -29,74 +31,18 @@ public class PegawaiService {
     private final PendidikanRepository pendidikanRepository;
     private final JenisKelaminRepository jenisKelaminRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PegawaiIdAllocator pegawaiIdAllocator;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final MasterDataRegistry masterDataRegistry;
+    private final PegawaiVersi pegawaiVersi;
+    private final PegawaiSearchIndex pegawaiSearchIndex;
+    private final EntityCacheService entityCacheService;
     
-    // ========== COMBO METHODS ==========
+    // Pembacaan (daftar, combo, sinkronisasi, pencarian) ada di PegawaiQueryService
     
-    public List<ComboResponse> getComboJabatan() {
-        return jabatanRepository.findAll().stream()
-                .map(j -> ComboResponse.builder()
-                        .kode(j.getId())
-                        .nama(j.getNama())
-                        .build())
-                .collect(Collectors.toList());
-    }
-    
-    public List<ComboResponse> getComboDepartemen() {
-        return departemenRepository.findAll().stream()
-                .map(d -> ComboResponse.builder()
-                        .kode(d.getId())
-                        .nama(d.getNama())
-                        .build())
-                .collect(Collectors.toList());
-    }
-    
-    public List<ComboResponse> getComboUnitKerja() {
-        return unitKerjaRepository.findAll().stream()
-                .map(u -> ComboResponse.builder()
-                        .kode(u.getId())
-                        .nama(u.getNama())
-                        .build())
-                .collect(Collectors.toList());
-    }
-    
-    public List<ComboResponse> getComboPendidikan() {
-        return pendidikanRepository.findAll().stream()
-                .map(p -> ComboResponse.builder()
-                        .kode(p.getId())
-                        .nama(p.getNama())
-                        .build())
-                .collect(Collectors.toList());
-    }
-    
-    public List<ComboResponse> getComboJenisKelamin() {
-        return jenisKelaminRepository.findAll().stream()
-                .map(jk -> ComboResponse.builder()
-                        .kode(jk.getId())
-                        .nama(jk.getNama())
-                        .build())
-                .collect(Collectors.toList());
-    }
-    
-    public List<Object[]> getComboDepartemenHrd() {
-        // Mendapatkan pegawai di departemen HRD
-        Departemen hrd = departemenRepository.findByNama("HRD")
-                .orElseThrow(() -> new BusinessException(501, "Departemen HRD tidak ditemukan"));
-        
-        return pegawaiRepository.findByDepartemen(hrd).stream()
-                .map(p -> new Object[]{
-                    p.getNamaLengkap(),
-                    p.getJabatan() != null ? p.getJabatan().getId() : null,
-                    p.getJabatan() != null ? p.getJabatan().getNama() : null
-                })
-                .collect(Collectors.toList());
-    }
-    
-    // ========== PEGAWAI CRUD ==========
-    
-    public List<PegawaiResponse> getAllPegawai() {
-        return pegawaiRepository.findAll().stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int rebuildIndeksPencarian() {
+        return pegawaiSearchIndex.rebuild();
     }
     
     public void tambahPegawai(TambahPegawaiRequest request) {
@@ -110,7 +56,7 @@ public class PegawaiService {
         }
         
         // Generate ID
-        String userId = "USR" + String.format("%03d", userRepository.count() + 1);
+        String userId = pegawaiIdAllocator.nextId();
         
         // Create User
         User user = User.builder()
@@ -122,23 +68,14 @@ public class PegawaiService {
                 .createdAtEpoch(Instant.now().getEpochSecond())
                 .build();
         
-        userRepository.save(user);
-        
-        // Get master data
-        Jabatan jabatan = jabatanRepository.findById(request.getKdJabatan())
-                .orElseThrow(() -> new BusinessException(501, "Jabatan tidak ditemukan"));
+        user = userRepository.save(user);
         
-        Departemen departemen = departemenRepository.findById(request.getKdDepartemen())
-                .orElseThrow(() -> new BusinessException(501, "Departemen tidak ditemukan"));
-        
-        UnitKerja unitKerja = unitKerjaRepository.findById(request.getKdUnitKerja())
-                .orElseThrow(() -> new BusinessException(501, "Unit kerja tidak ditemukan"));
-        
-        Pendidikan pendidikan = pendidikanRepository.findById(request.getKdPendidikan())
-                .orElseThrow(() -> new BusinessException(501, "Pendidikan tidak ditemukan"));
-        
-        JenisKelamin jenisKelamin = jenisKelaminRepository.findById(request.getKdJenisKelamin())
-                .orElseThrow(() -> new BusinessException(501, "Jenis kelamin tidak ditemukan"));
+        // Get master data (validasi dari cache, tanpa query)
+        Jabatan jabatan = getJabatan(request.getKdJabatan());
+        Departemen departemen = getDepartemen(request.getKdDepartemen());
+        UnitKerja unitKerja = getUnitKerja(request.getKdUnitKerja());
+        Pendidikan pendidikan = getPendidikan(request.getKdPendidikan());
+        JenisKelamin jenisKelamin = getJenisKelamin(request.getKdJenisKelamin());
         
         // Create Pegawai
         Pegawai pegawai = Pegawai.builder()
@@ -154,9 +91,12 @@ public class PegawaiService {
                 .pendidikan(pendidikan)
                 .jenisKelamin(jenisKelamin)
                 .createdAtEpoch(Instant.now().getEpochSecond())
+                .updatedAtEpoch(Instant.now().getEpochSecond())
                 .build();
         
         pegawaiRepository.save(pegawai);
+        pegawaiVersi.tandaiBerubah(List.of(userId));
+        pegawaiSearchIndex.refreshAfterCommit(List.of(userId));
     }
     
     public void ubahPegawai(String idUser, UbahPegawaiRequest request) {
@@ -181,8 +121,6 @@ public class PegawaiService {
             user.setPassword(passwordEncoder.encode(request.getPassword()));
         }
         
-        userRepository.save(user);
-        
         // Update pegawai
         pegawai.setNamaLengkap(request.getNamaLengkap());
         pegawai.setTempatLahir(request.getTempatLahir());
@@ -190,24 +128,128 @@ public class PegawaiService {
         pegawai.setNikUser(request.getNikUser());
         
         // Update master data
-        pegawai.setJabatan(jabatanRepository.findById(request.getKdJabatan())
-                .orElseThrow(() -> new BusinessException(501, "Jabatan tidak ditemukan")));
+        pegawai.setJabatan(getJabatan(request.getKdJabatan()));
+        pegawai.setDepartemen(getDepartemen(request.getKdDepartemen()));
+        pegawai.setUnitKerja(getUnitKerja(request.getKdUnitKerja()));
+        pegawai.setPendidikan(getPendidikan(request.getKdPendidikan()));
+        pegawai.setJenisKelamin(getJenisKelamin(request.getKdJenisKelamin()));
         
-        pegawai.setDepartemen(departemenRepository.findById(request.getKdDepartemen())
-                .orElseThrow(() -> new BusinessException(501, "Departemen tidak ditemukan")));
+        pegawai.setUpdatedAtEpoch(Instant.now().getEpochSecond());
+        
+        pegawaiRepository.save(pegawai);
+        pegawaiVersi.tandaiBerubah(List.of(idUser));
+        pegawaiSearchIndex.refreshAfterCommit(List.of(idUser));
+    }
+    
+    /**
+     * Mutasi massal: satu UPDATE berbasis himpunan untuk semua pegawai sasaran,
+     * tanpa memuat entity satu per satu.
+     *
+     * @return jumlah pegawai yang diubah
+     */
+    public int ubahPegawaiMassal(UbahPegawaiMassalRequest request) {
+        List<String> setClauses = new ArrayList<>();
+        List<String> whereClauses = new ArrayList<>();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        
+        // Nilai baru
+        if (request.getKdDepartemen() != null) {
+            if (!masterDataRegistry.exists(MasterDataRegistry.Jenis.DEPARTEMEN, request.getKdDepartemen())) {
+                throw new BusinessException(501, "Departemen tidak ditemukan");
+            }
+            setClauses.add("kd_departemen = :kdDepartemen");
+            params.addValue("kdDepartemen", request.getKdDepartemen());
+        }
+        
+        if (request.getKdJabatan() != null) {
+            if (!masterDataRegistry.exists(MasterDataRegistry.Jenis.JABATAN, request.getKdJabatan())) {
+                throw new BusinessException(501, "Jabatan tidak ditemukan");
+            }
+            setClauses.add("kd_jabatan = :kdJabatan");
+            params.addValue("kdJabatan", request.getKdJabatan());
+        }
         
-        pegawai.setUnitKerja(unitKerjaRepository.findById(request.getKdUnitKerja())
-                .orElseThrow(() -> new BusinessException(501, "Unit kerja tidak ditemukan")));
+        if (request.getKdUnitKerja() != null) {
+            if (!masterDataRegistry.exists(MasterDataRegistry.Jenis.UNIT_KERJA, request.getKdUnitKerja())) {
+                throw new BusinessException(501, "Unit kerja tidak ditemukan");
+            }
+            setClauses.add("kd_unit_kerja = :kdUnitKerja");
+            params.addValue("kdUnitKerja", request.getKdUnitKerja());
+        }
         
-        pegawai.setPendidikan(pendidikanRepository.findById(request.getKdPendidikan())
-                .orElseThrow(() -> new BusinessException(501, "Pendidikan tidak ditemukan")));
+        if (setClauses.isEmpty()) {
+            throw new BusinessException(501, "Tidak ada data yang diubah");
+        }
         
-        pegawai.setJenisKelamin(jenisKelaminRepository.findById(request.getKdJenisKelamin())
-                .orElseThrow(() -> new BusinessException(501, "Jenis kelamin tidak ditemukan")));
+        setClauses.add("updated_at_epoch = :updatedAtEpoch");
+        params.addValue("updatedAtEpoch", Instant.now().getEpochSecond());
         
+        // Sasaran
+        if (request.getIdUsers() != null && !request.getIdUsers().isEmpty()) {
+            whereClauses.add("id_user IN (:idUsers)");
+            params.addValue("idUsers", request.getIdUsers());
+        }
+        
+        UbahPegawaiMassalRequest.Filter filter = request.getFilter();
+        if (filter != null) {
+            if (filter.getKdDepartemen() != null) {
+                whereClauses.add("kd_departemen = :filterKdDepartemen");
+                params.addValue("filterKdDepartemen", filter.getKdDepartemen());
+            }
+            if (filter.getKdJabatan() != null) {
+                whereClauses.add("kd_jabatan = :filterKdJabatan");
+                params.addValue("filterKdJabatan", filter.getKdJabatan());
+            }
+            if (filter.getKdUnitKerja() != null) {
+                whereClauses.add("kd_unit_kerja = :filterKdUnitKerja");
+                params.addValue("filterKdUnitKerja", filter.getKdUnitKerja());
+            }
+        }
+        
+        // Jangan sampai seluruh tabel ikut berubah karena sasaran kosong
+        if (whereClauses.isEmpty()) {
+            throw new BusinessException(501, "Pegawai sasaran harus diisi");
+        }
+        
+        String where = " WHERE " + String.join(" AND ", whereClauses);
+        
+        // ID sasaran dikunci (FOR UPDATE) lalu hanya baris itu yang di-UPDATE, jadi
+        // yang dibuang dari cache dan index persis baris yang berubah; baris yang
+        // baru cocok dengan filter setelah SELECT tidak ikut berubah
+        List<String> idUsers = namedParameterJdbcTemplate.queryForList(
+                "SELECT id_user FROM pegawai" + where + " FOR UPDATE", params, String.class);
+        if (idUsers.isEmpty()) {
+            return 0;
+        }
+        params.addValue("sasaran", idUsers);
+        
+        int jumlah = namedParameterJdbcTemplate.update(
+                "UPDATE pegawai SET " + String.join(", ", setClauses) + " WHERE id_user IN (:sasaran)", params);
+        if (jumlah > 0) {
+            pegawaiVersi.tandaiBerubah(idUsers);
+            entityCacheService.evictAfterCommit(Pegawai.class, idUsers);
+            pegawaiSearchIndex.refreshAfterCommit(idUsers);
+        }
+        return jumlah;
+    }
+    
+    /**
+     * Nonaktifkan pegawai (soft delete). Baris tetap ada agar delta-sync bisa
+     * mengirim tombstone; login ditolak oleh CustomUserDetailsService.
+     */
+    public void nonaktifkanPegawai(String idUser) {
+        Pegawai pegawai = pegawaiRepository.findById(idUser)
+                .orElseThrow(() -> new BusinessException(501, "Pegawai tidak ditemukan"));
+        
+        if (!Boolean.TRUE.equals(pegawai.getUser().getActive())) {
+            throw new BusinessException(501, "Pegawai sudah nonaktif");
+        }
+        
+        pegawai.getUser().setActive(false);
         pegawai.setUpdatedAtEpoch(Instant.now().getEpochSecond());
         
-        pegawaiRepository.save(pegawai);
+        pegawaiVersi.tandaiBerubah(List.of(idUser));
+        pegawaiSearchIndex.refreshAfterCommit(List.of(idUser));
     }
     
     public void ubahPhotoPegawai(String idUser, String fileName) {
@@ -218,6 +260,7 @@ public class PegawaiService {
         pegawai.setUpdatedAtEpoch(Instant.now().getEpochSecond());
         
         pegawaiRepository.save(pegawai);
+        pegawaiVersi.tandaiBerubah(List.of(idUser));
     }
     
     public void ubahPhotoSendiri(String currentUserId, String fileName) {
@@ -228,30 +271,46 @@ public class PegawaiService {
         pegawai.setUpdatedAtEpoch(Instant.now().getEpochSecond());
         
         pegawaiRepository.save(pegawai);
+        pegawaiVersi.tandaiBerubah(List.of(currentUserId));
     }
     
-    private PegawaiResponse convertToResponse(Pegawai pegawai) {
-        User user = pegawai.getUser();
-        
-        return PegawaiResponse.builder()
-                .profile(user.getProfile())
-                .idUser(user.getId())
-                .namaLengkap(pegawai.getNamaLengkap())
-                .tempatLahir(pegawai.getTempatLahir())
-                .tanggalLahir(pegawai.getTanggalLahir())
-                .email(user.getEmail())
-                .nikUser(pegawai.getNikUser())
-                .kdJabatan(pegawai.getJabatan() != null ? pegawai.getJabatan().getId() : null)
-                .namaJabatan(pegawai.getJabatan() != null ? pegawai.getJabatan().getNama() : null)
-                .kdDepartemen(pegawai.getDepartemen() != null ? pegawai.getDepartemen().getId() : null)
-                .namaDepartemen(pegawai.getDepartemen() != null ? pegawai.getDepartemen().getNama() : null)
-                .kdUnitKerja(pegawai.getUnitKerja() != null ? pegawai.getUnitKerja().getId() : null)
-                .namaUnitKerja(pegawai.getUnitKerja() != null ? pegawai.getUnitKerja().getNama() : null)
-                .kdJenisKelamin(pegawai.getJenisKelamin() != null ? pegawai.getJenisKelamin().getId() : null)
-                .namaJenisKelamin(pegawai.getJenisKelamin() != null ? pegawai.getJenisKelamin().getNama() : null)
-                .kdPendidikan(pegawai.getPendidikan() != null ? pegawai.getPendidikan().getId() : null)
-                .namaPendidikan(pegawai.getPendidikan() != null ? pegawai.getPendidikan().getNama() : null)
-                .photo(pegawai.getPhoto())
-                .build();
+    // ========== MASTER DATA ==========
+    
+    // Kode divalidasi dari MasterDataRegistry; entity cukup berupa referensi
+    // (proxy) karena yang disimpan hanya foreign key-nya
+    
+    private Jabatan getJabatan(Integer kdJabatan) {
+        if (!masterDataRegistry.exists(MasterDataRegistry.Jenis.JABATAN, kdJabatan)) {
+            throw new BusinessException(501, "Jabatan tidak ditemukan");
+        }
+        return jabatanRepository.getReferenceById(kdJabatan);
+    }
+    
+    private Departemen getDepartemen(Integer kdDepartemen) {
+        if (!masterDataRegistry.exists(MasterDataRegistry.Jenis.DEPARTEMEN, kdDepartemen)) {
+            throw new BusinessException(501, "Departemen tidak ditemukan");
+        }
+        return departemenRepository.getReferenceById(kdDepartemen);
+    }
+    
+    private UnitKerja getUnitKerja(Integer kdUnitKerja) {
+        if (!masterDataRegistry.exists(MasterDataRegistry.Jenis.UNIT_KERJA, kdUnitKerja)) {
+            throw new BusinessException(501, "Unit kerja tidak ditemukan");
+        }
+        return unitKerjaRepository.getReferenceById(kdUnitKerja);
+    }
+    
+    private Pendidikan getPendidikan(Integer kdPendidikan) {
+        if (!masterDataRegistry.exists(MasterDataRegistry.Jenis.PENDIDIKAN, kdPendidikan)) {
+            throw new BusinessException(501, "Pendidikan tidak ditemukan");
+        }
+        return pendidikanRepository.getReferenceById(kdPendidikan);
+    }
+    
+    private JenisKelamin getJenisKelamin(Integer kdJenisKelamin) {
+        if (!masterDataRegistry.exists(MasterDataRegistry.Jenis.JENIS_KELAMIN, kdJenisKelamin)) {
+            throw new BusinessException(501, "Jenis kelamin tidak ditemukan");
+        }
+        return jenisKelaminRepository.getReferenceById(kdJenisKelamin);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.entity.DataVersion;
+import com.tegar.fullstack.backend.repository.DataVersionRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Versi data pegawai untuk ETag daftar dan cursor delta-sync.
+ * <p>
+ * Setiap transaksi yang mengubah pegawai menaikkan versi lalu mencap baris
+ * yang diubahnya dengan versi baru itu ({@code versi_perubahan}). UPDATE ke
+ * baris {@code data_version} mengunci baris tersebut sampai commit, sehingga
+ * transaksi berikutnya baru mendapat versi setelah transaksi ini selesai:
+ * versi yang belum commit selalu lebih besar dari semua versi yang sudah
+ * terlihat, dan cursor klien tidak pernah melewati baris yang commit
+ * belakangan. Panggil di akhir transaksi agar kunci ditahan sesingkat mungkin.
+ */
+@Service
+@RequiredArgsConstructor
+public class PegawaiVersi {
+
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    private static final String CAP =
+            "UPDATE pegawai SET versi_perubahan = "
+                    + "(SELECT versi FROM data_version WHERE nama = :nama) "
+                    + "WHERE id_user IN (:idUsers)";
+
+    private final DataVersionRepository dataVersionRepository;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final EntityManager entityManager;
+
+    /**
+     * Naikkan versi dan cap pegawai yang berubah di transaksi berjalan.
+     */
+    public void tandaiBerubah(Collection<String> idUsers) {
+        // Insert/update entity yang masih tertunda harus sudah ada di tabel sebelum dicap
+        entityManager.flush();
+        dataVersionRepository.increment(DataVersion.PEGAWAI);
+
+        List<String> ids = new ArrayList<>(idUsers);
+        for (int i = 0; i < ids.size(); i += IN_CHUNK_SIZE) {
+            namedParameterJdbcTemplate.update(CAP, new MapSqlParameterSource()
+                    .addValue("nama", DataVersion.PEGAWAI)
+                    .addValue("idUsers", ids.subList(i, Math.min(i + IN_CHUNK_SIZE, ids.size()))));
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.config.TenantContext;
+import com.tegar.fullstack.backend.config.TenantProperties;
+import com.tegar.fullstack.backend.exception.BusinessException;
+import com.tegar.fullstack.backend.repository.PegawaiRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Penyimpanan foto pegawai berbasis hash isi (content-addressed).
+ * <p>
+ * Upload di-stream ke file sementara sambil dihitung SHA-256-nya, lalu
+ * dipindahkan ke {@code <root>/ab/cd/<sha256>.<ext>}. Foto yang isinya sama
+ * hanya disimpan sekali. Nilai {@code pegawai.photo} adalah path relatif
+ * tersebut, sehingga URL {@code ./uploads/<photo>} di frontend tetap berlaku.
+ * <p>
+ * File yang tidak lagi direferensikan {@code pegawai.photo} dihapus oleh
+ * {@link #sapu()} setelah melewati masa tenggang, memberi waktu transaksi
+ * yang baru menyimpan foto untuk commit. Thumbnail ({@code <nama>_<ukuran>.jpg},
+ * lihat {@link ThumbnailService}) ikut tersimpan selama aslinya direferensikan.
+ */
+@Slf4j
+@Service
+public class PhotoStorageService {
+
+    private static final Set<String> EXTENSIONS = Set.of(".jpg", ".jpeg", ".png", ".gif");
+    private static final String TMP_DIR = ".tmp";
+    private static final Pattern VARIANT = Pattern.compile("^(.*)_\\d+\\.jpg$");
+
+    private final PegawaiRepository pegawaiRepository;
+    private final TenantProperties tenantProperties;
+    private final Path root;
+    private final Duration grace;
+    private final MeterRegistry meterRegistry;
+
+    public PhotoStorageService(
+            PegawaiRepository pegawaiRepository,
+            TenantProperties tenantProperties,
+            MeterRegistry meterRegistry,
+            @Value("${app.upload.dir:./uploads}") String dir,
+            @Value("${app.upload.sweep-grace-minutes:60}") long graceMinutes) {
+        this.pegawaiRepository = pegawaiRepository;
+        this.tenantProperties = tenantProperties;
+        this.root = Paths.get(dir).toAbsolutePath().normalize();
+        this.grace = Duration.ofMinutes(graceMinutes);
+        this.meterRegistry = meterRegistry;
+        try {
+            // Health diskSpace memeriksa direktori ini, jadi harus sudah ada
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            log.warn("Direktori upload {} tidak bisa dibuat: {}", root, e.getMessage());
+        }
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Path absolut untuk nilai {@code pegawai.photo}, atau {@code null} jika
+     * path keluar dari direktori upload atau menunjuk ke file sementara.
+     */
+    public Path resolve(String relative) {
+        if (relative == null || relative.isBlank()) {
+            return null;
+        }
+        Path path = root.resolve(relative).normalize();
+        if (!path.startsWith(root) || path.equals(root) || path.startsWith(root.resolve(TMP_DIR))) {
+            return null;
+        }
+        return path;
+    }
+
+    /**
+     * Path relatif thumbnail berukuran {@code size} untuk sebuah foto.
+     */
+    public String variant(String relative, int size) {
+        return stem(relative) + "_" + size + ".jpg";
+    }
+
+    /**
+     * Apakah path tersebut thumbnail ({@code <nama>_<ukuran>.jpg}), bukan foto asli.
+     */
+    public boolean isVariant(String relative) {
+        return VARIANT.matcher(relative).matches();
+    }
+
+    /**
+     * Direktori untuk file sementara (upload dan thumbnail yang sedang ditulis).
+     */
+    public Path tmpDir() throws IOException {
+        return Files.createDirectories(root.resolve(TMP_DIR));
+    }
+
+    /**
+     * Simpan foto dan kembalikan path relatifnya (untuk {@code pegawai.photo}).
+     */
+    public String simpan(MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new BusinessException(501, "File tidak boleh kosong");
+        }
+
+        String extension = extension(file.getOriginalFilename());
+
+        Path temp = Files.createTempFile(tmpDir(), "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long bytes;
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                bytes = in.transferTo(out);
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String relative = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + extension;
+            Path target = root.resolve(relative);
+
+            boolean duplikat = Files.exists(target);
+            uploadBytes(duplikat).record(bytes);
+            if (duplikat) {
+                // Duplikat: perbarui waktu ubah agar tidak tersapu sebelum commit
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                log.debug("Foto {} sudah ada, dipakai ulang", relative);
+            } else {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Upload yang sama selesai lebih dulu di request lain
+                    log.debug("Foto {} disimpan bersamaan oleh request lain", relative);
+                }
+            }
+            return relative;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private DistributionSummary uploadBytes(boolean duplikat) {
+        return DistributionSummary.builder("upload.foto.bytes")
+                .description("Ukuran foto yang di-upload; duplikat tidak menambah isi penyimpanan")
+                .baseUnit("bytes")
+                .tag("duplikat", String.valueOf(duplikat))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hapus file foto yang tidak direferensikan oleh pegawai mana pun dan
+     * sudah lebih tua dari masa tenggang. Termasuk file lama di root yang
+     * disimpan dengan nama UUID sebelum penyimpanan berbasis hash.
+     */
+    @Scheduled(initialDelayString = "${app.upload.sweep-interval-ms:3600000}",
+            fixedDelayString = "${app.upload.sweep-interval-ms:3600000}")
+    public int sapu() {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+
+        // Dibandingkan tanpa ekstensi agar thumbnail ikut dianggap terpakai.
+        // File berbasis hash dipakai bersama semua tenant, jadi referensi
+        // dikumpulkan dari database setiap tenant.
+        Set<String> referenced = tenantProperties.getTenantIds().stream()
+                .flatMap(tenant -> TenantContext.call(tenant, pegawaiRepository::findAllPhotos).stream())
+                .map(PhotoStorageService::stem)
+                .collect(Collectors.toSet());
+        Instant cutoff = Instant.now().minus(grace);
+        int deleted = 0;
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile).toList();
+        } catch (IOException e) {
+            log.warn("Gagal membaca direktori foto {}", root, e);
+            return 0;
+        }
+
+        for (Path file : files) {
+            String relative = root.relativize(file).toString().replace('\\', '/');
+            Matcher variant = VARIANT.matcher(relative);
+            String owner = variant.matches() ? variant.group(1) : stem(relative);
+            if (referenced.contains(owner)) {
+                continue;
+            }
+            try {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff) && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            } catch (IOException e) {
+                log.warn("Gagal menghapus foto {}", relative, e);
+            }
+        }
+
+        if (deleted > 0) {
+            log.info("Sweeper foto menghapus {} file tidak terpakai", deleted);
+        }
+        return deleted;
+    }
+
+    private static String stem(String relative) {
+        int dot = relative.lastIndexOf('.');
+        return dot > relative.lastIndexOf('/') ? relative.substring(0, dot) : relative;
+    }
+
+    private String extension(String originalFilename) {
+        int dot = originalFilename != null ? originalFilename.lastIndexOf('.') : -1;
+        String extension = dot >= 0 ? originalFilename.substring(dot).toLowerCase(Locale.ROOT) : "";
+        if (!EXTENSIONS.contains(extension)) {
+            throw new BusinessException(501, "Format file tidak didukung");
+        }
+        return extension;
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
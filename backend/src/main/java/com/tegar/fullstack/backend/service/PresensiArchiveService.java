@@ -0,0 +1,166 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.config.TenantContext;
+import com.tegar.fullstack.backend.config.TenantProperties;
+import com.tegar.fullstack.backend.entity.Pegawai;
+import com.tegar.fullstack.backend.entity.Presensi;
+import com.tegar.fullstack.backend.entity.StatusAbsen;
+import com.tegar.fullstack.backend.repository.PresensiArchive;
+import com.tegar.fullstack.backend.repository.PresensiPartitions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pengarsipan presensi lama (cold data).
+ * <p>
+ * Partisi bulanan yang lebih tua dari {@code horizon-months} dikunci lebih
+ * dulu ({@link PresensiPartitions#kunci}) agar tidak ada baris yang ditulis
+ * setelah snapshot diambil, lalu ditulis ke file kolumnar
+ * ({@link PresensiArchive}), diverifikasi jumlah barisnya, lalu
+ * dihapus dari tabel live per batch (satu transaksi per batch agar lock dan
+ * undo log tetap kecil) sebelum tabel partisinya di-drop. Sejak file arsip
+ * ada, pembacaan bulan tersebut dilayani dari arsip.
+ * <p>
+ * Job terjadwal berjalan di setiap node; satu bulan hanya dikerjakan node
+ * yang memegang lease {@link JobLock} bulan tersebut. Node lain melewatinya,
+ * dan node yang mendapat lease setelah partisinya di-drop tidak mengerjakan
+ * apa-apa lagi.
+ */
+@Slf4j
+@Service
+public class PresensiArchiveService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PresensiPartitions partitions;
+    private final PresensiArchive archive;
+    private final JobLock jobLock;
+    private final TenantProperties tenantProperties;
+    private final TransactionTemplate requiresNew;
+    private final int horizonMonths;
+    private final int batchSize;
+    private final long lockMs;
+
+    public PresensiArchiveService(
+            JdbcTemplate jdbcTemplate,
+            PresensiPartitions partitions,
+            PresensiArchive archive,
+            JobLock jobLock,
+            TenantProperties tenantProperties,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.presensi.archive.horizon-months:6}") int horizonMonths,
+            @Value("${app.presensi.archive.batch-size:1000}") int batchSize,
+            @Value("${app.presensi.archive.lock-ms:3600000}") long lockMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitions = partitions;
+        this.archive = archive;
+        this.jobLock = jobLock;
+        this.tenantProperties = tenantProperties;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.horizonMonths = horizonMonths;
+        this.batchSize = Math.max(1, batchSize);
+        this.lockMs = lockMs;
+    }
+
+    /**
+     * Arsipkan semua partisi yang sudah melewati horizon, untuk setiap tenant.
+     */
+    @Scheduled(cron = "${app.presensi.archive.cron:0 30 1 * * *}")
+    public void arsipkan() {
+        YearMonth batas = YearMonth.now(partitions.getZone()).minusMonths(horizonMonths);
+        for (String tenant : tenantProperties.getTenantIds()) {
+            TenantContext.run(tenant, () -> {
+                for (YearMonth bulan : new ArrayList<>(partitions.getPartisi().headSet(batas, false))) {
+                    try {
+                        arsipkanBulan(bulan);
+                    } catch (RuntimeException e) {
+                        // Bulan lain tetap dicoba; bulan ini diulang pada jadwal berikutnya
+                        log.error("Gagal mengarsipkan presensi {} tenant {}", bulan, tenant, e);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Arsipkan satu bulan. Aman diulang: jika file arsip sudah ada (mis.
+     * proses sebelumnya berhenti di tengah penghapusan), langsung lanjut
+     * menghapus sisa baris live. Dilewati jika bulan ini sedang dikerjakan
+     * node lain.
+     */
+    public void arsipkanBulan(YearMonth bulan) {
+        String lease = "presensi-arsip-" + PresensiPartitions.tableName(bulan);
+        if (!jobLock.ambil(lease, lockMs)) {
+            log.info("Presensi {} sedang diarsipkan node lain, dilewati", bulan);
+            return;
+        }
+        try {
+            if (partitions.ada(bulan)) {
+                arsipkanPartisi(bulan);
+            }
+        } finally {
+            jobLock.lepas(lease);
+        }
+    }
+
+    private void arsipkanPartisi(YearMonth bulan) {
+        String table = PresensiPartitions.tableName(bulan);
+
+        // Snapshot hanya diambil setelah partisi tidak bisa ditulis lagi
+        partitions.kunci(bulan);
+
+        if (!archive.isArchived(bulan)) {
+            List<Presensi> rows = readPartition(table);
+            try {
+                archive.write(bulan, rows);
+                if (archive.count(bulan) != rows.size()) {
+                    archive.delete(bulan);
+                    throw new IllegalStateException("Jumlah baris arsip " + table + " tidak sesuai");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Gagal menulis arsip " + table, e);
+            }
+        }
+
+        int deleted = 0;
+        int batch;
+        do {
+            batch = requiresNew.execute(status -> jdbcTemplate.update(
+                    "DELETE FROM " + table + " WHERE id IN (SELECT id FROM " + table + " ORDER BY id LIMIT ?)",
+                    batchSize));
+            deleted += batch;
+        } while (batch > 0);
+
+        partitions.drop(bulan);
+        log.info("Presensi {} diarsipkan: {} baris dihapus dari tabel live", bulan, deleted);
+    }
+
+    private List<Presensi> readPartition(String table) {
+        // Tanpa JOIN: arsip menyimpan semua baris apa adanya
+        return jdbcTemplate.query("SELECT id, id_user, tgl_absensi, jam_masuk, jam_keluar, kd_status, "
+                        + "created_at_epoch FROM " + table,
+                (rs, rowNum) -> Presensi.builder()
+                        .id(rs.getLong("id"))
+                        .pegawai(Pegawai.builder().id(rs.getString("id_user")).build())
+                        .tglAbsensi(rs.getLong("tgl_absensi"))
+                        .jamMasuk(rs.getString("jam_masuk"))
+                        .jamKeluar(rs.getString("jam_keluar"))
+                        .statusAbsen(rs.getObject("kd_status") != null
+                                ? StatusAbsen.builder().id(rs.getInt("kd_status")).build()
+                                : null)
+                        .createdAtEpoch(rs.getObject("created_at_epoch", Long.class))
+                        .build());
+    }
+}
@@ -0,0 +1,56 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.dto.response.PresensiResponse;
+import com.tegar.fullstack.backend.entity.Pegawai;
+import com.tegar.fullstack.backend.entity.Presensi;
+import com.tegar.fullstack.backend.exception.BusinessException;
+import com.tegar.fullstack.backend.repository.PegawaiRepository;
+import com.tegar.fullstack.backend.repository.PresensiRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Sisi baca presensi untuk daftar dan laporan. Baris presensi dibaca lewat
+ * JDBC dari partisi/arsip; pegawai cukup dicek keberadaannya, tanpa memuat
+ * entity. Check-in, check-out, dan absen tetap di {@link PresensiService}.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class PresensiQueryService {
+    
+    private final PresensiRepository presensiRepository;
+    private final PegawaiRepository pegawaiRepository;
+    
+    public List<PresensiResponse> getDaftarPresensiAdmin(Long tglAwal, Long tglAkhir) {
+        return presensiRepository.findByTglAbsensiBetween(tglAwal, tglAkhir).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+    
+    public List<PresensiResponse> getDaftarPresensiPegawai(String userId, Long tglAwal, Long tglAkhir) {
+        if (!pegawaiRepository.existsById(userId)) {
+            throw new BusinessException(501, "Pegawai tidak ditemukan");
+        }
+        
+        return presensiRepository.findByPegawaiAndTglAbsensiBetween(Pegawai.builder().id(userId).build(), tglAwal, tglAkhir)
+                .stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+    
+    private PresensiResponse convertToResponse(Presensi presensi) {
+        return PresensiResponse.builder()
+                .idUser(presensi.getPegawai().getId())
+                .namaLengkap(presensi.getPegawai().getNamaLengkap())
+                .tglAbsensi(presensi.getTglAbsensi())
+                .jamMasuk(presensi.getJamMasuk())
+                .jamKeluar(presensi.getJamKeluar())
+                .namaStatus(presensi.getStatusAbsen() != null ? presensi.getStatusAbsen().getNama() : null)
+                .build();
+    }
+}
@@ -1,7 +1,5 @@
 package com.tegar.fullstack.backend.service;
 
-import com.tegar.fullstack.backend.dto.response.ComboResponse;
-import com.tegar.fullstack.backend.dto.response.PresensiResponse;
 import com.tegar.fullstack.backend.entity.*;
 import com.tegar.fullstack.backend.exception.BusinessException;
 import com.tegar.fullstack.backend.repository.*;
@@ -13,8 +11,6 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,31 +20,10 @@ public class PresensiService {
     private final PresensiRepository presensiRepository;
     private final PegawaiRepository pegawaiRepository;
     private final StatusAbsenRepository statusAbsenRepository;
+    private final MasterDataRegistry masterDataRegistry;
     private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
     
-    public List<ComboResponse> getComboStatusAbsen(Long tglAwal, Long tglAkhir) {
-        return statusAbsenRepository.findAll().stream()
-                .map(s -> ComboResponse.builder()
-                        .kode(s.getId())
-                        .nama(s.getNama())
-                        .build())
-                .collect(Collectors.toList());
-    }
-    
-    public List<PresensiResponse> getDaftarPresensiAdmin(Long tglAwal, Long tglAkhir) {
-        return presensiRepository.findByTglAbsensiBetween(tglAwal, tglAkhir).stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-    }
-    
-    public List<PresensiResponse> getDaftarPresensiPegawai(String userId, Long tglAwal, Long tglAkhir) {
-        Pegawai pegawai = pegawaiRepository.findById(userId)
-                .orElseThrow(() -> new BusinessException(501, "Pegawai tidak ditemukan"));
-        
-        return presensiRepository.findByPegawaiAndTglAbsensiBetween(pegawai, tglAwal, tglAkhir).stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-    }
+    // Daftar presensi (admin dan pegawai) ada di PresensiQueryService
     
     public String checkIn(String userId) {
         Pegawai pegawai = pegawaiRepository.findById(userId)
@@ -108,8 +83,10 @@ public class PresensiService {
         Pegawai pegawai = pegawaiRepository.findById(userId)
                 .orElseThrow(() -> new BusinessException(501, "Pegawai tidak ditemukan"));
         
-        StatusAbsen status = statusAbsenRepository.findById(kdStatus)
-                .orElseThrow(() -> new BusinessException(501, "Status absen tidak ditemukan"));
+        if (!masterDataRegistry.exists(MasterDataRegistry.Jenis.STATUS_ABSEN, kdStatus)) {
+            throw new BusinessException(501, "Status absen tidak ditemukan");
+        }
+        StatusAbsen status = statusAbsenRepository.getReferenceById(kdStatus);
         
         // Cek apakah sudah ada presensi di tanggal tersebut
         Presensi existing = presensiRepository.findByPegawaiAndTglAbsensi(pegawai, tglAbsensi);
@@ -136,15 +113,4 @@ public class PresensiService {
     private String getCurrentTime() {
         return LocalDateTime.now().format(timeFormatter);
     }
-    
-    private PresensiResponse convertToResponse(Presensi presensi) {
-        return PresensiResponse.builder()
-                .idUser(presensi.getPegawai().getId())
-                .namaLengkap(presensi.getPegawai().getNamaLengkap())
-                .tglAbsensi(presensi.getTglAbsensi())
-                .jamMasuk(presensi.getJamMasuk())
-                .jamKeluar(presensi.getJamKeluar())
-                .namaStatus(presensi.getStatusAbsen() != null ? presensi.getStatusAbsen().getNama() : null)
-                .build();
-    }
 }
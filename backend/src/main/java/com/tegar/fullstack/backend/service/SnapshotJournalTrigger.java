@@ -0,0 +1,123 @@
+package com.tegar.fullstack.backend.service;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Trigger H2 yang mencatat setiap perubahan baris ke tabel
+ * {@value SnapshotService#JOURNAL_TABLE} sebagai statement SQL idempoten
+ * (MERGE dengan gambar baris lengkap, atau DELETE per primary key).
+ * <p>
+ * Baris jurnal ditulis di transaksi yang sama dengan perubahannya, jadi ikut
+ * di-rollback bersamanya; hanya perubahan yang commit yang sampai ke file
+ * jurnal. Dibuat oleh H2 lewat nama kelas, sehingga harus public dengan
+ * konstruktor tanpa argumen.
+ */
+public class SnapshotJournalTrigger implements Trigger {
+
+    /** Dimatikan selama restore agar replay tidak tercatat ulang. */
+    static volatile boolean paused;
+
+    private String table;
+    private List<String> columns;
+    private int[] keys;
+
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName,
+                     boolean before, int type) throws SQLException {
+        this.table = quote(tableName);
+        this.columns = new ArrayList<>();
+        List<String> raw = new ArrayList<>();
+        DatabaseMetaData metaData = conn.getMetaData();
+        String escape = metaData.getSearchStringEscape();
+        String pattern = tableName.replace("_", escape + "_").replace("%", escape + "%");
+        try (ResultSet rs = metaData.getColumns(null, schemaName, pattern, null)) {
+            while (rs.next()) {
+                raw.add(rs.getString("COLUMN_NAME"));
+                columns.add(quote(rs.getString("COLUMN_NAME")));
+            }
+        }
+        List<Integer> pk = new ArrayList<>();
+        try (ResultSet rs = metaData.getPrimaryKeys(null, schemaName, tableName)) {
+            while (rs.next()) {
+                pk.add(raw.indexOf(rs.getString("COLUMN_NAME")));
+            }
+        }
+        if (pk.isEmpty()) {
+            throw new SQLException("Tabel " + tableName + " tidak punya primary key, tidak bisa dijurnal");
+        }
+        this.keys = pk.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        if (paused) {
+            return;
+        }
+        if (oldRow != null && (newRow == null || !sameKey(oldRow, newRow))) {
+            append(conn, delete(oldRow));
+        }
+        if (newRow != null) {
+            append(conn, merge(newRow));
+        }
+    }
+
+    private String merge(Object[] row) {
+        StringBuilder sql = new StringBuilder("MERGE INTO ").append(table)
+                .append(" (").append(String.join(", ", columns)).append(") KEY (");
+        for (int i = 0; i < keys.length; i++) {
+            sql.append(i > 0 ? ", " : "").append(columns.get(keys[i]));
+        }
+        sql.append(") VALUES (");
+        for (int i = 0; i < row.length; i++) {
+            sql.append(i > 0 ? ", " : "").append(literal(row[i]));
+        }
+        return sql.append(')').toString();
+    }
+
+    private String delete(Object[] row) {
+        StringBuilder sql = new StringBuilder("DELETE FROM ").append(table).append(" WHERE ");
+        for (int i = 0; i < keys.length; i++) {
+            sql.append(i > 0 ? " AND " : "").append(columns.get(keys[i])).append(" = ").append(literal(row[keys[i]]));
+        }
+        return sql.toString();
+    }
+
+    private boolean sameKey(Object[] oldRow, Object[] newRow) {
+        for (int key : keys) {
+            if (!String.valueOf(oldRow[key]).equals(String.valueOf(newRow[key]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void append(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(
+                "INSERT INTO " + SnapshotService.JOURNAL_TABLE + " (sql_text) VALUES (?)")) {
+            statement.setString(1, sql);
+            statement.executeUpdate();
+        }
+    }
+
+    static String literal(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        return "'" + value.toString().replace("'", "''") + "'";
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+}
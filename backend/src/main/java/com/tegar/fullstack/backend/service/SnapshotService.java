@@ -0,0 +1,416 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.config.TenantContext;
+import com.tegar.fullstack.backend.repository.PresensiPartitions;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Persistensi untuk mode H2 in-memory: snapshot berkala ke disk plus jurnal
+ * perubahan append-only di antara snapshot.
+ * <p>
+ * Setiap generasi terdiri dari {@code snapshot-<n>.sql.gz} (hasil
+ * {@code SCRIPT ... COMPRESSION GZIP}) dan {@code journal-<n>.log}. Perubahan
+ * baris dicatat trigger ({@link SnapshotJournalTrigger}) ke tabel jurnal di
+ * transaksi yang sama, lalu {@link #flush()} memindahkannya ke file jurnal
+ * dan fsync. Saat start, snapshot terakhir dimuat dengan RUNSCRIPT dan
+ * jurnalnya di-replay sebelum Flyway berjalan (lihat {@code SnapshotConfig}).
+ * <p>
+ * Statement jurnal idempoten (MERGE gambar baris / DELETE per key), jadi
+ * perubahan yang commit selama SCRIPT berjalan cukup di-replay ulang di atas
+ * snapshot; flush dan snapshot tidak pernah berjalan bersamaan.
+ * <p>
+ * Diaktifkan lewat {@code app.snapshot.enabled}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.snapshot.enabled", havingValue = "true")
+public class SnapshotService {
+
+    static final String JOURNAL_TABLE = "snapshot_journal";
+
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("^snapshot-(\\d+)\\.sql\\.gz$");
+    private static final Pattern GENERATION_FILE = Pattern.compile("^(?:snapshot|journal)-(\\d+)\\..*$");
+    private static final int REPLAY_BATCH = 1000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final Path dir;
+
+    private final Object lock = new Object();
+    private final Map<String, Long> sequences = new HashMap<>();
+    private long generation;
+    private FileChannel journal;
+
+    public SnapshotService(DataSource dataSource, @Value("${app.snapshot.dir:./data/snapshot}") String dir) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.dir = Paths.get(dir).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Muat snapshot terakhir dan replay jurnalnya ke database yang masih kosong.
+     *
+     * @return {@code true} jika ada snapshot yang dimuat
+     */
+    public boolean restore() {
+        if (tableExists("flyway_schema_history")) {
+            // Database sudah berisi (mis. konteks kedua di JVM yang sama)
+            return false;
+        }
+        long latest = latestGeneration();
+        if (latest == 0) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+        int replayed = 0;
+        SnapshotJournalTrigger.paused = true;
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("RUNSCRIPT FROM " + SnapshotJournalTrigger.literal(snapshotFile(latest).toString())
+                    + " COMPRESSION GZIP");
+            // Isi tabel jurnal di snapshot juga sudah ada di file jurnal generasi ini
+            statement.execute("DELETE FROM " + JOURNAL_TABLE);
+
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            try {
+                for (String sql : readJournal(journalFile(latest))) {
+                    statement.addBatch(sql);
+                    if (++replayed % REPLAY_BATCH == 0) {
+                        statement.executeBatch();
+                    }
+                }
+                statement.executeBatch();
+                connection.commit();
+            } finally {
+                statement.execute("SET REFERENTIAL_INTEGRITY TRUE");
+                connection.setAutoCommit(autoCommit);
+            }
+            restartIdentities(statement);
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Gagal memulihkan snapshot " + snapshotFile(latest), e);
+        } finally {
+            SnapshotJournalTrigger.paused = false;
+        }
+
+        generation = latest;
+        log.info("Snapshot generasi {} dipulihkan, {} perubahan jurnal di-replay dalam {} ms",
+                latest, replayed, (System.nanoTime() - start) / 1_000_000);
+        return true;
+    }
+
+    /**
+     * Mulai mencatat perubahan. Jika database baru dipulihkan dan skemanya tidak
+     * berubah, jurnal generasi yang sama dilanjutkan; selain itu snapshot baru
+     * diambil agar skema terbaru ikut tersimpan.
+     */
+    public void start(boolean lanjutkanJurnal) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + JOURNAL_TABLE + " ("
+                + "id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY, "
+                + "sql_text CHARACTER VARYING NOT NULL)");
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT table_name FROM information_schema.tables "
+                        + "WHERE table_schema = SCHEMA() AND table_type = 'BASE TABLE'", String.class);
+        for (String table : tables) {
+            if (!table.equalsIgnoreCase(JOURNAL_TABLE) && !table.equalsIgnoreCase("flyway_schema_history")) {
+                attachTrigger(table);
+            }
+        }
+
+        if (lanjutkanJurnal) {
+            synchronized (lock) {
+                journal = openJournal(generation);
+            }
+        } else {
+            snapshot();
+        }
+    }
+
+    /**
+     * Pindahkan baris jurnal yang sudah commit ke file jurnal lalu fsync.
+     */
+    @Scheduled(fixedDelayString = "${app.snapshot.journal-flush-ms:1000}")
+    public void flush() {
+        synchronized (lock) {
+            if (journal == null) {
+                return;
+            }
+            try {
+                flushLocked();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Gagal menulis jurnal snapshot", e);
+            }
+        }
+    }
+
+    /**
+     * Ambil snapshot baru, mulai generasi jurnal baru, dan hapus generasi lama.
+     */
+    @Scheduled(fixedDelayString = "${app.snapshot.interval-ms:600000}",
+            initialDelayString = "${app.snapshot.interval-ms:600000}")
+    public void snapshot() {
+        synchronized (lock) {
+            long start = System.nanoTime();
+            long next = generation + 1;
+            Path temp = dir.resolve("snapshot-" + next + ".sql.gz.part");
+            try {
+                Files.createDirectories(dir);
+                if (journal != null) {
+                    flushLocked();
+                }
+                script(temp);
+                Files.move(temp, snapshotFile(next), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+                FileChannel baru = openJournal(next);
+                if (journal != null) {
+                    journal.close();
+                }
+                journal = baru;
+                generation = next;
+                // Nilai sequence di snapshot sudah terbaru; catat ulang saat berubah
+                sequences.clear();
+                hapusGenerasiLama(next);
+            } catch (IOException | SQLException e) {
+                throw new IllegalStateException("Gagal mengambil snapshot", e);
+            } finally {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // file sementara dibersihkan pada snapshot berikutnya
+                }
+            }
+            log.info("Snapshot generasi {} diambil dalam {} ms", next, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * DDL partisi presensi tidak tertangkap trigger, jadi dicatat langsung ke
+     * jurnal (di transaksi yang sama dengan DDL-nya) dan tabel barunya diberi
+     * trigger sebelum ada baris yang ditulis.
+     */
+    @EventListener
+    public void onPartisiBerubah(PresensiPartitions.PartisiBerubah event) {
+        if (!TenantContext.isDefault()) {
+            // Snapshot hanya mencakup database tenant default
+            return;
+        }
+        for (String ddl : event.ddl()) {
+            jdbcTemplate.update("INSERT INTO " + JOURNAL_TABLE + " (sql_text) VALUES (?)", ddl);
+        }
+        if (tableExists(event.table())) {
+            attachTrigger(event.table().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (journal == null) {
+                return;
+            }
+            try {
+                flushLocked();
+            } finally {
+                journal.close();
+                journal = null;
+            }
+        }
+    }
+
+    // ========== JURNAL ==========
+
+    private void flushLocked() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        List<String> statements = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, sql_text FROM " + JOURNAL_TABLE + " ORDER BY id", rs -> {
+            ids.add(rs.getLong(1));
+            statements.add(rs.getString(2));
+        });
+
+        // Sequence tidak lewat trigger: catat nilai berikutnya setiap kali berubah.
+        // Sequence bisa dibuat setelah snapshot (mis. user_id_seq saat ID pertama
+        // dialokasikan), jadi setiap RESTART didahului CREATE IF NOT EXISTS
+        jdbcTemplate.query("SELECT sequence_name, base_value, increment FROM information_schema.sequences "
+                + "WHERE sequence_schema = SCHEMA()", rs -> {
+            String name = rs.getString(1);
+            long value = rs.getLong(2);
+            if (!Objects.equals(sequences.put(name, value), value)) {
+                statements.add("CREATE SEQUENCE IF NOT EXISTS \"" + name + "\" START WITH " + value
+                        + " INCREMENT BY " + rs.getLong(3));
+                statements.add("ALTER SEQUENCE \"" + name + "\" RESTART WITH " + value);
+            }
+        });
+        if (statements.isEmpty()) {
+            return;
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        for (String sql : statements) {
+            byte[] bytes = sql.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        ByteBuffer data = ByteBuffer.wrap(buffer.toByteArray());
+        while (data.hasRemaining()) {
+            journal.write(data);
+        }
+        journal.force(false);
+
+        // Hapus per id: baris jurnal transaksi yang belum commit tidak boleh ikut terhapus
+        jdbcTemplate.batchUpdate("DELETE FROM " + JOURNAL_TABLE + " WHERE id = ?", ids, REPLAY_BATCH,
+                (ps, id) -> ps.setLong(1, id));
+    }
+
+    private List<String> readJournal(Path file) throws IOException {
+        List<String> statements = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return statements;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                byte[] bytes = new byte[length];
+                try {
+                    in.readFully(bytes);
+                } catch (EOFException e) {
+                    // Record terakhir terpotong (crash saat menulis): abaikan
+                    log.warn("Record terakhir jurnal {} tidak lengkap, diabaikan", file);
+                    break;
+                }
+                statements.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+        return statements;
+    }
+
+    private FileChannel openJournal(long gen) {
+        try {
+            Files.createDirectories(dir);
+            return FileChannel.open(journalFile(gen), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Gagal membuka jurnal snapshot", e);
+        }
+    }
+
+    // ========== DATABASE ==========
+
+    private void script(Path target) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            // Satu transaksi SERIALIZABLE agar semua tabel dibaca dari titik waktu yang sama
+            int isolation = connection.getTransactionIsolation();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            connection.setAutoCommit(false);
+            try {
+                statement.execute("SCRIPT TO " + SnapshotJournalTrigger.literal(target.toString()) + " COMPRESSION GZIP");
+                connection.commit();
+            } finally {
+                connection.setAutoCommit(autoCommit);
+                connection.setTransactionIsolation(isolation);
+            }
+        }
+    }
+
+    private void attachTrigger(String table) {
+        jdbcTemplate.execute("CREATE TRIGGER IF NOT EXISTS \"TRG_JOURNAL_" + table + "\" "
+                + "AFTER INSERT, UPDATE, DELETE ON \"" + table + "\" FOR EACH ROW "
+                + "CALL '" + SnapshotJournalTrigger.class.getName() + "'");
+    }
+
+    /**
+     * Kolom identity tidak ikut maju saat baris di-MERGE dengan id eksplisit.
+     */
+    private static void restartIdentities(Statement statement) throws SQLException {
+        List<String[]> identities = new ArrayList<>();
+        try (var rs = statement.executeQuery("SELECT table_name, column_name FROM information_schema.columns "
+                + "WHERE table_schema = SCHEMA() AND is_identity = 'YES'")) {
+            while (rs.next()) {
+                identities.add(new String[]{rs.getString(1), rs.getString(2)});
+            }
+        }
+        for (String[] identity : identities) {
+            long max;
+            try (var rs = statement.executeQuery("SELECT COALESCE(MAX(\"" + identity[1] + "\"), 0) FROM \""
+                    + identity[0] + "\"")) {
+                rs.next();
+                max = rs.getLong(1);
+            }
+            statement.execute("ALTER TABLE \"" + identity[0] + "\" ALTER COLUMN \"" + identity[1]
+                    + "\" RESTART WITH " + (max + 1));
+        }
+    }
+
+    private boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables "
+                + "WHERE table_schema = SCHEMA() AND LOWER(table_name) = LOWER(?)", Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    // ========== FILE ==========
+
+    private Path snapshotFile(long gen) {
+        return dir.resolve("snapshot-" + gen + ".sql.gz");
+    }
+
+    private Path journalFile(long gen) {
+        return dir.resolve("journal-" + gen + ".log");
+    }
+
+    private long latestGeneration() {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        try (Stream<Path> list = Files.list(dir)) {
+            return list.map(path -> SNAPSHOT_FILE.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .mapToLong(matcher -> Long.parseLong(matcher.group(1)))
+                    .max()
+                    .orElse(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Gagal membaca direktori snapshot " + dir, e);
+        }
+    }
+
+    private void hapusGenerasiLama(long current) throws IOException {
+        try (Stream<Path> list = Files.list(dir)) {
+            for (Path path : list.toList()) {
+                String name = path.getFileName().toString();
+                Matcher matcher = GENERATION_FILE.matcher(name);
+                if (matcher.matches() && Long.parseLong(matcher.group(1)) < current) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+}
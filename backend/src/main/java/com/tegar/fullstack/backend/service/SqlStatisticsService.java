@@ -0,0 +1,165 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.dto.response.SqlStatistikResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Histogram latensi per statement SQL yang dinormalisasi, diisi oleh
+ * {@link com.tegar.fullstack.backend.config.SqlTimingDataSource}.
+ * <p>
+ * Normalisasi mengganti literal dengan {@code ?}, meringkas daftar
+ * {@code IN (?, ?, ...)} dan nama partisi {@code presensi_yyyymm}, sehingga
+ * statement yang sama dengan nilai berbeda jatuh ke satu histogram. Jumlah
+ * statement berbeda dibatasi; sisanya dihitung di bawah {@link #LAINNYA}.
+ * <p>
+ * Statement di atas {@code slow-threshold-ms} dicatat ke log beserta tipe
+ * parameternya, tidak pernah nilainya.
+ */
+@Slf4j
+@Service
+public class SqlStatisticsService {
+
+    public static final String LAINNYA = "(lainnya)";
+
+    // Batas atas bucket histogram dalam milidetik; bucket terakhir tak terbatas
+    static final long[] BATAS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private static final int PANJANG_MAKS = 1000;
+    private static final Pattern LITERAL_STRING = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern LITERAL_ANGKA = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARTISI = Pattern.compile("\\b(presensi)_\\d{6}\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DAFTAR_PARAMETER = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern SPASI = Pattern.compile("\\s+");
+
+    private final long thresholdNanos;
+    private final int maxStatement;
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    private static final class Histogram {
+        private final LongAdder jumlah = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder lambat = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BATAS_MS.length + 1);
+
+        private void record(long nanos, boolean isLambat) {
+            jumlah.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            buckets.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMillis(nanos)));
+            if (isLambat) {
+                lambat.increment();
+            }
+        }
+
+        private double persentil(double q, long total) {
+            long target = (long) Math.ceil(q * total);
+            long kumulatif = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                kumulatif += buckets.get(i);
+                if (kumulatif >= target) {
+                    return i < BATAS_MS.length ? BATAS_MS[i] : keMs(maxNanos.get());
+                }
+            }
+            return keMs(maxNanos.get());
+        }
+    }
+
+    public SqlStatisticsService(
+            @Value("${app.sql.slow-threshold-ms:200}") long thresholdMs,
+            @Value("${app.sql.max-statements:1000}") int maxStatement) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.maxStatement = Math.max(1, maxStatement);
+    }
+
+    /**
+     * Catat satu eksekusi. {@code shape} berisi tipe parameter bind, mis.
+     * {@code [String, Long, null]}.
+     */
+    public void record(String sql, long nanos, String shape) {
+        String normal = normalize(sql);
+        Histogram histogram = histograms.get(normal);
+        if (histogram == null) {
+            histogram = histograms.size() < maxStatement
+                    ? histograms.computeIfAbsent(normal, k -> new Histogram())
+                    : histograms.computeIfAbsent(LAINNYA, k -> new Histogram());
+        }
+        boolean isLambat = nanos >= thresholdNanos;
+        histogram.record(nanos, isLambat);
+        if (isLambat) {
+            log.warn("SQL lambat {} ms, parameter {}: {}", keMs(nanos), shape, normal);
+        }
+    }
+
+    /**
+     * Statement teratas: {@code urut} = "lambat" (rata-rata), "sering" (jumlah
+     * eksekusi) atau selain itu total waktu.
+     */
+    public List<SqlStatistikResponse> getTop(String urut, int limit) {
+        Comparator<SqlStatistikResponse> comparator = switch (urut == null ? "" : urut) {
+            case "lambat" -> Comparator.comparingDouble(SqlStatistikResponse::getRataRataMs);
+            case "sering" -> Comparator.comparingLong(SqlStatistikResponse::getJumlah);
+            default -> Comparator.comparingDouble(SqlStatistikResponse::getTotalMs);
+        };
+        return histograms.entrySet().stream()
+                .map(e -> toResponse(e.getKey(), e.getValue()))
+                .filter(r -> r.getJumlah() > 0)
+                .sorted(comparator.reversed())
+                .limit(Math.max(1, limit))
+                .toList();
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+
+    public static String normalize(String sql) {
+        String hasil = LITERAL_STRING.matcher(sql).replaceAll("?");
+        hasil = PARTISI.matcher(hasil).replaceAll("$1_yyyymm");
+        hasil = LITERAL_ANGKA.matcher(hasil).replaceAll("?");
+        hasil = SPASI.matcher(hasil).replaceAll(" ").trim();
+        hasil = DAFTAR_PARAMETER.matcher(hasil).replaceAll("(?...)");
+        return hasil.length() > PANJANG_MAKS ? hasil.substring(0, PANJANG_MAKS) + "..." : hasil;
+    }
+
+    private static int bucket(long ms) {
+        for (int i = 0; i < BATAS_MS.length; i++) {
+            if (ms < BATAS_MS[i]) {
+                return i;
+            }
+        }
+        return BATAS_MS.length;
+    }
+
+    private static double keMs(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static SqlStatistikResponse toResponse(String sql, Histogram h) {
+        long jumlah = h.jumlah.sum();
+        long total = h.totalNanos.sum();
+        return SqlStatistikResponse.builder()
+                .sql(sql)
+                .jumlah(jumlah)
+                .lambat(h.lambat.sum())
+                .totalMs(keMs(total))
+                .rataRataMs(jumlah == 0 ? 0 : keMs(total / jumlah))
+                .maxMs(keMs(h.maxNanos.get()))
+                .p50Ms(h.persentil(0.50, jumlah))
+                .p95Ms(h.persentil(0.95, jumlah))
+                .p99Ms(h.persentil(0.99, jumlah))
+                .build();
+    }
+}
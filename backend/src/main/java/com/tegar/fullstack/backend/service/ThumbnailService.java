@@ -0,0 +1,243 @@
+package com.tegar.fullstack.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pembuat thumbnail foto pegawai di latar belakang.
+ * <p>
+ * Setiap foto mendapat varian JPEG berukuran tetap ({@code app.upload.thumbnail.sizes},
+ * sisi terpanjang dalam piksel) di samping file aslinya. Pekerjaan dijalankan
+ * di pool thread terbatas dengan antrean terbatas; jika antrean penuh,
+ * pekerjaan dibuang dan dicoba lagi saat varian tersebut diminta.
+ * <p>
+ * Dimensi gambar dibaca dari header lebih dulu; gambar di atas
+ * {@code max-pixels} tidak didekode sama sekali (decompression bomb), dan
+ * gambar besar didekode dengan subsampling sehingga tidak pernah ada salinan
+ * berukuran penuh di heap. Foto yang gagal didekode tidak diantrekan lagi.
+ */
+@Slf4j
+@Service
+public class ThumbnailService {
+
+    private final PhotoStorageService photoStorageService;
+    private final int[] sizes;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+
+    // Foto yang sedang/akan diproses, agar tidak diantrekan dua kali
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    // Foto yang tidak bisa atau tidak boleh didekode, tidak dicoba lagi
+    private final Set<String> gagal = ConcurrentHashMap.newKeySet();
+
+    public ThumbnailService(
+            PhotoStorageService photoStorageService,
+            @Value("${app.upload.thumbnail.sizes:40,160}") int[] sizes,
+            @Value("${app.upload.thumbnail.threads:2}") int threads,
+            @Value("${app.upload.thumbnail.queue-capacity:100}") int queueCapacity,
+            @Value("${app.upload.thumbnail.max-pixels:40000000}") long maxPixels) {
+        this.photoStorageService = photoStorageService;
+        this.sizes = Arrays.stream(sizes).sorted().toArray();
+        this.maxPixels = maxPixels;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "thumbnail-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Ukuran varian terkecil yang tidak lebih kecil dari permintaan, atau
+     * {@code null} jika yang diminta lebih besar dari semua varian (pakai asli).
+     */
+    public Integer pilihUkuran(int requested) {
+        for (int size : sizes) {
+            if (size >= requested) {
+                return size;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Antrekan pembuatan semua varian untuk foto yang baru disimpan.
+     */
+    public void buatAsync(String relative) {
+        if (photoStorageService.isVariant(relative) || gagal.contains(relative) || !pending.add(relative)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    buat(relative);
+                } finally {
+                    pending.remove(relative);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(relative);
+            log.debug("Antrean thumbnail penuh, {} dilewati", relative);
+        }
+    }
+
+    /**
+     * Jumlah foto yang menunggu dibuatkan thumbnail.
+     */
+    public int getAntrean() {
+        return executor.getQueue().size();
+    }
+
+    public int getKapasitasAntrean() {
+        return executor.getQueue().size() + executor.getQueue().remainingCapacity();
+    }
+
+    /**
+     * Path varian jika sudah tersedia; jika belum, pembuatan diantrekan dan
+     * {@code null} dikembalikan agar pemanggil memakai file asli.
+     */
+    public Path getVariant(String relative, int size) {
+        if (photoStorageService.isVariant(relative) || gagal.contains(relative)) {
+            // Thumbnail dari thumbnail tidak dibuat; foto rusak dikirim apa adanya
+            return null;
+        }
+        Path variant = photoStorageService.resolve(photoStorageService.variant(relative, size));
+        if (variant != null && Files.exists(variant)) {
+            return variant;
+        }
+        buatAsync(relative);
+        return null;
+    }
+
+    void buat(String relative) {
+        Path source = photoStorageService.resolve(relative);
+        if (source == null || !Files.exists(source)) {
+            return;
+        }
+
+        try {
+            BufferedImage image = baca(source, relative);
+            if (image == null) {
+                gagal.add(relative);
+                return;
+            }
+
+            for (int size : sizes) {
+                Path target = photoStorageService.resolve(photoStorageService.variant(relative, size));
+                if (target == null || Files.exists(target)) {
+                    continue;
+                }
+
+                Path temp = Files.createTempFile(photoStorageService.tmpDir(), "thumb-", ".part");
+                try {
+                    ImageIO.write(scale(image, size), "jpg", temp.toFile());
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Gagal membuat thumbnail {}", relative, e);
+        }
+    }
+
+    /**
+     * Dekode gambar dengan subsampling secukupnya untuk varian terbesar, atau
+     * {@code null} jika bukan gambar, rusak, atau piksel di header melebihi batas.
+     */
+    private BufferedImage baca(Path source, String relative) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                log.warn("Foto {} tidak bisa dibaca sebagai gambar", relative);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.warn("Foto {} berukuran {}x{} melebihi batas {} piksel, thumbnail tidak dibuat",
+                            relative, width, height, maxPixels);
+                    return null;
+                }
+                // Tetap minimal dua kali varian terbesar agar penghalusan bertahap masih berlaku
+                int step = Math.max(1, Math.max(width, height) / (sizes[sizes.length - 1] * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Foto {} rusak: {}", relative, e.toString());
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Perkecil sehingga sisi terpanjang = {@code size} (tidak diperbesar),
+     * bertahap setengah demi setengah agar hasil tetap halus.
+     */
+    static BufferedImage scale(BufferedImage source, int size) {
+        int longest = Math.max(source.getWidth(), source.getHeight());
+        double ratio = Math.min(1.0, (double) size / longest);
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        // Langkah pertama langsung dari sumber (tanpa salinan ukuran penuh) dan
+        // selalu dijalankan: JPEG tanpa alpha, latar putih untuk PNG/GIF transparan
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height);
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = result.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,59 @@
+package db.migration;
+
+import com.tegar.fullstack.backend.repository.PresensiPartitions;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.TreeSet;
+
+/**
+ * Pecah tabel presensi menjadi partisi bulanan (presensi_yyyymm).
+ * <p>
+ * Bulan ditentukan dengan zona waktu server, sama seperti tgl_absensi yang
+ * disimpan aplikasi (awal hari lokal). ID lama dipertahankan dan sequence
+ * bersama dimulai setelah ID terbesar.
+ */
+public class V3__Partisi_presensi extends BaseJavaMigration {
+    
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        ZoneId zone = ZoneId.systemDefault();
+        
+        try (Statement statement = connection.createStatement()) {
+            long maxId;
+            try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM presensi")) {
+                rs.next();
+                maxId = rs.getLong(1);
+            }
+            statement.execute("CREATE SEQUENCE " + PresensiPartitions.SEQUENCE + " START WITH " + (maxId + 1));
+            
+            TreeSet<YearMonth> bulan = new TreeSet<>();
+            try (ResultSet rs = statement.executeQuery("SELECT DISTINCT tgl_absensi FROM presensi")) {
+                while (rs.next()) {
+                    bulan.add(YearMonth.from(Instant.ofEpochSecond(rs.getLong(1)).atZone(zone)));
+                }
+            }
+            
+            for (YearMonth b : bulan) {
+                for (String ddl : PresensiPartitions.ddl(b, zone)) {
+                    statement.execute(ddl);
+                }
+                long awal = b.atDay(1).atStartOfDay(zone).toEpochSecond();
+                long akhir = b.plusMonths(1).atDay(1).atStartOfDay(zone).toEpochSecond();
+                statement.execute("INSERT INTO " + PresensiPartitions.tableName(b)
+                        + " (id, id_user, tgl_absensi, jam_masuk, jam_keluar, kd_status, created_at_epoch) "
+                        + "SELECT id, id_user, tgl_absensi, jam_masuk, jam_keluar, kd_status, created_at_epoch "
+                        + "FROM presensi WHERE tgl_absensi >= " + awal + " AND tgl_absensi < " + akhir);
+            }
+            
+            statement.execute("DROP TABLE presensi");
+        }
+    }
+}
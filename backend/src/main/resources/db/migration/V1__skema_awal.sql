@@ -0,0 +1,92 @@
+-- Skema awal, sama dengan yang sebelumnya dibuat Hibernate (ddl-auto=update)
+
+-- ========== MASTER DATA ==========
+
+CREATE TABLE jenis_kelamin (
+    kd_jenis_kelamin    INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nama_jenis_kelamin  VARCHAR(10) NOT NULL
+);
+
+CREATE TABLE pendidikan (
+    kd_pendidikan       INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nama_pendidikan     VARCHAR(50) NOT NULL
+);
+
+CREATE TABLE departemen (
+    kd_departemen       INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nama_departemen     VARCHAR(50) NOT NULL
+);
+
+CREATE TABLE jabatan (
+    kd_jabatan          INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nama_jabatan        VARCHAR(50) NOT NULL
+);
+
+CREATE TABLE unit_kerja (
+    kd_unit_kerja       INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nama_unit_kerja     VARCHAR(50) NOT NULL
+);
+
+CREATE TABLE status_absen (
+    kd_status           INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nama_status         VARCHAR(50) NOT NULL
+);
+
+-- ========== USER & PEGAWAI ==========
+
+CREATE TABLE users (
+    id_user             VARCHAR(255) NOT NULL PRIMARY KEY,
+    email               VARCHAR(100) NOT NULL,
+    password            VARCHAR(255) NOT NULL,
+    profile             VARCHAR(20) NOT NULL,
+    nama_admin          VARCHAR(100),
+    perusahaan          VARCHAR(100),
+    is_active           BOOLEAN,
+    created_at_epoch    BIGINT,
+    last_login_epoch    BIGINT,
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE pegawai (
+    id_user             VARCHAR(255) NOT NULL PRIMARY KEY,
+    nama_lengkap        VARCHAR(100) NOT NULL,
+    tempat_lahir        VARCHAR(50),
+    tanggal_lahir       BIGINT,
+    nik_user            VARCHAR(20),
+    photo               VARCHAR(255),
+    kd_jabatan          INTEGER,
+    kd_departemen       INTEGER,
+    kd_unit_kerja       INTEGER,
+    kd_jenis_kelamin    INTEGER,
+    kd_pendidikan       INTEGER,
+    created_at_epoch    BIGINT,
+    updated_at_epoch    BIGINT,
+    CONSTRAINT uk_pegawai_nik UNIQUE (nik_user),
+    CONSTRAINT fk_pegawai_user FOREIGN KEY (id_user) REFERENCES users (id_user),
+    CONSTRAINT fk_pegawai_jabatan FOREIGN KEY (kd_jabatan) REFERENCES jabatan (kd_jabatan),
+    CONSTRAINT fk_pegawai_departemen FOREIGN KEY (kd_departemen) REFERENCES departemen (kd_departemen),
+    CONSTRAINT fk_pegawai_unit_kerja FOREIGN KEY (kd_unit_kerja) REFERENCES unit_kerja (kd_unit_kerja),
+    CONSTRAINT fk_pegawai_jenis_kelamin FOREIGN KEY (kd_jenis_kelamin) REFERENCES jenis_kelamin (kd_jenis_kelamin),
+    CONSTRAINT fk_pegawai_pendidikan FOREIGN KEY (kd_pendidikan) REFERENCES pendidikan (kd_pendidikan)
+);
+
+-- ========== PRESENSI ==========
+
+CREATE TABLE presensi (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id_user             VARCHAR(255) NOT NULL,
+    tgl_absensi         BIGINT NOT NULL,
+    jam_masuk           VARCHAR(8),
+    jam_keluar          VARCHAR(8),
+    kd_status           INTEGER,
+    created_at_epoch    BIGINT,
+    CONSTRAINT fk_presensi_pegawai FOREIGN KEY (id_user) REFERENCES pegawai (id_user),
+    CONSTRAINT fk_presensi_status FOREIGN KEY (kd_status) REFERENCES status_absen (kd_status)
+);
+
+-- ========== LAIN-LAIN ==========
+
+CREATE TABLE data_version (
+    nama                VARCHAR(50) NOT NULL PRIMARY KEY,
+    versi               BIGINT NOT NULL
+);
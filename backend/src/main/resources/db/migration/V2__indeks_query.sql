@@ -0,0 +1,27 @@
+-- Index untuk query repository. Setiap index di sini diperiksa lewat EXPLAIN
+-- di QueryPlanTests; tambahkan kasusnya di sana bila menambah query baru.
+-- users.email dan pegawai.nik_user sudah ter-index lewat constraint UNIQUE;
+-- H2 juga membuat index sendiri untuk setiap kolom foreign key.
+
+-- Presensi: absen hari ini / riwayat per pegawai (PresensiRepository.findByPegawaiAndTglAbsensi*)
+CREATE INDEX idx_presensi_user_tgl ON presensi (id_user, tgl_absensi);
+
+-- Presensi: laporan semua pegawai per rentang tanggal (findByTglAbsensiBetween)
+CREATE INDEX idx_presensi_tgl ON presensi (tgl_absensi);
+
+-- Pegawai: urutan default daftar + keyset pagination (findHalaman)
+CREATE INDEX idx_pegawai_nama ON pegawai (nama_lengkap, id_user);
+
+-- Pegawai: filter per master, tetap terurut nama di dalam index
+CREATE INDEX idx_pegawai_departemen ON pegawai (kd_departemen, nama_lengkap, id_user);
+CREATE INDEX idx_pegawai_jabatan ON pegawai (kd_jabatan, nama_lengkap, id_user);
+CREATE INDEX idx_pegawai_unit_kerja ON pegawai (kd_unit_kerja, nama_lengkap, id_user);
+CREATE INDEX idx_pegawai_jenis_kelamin ON pegawai (kd_jenis_kelamin, nama_lengkap, id_user);
+CREATE INDEX idx_pegawai_pendidikan ON pegawai (kd_pendidikan, nama_lengkap, id_user);
+
+-- Pegawai: delta-sync perubahan sejak cursor (findPerubahan)
+CREATE INDEX idx_pegawai_updated ON pegawai (updated_at_epoch, id_user);
+
+-- Master: lookup departemen HRD (DepartemenRepository.findByNama)
+CREATE INDEX idx_departemen_nama ON departemen (nama_departemen);
+
@@ -0,0 +1,5 @@
+-- Heartbeat untuk mengukur lag replica (lihat ReplicaLagMonitor)
+CREATE TABLE replica_heartbeat (
+    id                  INTEGER NOT NULL PRIMARY KEY,
+    ts_ms               BIGINT NOT NULL
+);
@@ -0,0 +1,11 @@
+-- Log invalidasi cache antar node (lihat CacheInvalidationBus).
+-- version naik terus; setiap node membaca baris dengan version > posisinya.
+CREATE TABLE cache_invalidation (
+    version             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    region              VARCHAR(150) NOT NULL,
+    cache_key           VARCHAR(100),
+    node_id             VARCHAR(36) NOT NULL,
+    created_at_ms       BIGINT NOT NULL
+);
+
+CREATE INDEX idx_cache_invalidation_created ON cache_invalidation (created_at_ms);
@@ -0,0 +1,7 @@
+-- Lease untuk job terjadwal yang hanya boleh berjalan di satu node (lihat JobLock).
+-- Lease kedaluwarsa setelah sampai_ms, jadi node yang mati tidak mengunci selamanya.
+CREATE TABLE job_lock (
+    nama                VARCHAR(100) NOT NULL PRIMARY KEY,
+    node_id             VARCHAR(36) NOT NULL,
+    sampai_ms           BIGINT NOT NULL
+);
@@ -0,0 +1,11 @@
+-- Delta-sync pegawai memakai versi data (data_version 'pegawai') yang dicap ke
+-- baris saat transaksi perubahan selesai, bukan waktu perubahan (lihat PegawaiVersi).
+-- Baris lama mendapat versi 0 dan tetap terurut lewat id_user.
+ALTER TABLE pegawai ADD COLUMN versi_perubahan BIGINT DEFAULT 0 NOT NULL;
+
+-- Pegawai: delta-sync perubahan sejak cursor (findPerubahan)
+DROP INDEX idx_pegawai_updated;
+CREATE INDEX idx_pegawai_perubahan ON pegawai (versi_perubahan, id_user);
+
+-- Baris versi harus ada sebelum ada pegawai yang dicap
+MERGE INTO data_version (nama, versi) KEY (nama) VALUES ('pegawai', 0);
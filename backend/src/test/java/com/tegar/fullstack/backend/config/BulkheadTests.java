@@ -0,0 +1,199 @@
+package com.tegar.fullstack.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+		"app.bulkhead.connection-wait-ms=100",
+		"app.bulkhead.kelas.laporan.max-concurrent=1",
+		"app.bulkhead.kelas.laporan.max-connections=1",
+		"app.bulkhead.kelas.auth.max-connections=1"})
+class BulkheadTests {
+
+	@Autowired
+	private BulkheadFilter bulkheadFilter;
+
+	@Autowired
+	private BulkheadProperties bulkheadProperties;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Test
+	void requestsAreClassifiedByPath() {
+		assertThat(bulkheadProperties.kelasUntuk("/presensi/in")).isEqualTo(BulkheadProperties.Kelas.PRESENSI);
+		assertThat(bulkheadProperties.kelasUntuk("/api/auth/login")).isEqualTo(BulkheadProperties.Kelas.AUTH);
+		assertThat(bulkheadProperties.kelasUntuk("/presensi/daftar/admin")).isEqualTo(BulkheadProperties.Kelas.LAPORAN);
+		assertThat(bulkheadProperties.kelasUntuk("/api/pegawai/cari")).isEqualTo(BulkheadProperties.Kelas.BACA);
+	}
+
+	@Test
+	void connectionQuotasMustLeavePresensiReserve() {
+		bulkheadProperties.periksaKuota("default", 10);
+		assertThatThrownBy(() -> bulkheadProperties.periksaKuota("kecil", 6))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("presensi-reserve");
+
+		BulkheadProperties tanpaKuota = new BulkheadProperties();
+		tanpaKuota.setPresensiReserve(1);
+		assertThatThrownBy(() -> tanpaKuota.periksaKuota("default", 10))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("tanpa max-connections");
+	}
+
+	@Test
+	void fullReportClassIsRejectedWithoutBlockingCheckIn() throws Exception {
+		CountDownLatch masuk = new CountDownLatch(1);
+		CountDownLatch selesai = new CountDownLatch(1);
+		CompletableFuture<Void> laporan = CompletableFuture.runAsync(() -> {
+			try {
+				bulkheadFilter.doFilter(request("/presensi/daftar/admin"), new MockHttpServletResponse(),
+						(req, res) -> {
+							masuk.countDown();
+							await(selesai);
+						});
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		assertThat(masuk.await(5, TimeUnit.SECONDS)).isTrue();
+
+		MockHttpServletResponse ditolak = new MockHttpServletResponse();
+		bulkheadFilter.doFilter(request("/presensi/daftar/pegawai"), ditolak, new MockFilterChain());
+		assertThat(ditolak.getStatus()).isEqualTo(503);
+		assertThat(ditolak.getHeader("Retry-After")).isNotNull();
+
+		MockHttpServletResponse checkIn = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+		bulkheadFilter.doFilter(request("/presensi/in"), checkIn, chain);
+		assertThat(chain.getRequest()).isNotNull();
+
+		selesai.countDown();
+		laporan.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void connectionQuotaAndStatementTimeoutFollowTheRequestClass() throws Exception {
+		CountDownLatch dipegang = new CountDownLatch(1);
+		CountDownLatch lepas = new CountDownLatch(1);
+		CompletableFuture<Integer> laporan = CompletableFuture.supplyAsync(() -> BulkheadContext.call(
+				BulkheadProperties.Kelas.LAPORAN, () -> {
+					try (Connection connection = dataSource.getConnection();
+						 Statement statement = connection.createStatement()) {
+						// Koneksi kedua di thread yang sama tidak menunggu kuota
+						try (Connection kedua = dataSource.getConnection()) {
+							assertThat(kedua).isNotNull();
+						}
+						dipegang.countDown();
+						await(lepas);
+						return statement.getQueryTimeout();
+					} catch (Exception e) {
+						throw new IllegalStateException(e);
+					}
+				}));
+		assertThat(dipegang.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThatThrownBy(() -> BulkheadContext.call(BulkheadProperties.Kelas.LAPORAN, () -> {
+			try (Connection connection = dataSource.getConnection()) {
+				return connection;
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		})).hasCauseInstanceOf(SQLTransientConnectionException.class);
+
+		Integer timeoutPresensi = BulkheadContext.call(BulkheadProperties.Kelas.PRESENSI, () -> {
+			try (Connection connection = dataSource.getConnection();
+				 Statement statement = connection.createStatement()) {
+				return statement.getQueryTimeout();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		assertThat(timeoutPresensi).isEqualTo(5);
+
+		lepas.countDown();
+		assertThat(laporan.get(5, TimeUnit.SECONDS)).isEqualTo(30);
+
+		// Kuota kembali setelah koneksi ditutup
+		BulkheadContext.call(BulkheadProperties.Kelas.LAPORAN, () -> {
+			try (Connection connection = dataSource.getConnection()) {
+				return connection.isValid(1);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	@Test
+	void nestedConnectionOfAnotherClassUsesItsOwnQuota() throws Exception {
+		Connection laporan = buka(BulkheadProperties.Kelas.LAPORAN);
+		Connection auth = buka(BulkheadProperties.Kelas.AUTH);
+
+		// Koneksi bersarang kelas lain tetap memegang kuota kelasnya
+		assertThat(bisaBuka(BulkheadProperties.Kelas.AUTH)).isFalse();
+		assertThat(bisaBuka(BulkheadProperties.Kelas.LAPORAN)).isFalse();
+
+		// Ditutup tidak berurutan: kuota LAPORAN kembali saat koneksinya ditutup
+		laporan.close();
+		assertThat(bisaBuka(BulkheadProperties.Kelas.LAPORAN)).isTrue();
+		assertThat(bisaBuka(BulkheadProperties.Kelas.AUTH)).isFalse();
+
+		auth.close();
+		assertThat(bisaBuka(BulkheadProperties.Kelas.AUTH)).isTrue();
+	}
+
+	private Connection buka(BulkheadProperties.Kelas kelas) {
+		return BulkheadContext.call(kelas, () -> {
+			try {
+				return dataSource.getConnection();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	// Coba ambil koneksi kelas tersebut dari thread lain
+	private boolean bisaBuka(BulkheadProperties.Kelas kelas) throws Exception {
+		return CompletableFuture.supplyAsync(() -> {
+			try (Connection connection = buka(kelas)) {
+				return true;
+			} catch (IllegalStateException e) {
+				if (e.getCause() instanceof SQLTransientConnectionException) {
+					return false;
+				}
+				throw e;
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}).get(5, TimeUnit.SECONDS);
+	}
+
+	private static MockHttpServletRequest request(String uri) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+		request.setRequestURI(uri);
+		return request;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.tegar.fullstack.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Batas in-flight 0: setiap request (termasuk dirinya sendiri) dianggap beban
+ * lebih, jadi hanya prioritas rendah yang terlihat bedanya.
+ */
+@SpringBootTest(properties = "app.admission.max-in-flight=0")
+@AutoConfigureMockMvc
+class LoadSheddingFilterTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private LoadMonitor loadMonitor;
+
+	@Test
+	void lowPriorityRequestsAreShedWhileOthersPassThrough() throws Exception {
+		mockMvc.perform(get("/presensi/daftar/admin").param("tglAwal", "0").param("tglAkhir", "1"))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"))
+				.andExpect(jsonPath("$.status").value(503));
+		mockMvc.perform(get("/api/pegawai/daftar-halaman"))
+				.andExpect(status().isServiceUnavailable());
+
+		// Check in tetap sampai ke security (tanpa token: 403), bukan ditolak filter
+		mockMvc.perform(get("/presensi/in"))
+				.andExpect(status().isForbidden());
+		assertThat(loadMonitor.getInFlight()).isZero();
+	}
+
+	@Test
+	void healthReportsReadinessComponents() throws Exception {
+		mockMvc.perform(get("/health"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.status").value("UP"))
+				.andExpect(jsonPath("$.komponen.db").value("UP"))
+				.andExpect(jsonPath("$.komponen.pool").value("UP"))
+				.andExpect(jsonPath("$.komponen.diskSpace").exists())
+				.andExpect(jsonPath("$.komponen.antrean").value("UP"));
+	}
+}
@@ -0,0 +1,142 @@
+package com.tegar.fullstack.backend.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Dua database H2 sebagai primary dan replica; replikasi disimulasikan dengan
+ * menyalin baris heartbeat secara manual.
+ */
+class ReadWriteRoutingDataSourceTests {
+
+	private final DriverManagerDataSource primary =
+			new DriverManagerDataSource("jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1", "sa", "");
+	private final DriverManagerDataSource replica =
+			new DriverManagerDataSource("jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1", "sa", "");
+	private final MutableClock clock = new MutableClock();
+
+	private ReplicaLagMonitor monitor;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate readOnly;
+	private TransactionTemplate readWrite;
+
+	@BeforeEach
+	void setUp() {
+		for (DataSource dataSource : new DataSource[]{primary, replica}) {
+			JdbcTemplate template = new JdbcTemplate(dataSource);
+			template.execute("CREATE TABLE replica_heartbeat (id INTEGER PRIMARY KEY, ts_ms BIGINT NOT NULL)");
+			template.execute("CREATE TABLE asal (nama VARCHAR(10))");
+			template.update("INSERT INTO asal VALUES (?)", dataSource == primary ? "primary" : "replica");
+		}
+		monitor = new ReplicaLagMonitor(primary, replica, 5000, clock);
+		DataSource routing = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, monitor));
+		jdbcTemplate = new JdbcTemplate(routing);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		new JdbcTemplate(primary).execute("DROP ALL OBJECTS");
+		new JdbcTemplate(replica).execute("DROP ALL OBJECTS");
+	}
+
+	@Test
+	void readOnlyTransactionsGoToReplicaWhenItIsCaughtUp() {
+		monitor.probe();
+		replikasi();
+		monitor.probe();
+
+		assertThat(monitor.isReplicaUsable()).isTrue();
+		assertThat(asal(readOnly)).isEqualTo("replica");
+		assertThat(asal(readWrite)).isEqualTo("primary");
+		assertThat(asal()).isEqualTo("primary");
+	}
+
+	@Test
+	void laggingReplicaIsBypassed() {
+		monitor.probe();
+		replikasi();
+		clock.advance(10_000);
+		monitor.probe();
+
+		assertThat(monitor.getLagMs()).isEqualTo(10_000);
+		assertThat(asal(readOnly)).isEqualTo("primary");
+
+		replikasi();
+		monitor.probe();
+		assertThat(asal(readOnly)).isEqualTo("replica");
+	}
+
+	@Test
+	void replicaFailureFallsBackToPrimary() {
+		monitor.probe();
+		replikasi();
+		monitor.probe();
+
+		new JdbcTemplate(replica).execute("DROP TABLE replica_heartbeat");
+		monitor.probe();
+
+		assertThat(monitor.isReplicaUsable()).isFalse();
+		assertThat(asal(readOnly)).isEqualTo("primary");
+	}
+
+	private String asal(TransactionTemplate transaction) {
+		return transaction.execute(status -> asal());
+	}
+
+	private String asal() {
+		return jdbcTemplate.queryForObject("SELECT nama FROM asal", String.class);
+	}
+
+	/** Pengganti replikasi: salin heartbeat primary ke replica. */
+	private void replikasi() {
+		Long ts = new JdbcTemplate(primary).queryForObject("SELECT ts_ms FROM replica_heartbeat WHERE id = 1", Long.class);
+		new JdbcTemplate(replica).update("MERGE INTO replica_heartbeat (id, ts_ms) KEY (id) VALUES (1, ?)", ts);
+	}
+
+	private static class MutableClock extends Clock {
+
+		private long millis = 1_000_000;
+
+		void advance(long delta) {
+			millis += delta;
+		}
+
+		@Override
+		public long millis() {
+			return millis;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+	}
+}
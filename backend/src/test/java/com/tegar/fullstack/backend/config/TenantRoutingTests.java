@@ -0,0 +1,113 @@
+package com.tegar.fullstack.backend.config;
+
+import com.jayway.jsonpath.JsonPath;
+import com.tegar.fullstack.backend.entity.Pegawai;
+import com.tegar.fullstack.backend.repository.PegawaiRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tenant default memakai database test bersama, tenant "acme" database H2
+ * in-memory sendiri. Second-level cache dinyalakan untuk memastikan key-nya
+ * memuat tenant.
+ */
+@SpringBootTest(properties = {
+		"app.tenant.enabled=true",
+		"app.tenant.shards.acme.url=jdbc:h2:mem:acme;DB_CLOSE_DELAY=-1",
+		"app.tenant.shards.acme.username=sa",
+		"app.tenant.shards.acme.password=",
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=true"})
+@AutoConfigureMockMvc
+class TenantRoutingTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PegawaiRepository pegawaiRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void hapusPegawai() {
+		jdbcTemplate.update("DELETE FROM pegawai WHERE nama_lengkap = 'Pegawai Default Sama ID'");
+		jdbcTemplate.update("DELETE FROM users WHERE email = 'sama-id@test.com'");
+	}
+
+	@Test
+	void jwtTenantRoutesRequestsToItsOwnDatabaseAndCacheKeys() throws Exception {
+		String init = mockMvc.perform(post("/api/auth/init-data")
+						.header(TenantContext.HEADER, "acme")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"namaAdmin\":\"Admin Acme\",\"perusahaan\":\"Acme\"}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		String password = JsonPath.read(init, "$.password");
+
+		String login = mockMvc.perform(post("/api/auth/login")
+						.header(TenantContext.HEADER, "acme")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"email\":\"admin@acme.com\",\"password\":\"" + password + "\",\"profile\":\"ADMIN\"}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		String token = JsonPath.read(login, "$.hasil.token");
+		String idAdmin = JsonPath.read(login, "$.hasil.info.idUser");
+
+		// Admin hanya ada di database acme
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM users WHERE email = 'admin@acme.com'", Integer.class)).isZero();
+		assertThat(TenantContext.call("acme", () -> jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM users WHERE email = 'admin@acme.com'", Integer.class))).isEqualTo(1);
+
+		// Klaim di token menang atas header; indeks pencarian juga per tenant
+		mockMvc.perform(get("/api/pegawai/cari").param("q", "admin")
+						.header("Authorization", "Bearer " + token)
+						.header(TenantContext.HEADER, TenantContext.DEFAULT))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(1))
+				.andExpect(jsonPath("$[0].idUser").value(idAdmin));
+
+		mockMvc.perform(post("/api/auth/login")
+						.header(TenantContext.HEADER, "tidak-ada")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"email\":\"admin@acme.com\",\"password\":\"" + password + "\",\"profile\":\"ADMIN\"}"))
+				.andExpect(status().is(501))
+				.andExpect(jsonPath("$.message").value("Tenant tidak dikenal"));
+
+		// ID yang sama di tenant default adalah pegawai lain, dan cache tidak tertukar
+		if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE id_user = ?", Integer.class, idAdmin) == 0) {
+			jdbcTemplate.update("INSERT INTO users (id_user, email, password, profile, is_active) "
+					+ "VALUES (?, 'sama-id@test.com', 'x', 'PEGAWAI', TRUE)", idAdmin);
+			jdbcTemplate.update("INSERT INTO pegawai (id_user, nama_lengkap) VALUES (?, 'Pegawai Default Sama ID')",
+					idAdmin);
+		}
+		String namaDefault = jdbcTemplate.queryForObject(
+				"SELECT nama_lengkap FROM pegawai WHERE id_user = ?", String.class, idAdmin);
+		for (int i = 0; i < 2; i++) {
+			assertThat(TenantContext.call("acme", () -> namaPegawai(idAdmin))).isEqualTo("Admin Acme");
+			assertThat(namaPegawai(idAdmin)).isEqualTo(namaDefault);
+		}
+	}
+
+	private String namaPegawai(String idUser) {
+		return transactionTemplate.execute(status ->
+				pegawaiRepository.findById(idUser).map(Pegawai::getNamaLengkap).orElseThrow());
+	}
+}
@@ -0,0 +1,107 @@
+package com.tegar.fullstack.backend.controller;
+
+import com.tegar.fullstack.backend.repository.UserRepository;
+import com.tegar.fullstack.backend.security.JwtTokenProvider;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Export metrik dimatikan Spring Boot di test kecuali dengan
+ * {@code @AutoConfigureObservability}; isi /actuator/prometheus diambil
+ * langsung dari registry karena port management di luar MockMvc.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtTokenProvider jwtTokenProvider;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PrometheusMeterRegistry prometheusMeterRegistry;
+
+	@Value("${app.jwt.secret}")
+	private String jwtSecret;
+
+	@AfterEach
+	void hapusUser() {
+		jdbcTemplate.update("DELETE FROM users WHERE id_user = 'MET1'");
+	}
+
+	@Test
+	void hotPathMetricsAreExposedInPrometheusFormat() throws Exception {
+		jdbcTemplate.update("INSERT INTO users (id_user, email, password, profile, is_active) "
+				+ "VALUES ('MET1', 'met1@test.com', 'x', 'PEGAWAI', TRUE)");
+		String token = jwtTokenProvider.generateToken(userRepository.findById("MET1").orElseThrow());
+
+		mockMvc.perform(post("/api/auth/login")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"email\":\"met1@test.com\",\"password\":\"salah\",\"profile\":\"PEGAWAI\"}"))
+				.andExpect(status().is(501));
+		// Tanpa data pegawai check in ditolak aturan bisnis
+		mockMvc.perform(get("/presensi/in").header("Authorization", "Bearer " + token))
+				.andExpect(status().is(501));
+
+		String body = prometheusMeterRegistry.scrape();
+
+		assertThat(body)
+				.contains("presensi_hasil_total{aksi=\"check-in\",application=\"hr-system-backend\",hasil=\"ditolak\"}")
+				.contains("auth_bcrypt_seconds_count{application=\"hr-system-backend\",operasi=\"matches\"}")
+				.contains("auth_jwt_verify_seconds_count{application=\"hr-system-backend\",hasil=\"valid\"}")
+				.contains("http_server_requests_seconds_bucket{")
+				.contains("outcome=\"SERVER_ERROR\"")
+				.contains("hikaricp_connections_active")
+				.contains("hikaricp_connections_acquire_seconds")
+				.contains("hibernate_sessions_open_total");
+	}
+
+	@Test
+	void expiredAndTamperedTokensAreTreatedAsAnonymous() throws Exception {
+		String kedaluwarsa = Jwts.builder()
+				.subject("met1@test.com")
+				.expiration(new Date(System.currentTimeMillis() - 60_000))
+				.signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(jwtSecret)))
+				.compact();
+
+		// Tanpa autentikasi: ditolak security (403), bukan 500
+		mockMvc.perform(get("/presensi/in").header("Authorization", "Bearer " + kedaluwarsa))
+				.andExpect(status().isForbidden());
+		mockMvc.perform(get("/presensi/in").header("Authorization", "Bearer " + kedaluwarsa + "x"))
+				.andExpect(status().isForbidden());
+		mockMvc.perform(get("/presensi/in").header("Authorization", "Bearer bukan-token"))
+				.andExpect(status().isForbidden());
+
+		assertThat(prometheusMeterRegistry.scrape())
+				.contains("auth_jwt_verify_seconds_count{application=\"hr-system-backend\",hasil=\"kedaluwarsa\"} 1")
+				.contains("auth_jwt_verify_seconds_count{application=\"hr-system-backend\",hasil=\"invalid\"} 2");
+	}
+}
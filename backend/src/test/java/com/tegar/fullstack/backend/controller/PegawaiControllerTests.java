@@ -0,0 +1,187 @@
+package com.tegar.fullstack.backend.controller;
+
+import com.tegar.fullstack.backend.dto.request.UbahPegawaiMassalRequest;
+import com.tegar.fullstack.backend.dto.request.UbahPegawaiRequest;
+import com.tegar.fullstack.backend.dto.response.SqlStatistikResponse;
+import com.tegar.fullstack.backend.entity.Jabatan;
+import com.tegar.fullstack.backend.repository.JabatanRepository;
+import com.tegar.fullstack.backend.service.MasterDataRegistry;
+import com.tegar.fullstack.backend.service.PegawaiImportService;
+import com.tegar.fullstack.backend.service.PegawaiSearchIndex;
+import com.tegar.fullstack.backend.service.PegawaiService;
+import com.tegar.fullstack.backend.service.SqlStatisticsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class PegawaiControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MasterDataRegistry masterDataRegistry;
+
+	@Autowired
+	private JabatanRepository jabatanRepository;
+
+	@Autowired
+	private PegawaiService pegawaiService;
+
+	@Autowired
+	private PegawaiImportService pegawaiImportService;
+
+	@Autowired
+	private PegawaiSearchIndex pegawaiSearchIndex;
+
+	@Autowired
+	private SqlStatisticsService sqlStatisticsService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void hapusData() {
+		jabatanRepository.findAll().stream()
+				.filter(j -> j.getNama().equals("Jabatan Uji"))
+				.forEach(jabatanRepository::delete);
+
+		List<String> idUsers = jdbcTemplate.queryForList(
+				"SELECT id_user FROM users WHERE email LIKE '%@daftar.test'", String.class);
+		jdbcTemplate.update("DELETE FROM pegawai WHERE id_user IN "
+				+ "(SELECT id_user FROM users WHERE email LIKE '%@daftar.test')");
+		jdbcTemplate.update("DELETE FROM users WHERE email LIKE '%@daftar.test'");
+		pegawaiSearchIndex.remove(idUsers);
+	}
+
+	@Test
+	void comboServesPreSerializedPayloadWithStableEtag() throws Exception {
+		MasterDataRegistry.ComboJson combo = masterDataRegistry.getComboJson(MasterDataRegistry.Jenis.JABATAN);
+
+		String etag = mockMvc.perform(get("/api/pegawai/combo/jabatan"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("application/json"))
+				.andExpect(content().bytes(combo.body()))
+				.andExpect(jsonPath("$[0].kode").value(1))
+				.andExpect(jsonPath("$[0].nama").value("Manager"))
+				.andExpect(header().string("ETag", combo.etag()))
+				.andExpect(header().string("Cache-Control", "no-cache"))
+				.andReturn().getResponse().getHeader("ETag");
+
+		mockMvc.perform(get("/api/pegawai/combo/jabatan"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", etag));
+	}
+
+	@Test
+	void comboAnswersMatchingIfNoneMatchWith304() throws Exception {
+		String etag = masterDataRegistry.getComboJson(MasterDataRegistry.Jenis.DEPARTEMEN).etag();
+
+		mockMvc.perform(get("/api/pegawai/combo/departemen").header("If-None-Match", etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string("ETag", etag))
+				.andExpect(content().bytes(new byte[0]));
+
+		mockMvc.perform(get("/api/pegawai/combo/departemen").header("If-None-Match", "\"lama\""))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void comboEtagChangesAfterMasterEdit() throws Exception {
+		String lama = mockMvc.perform(get("/api/pegawai/combo/jabatan"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader("ETag");
+
+		jabatanRepository.save(Jabatan.builder().nama("Jabatan Uji").build());
+
+		String baru = mockMvc.perform(get("/api/pegawai/combo/jabatan").header("If-None-Match", lama))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[?(@.nama == 'Jabatan Uji')]").exists())
+				.andReturn().getResponse().getHeader("ETag");
+		assertThat(baru).isNotEqualTo(lama);
+
+		mockMvc.perform(get("/api/pegawai/combo/jabatan").header("If-None-Match", baru))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void daftarAnswersMatchingVersionWith304WithoutQueryingPegawai() throws Exception {
+		String etag = mockMvc.perform(get("/api/pegawai/daftar"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Cache-Control", "no-cache"))
+				.andReturn().getResponse().getHeader("ETag");
+
+		sqlStatisticsService.reset();
+		mockMvc.perform(get("/api/pegawai/daftar").header("If-None-Match", etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string("ETag", etag));
+
+		List<String> sql = sqlStatisticsService.getTop("sering", 1000).stream()
+				.map(SqlStatistikResponse::getSql)
+				.toList();
+		assertThat(sql).anyMatch(s -> s.toLowerCase().contains("data_version"));
+		assertThat(sql).noneMatch(s -> s.toLowerCase().matches(".*\\bfrom pegawai\\b.*"));
+	}
+
+	@Test
+	void daftarEtagChangesAfterUbahPegawaiImportAndBulkUpdate() throws Exception {
+		jdbcTemplate.update("INSERT INTO users (id_user, email, password, profile, is_active) "
+				+ "VALUES ('DFT1', 'dft1@daftar.test', 'x', 'PEGAWAI', TRUE)");
+		jdbcTemplate.update("INSERT INTO pegawai (id_user, nama_lengkap, kd_departemen) "
+				+ "VALUES ('DFT1', 'Pegawai Daftar', 1)");
+		String etag = etagDaftar(null);
+
+		pegawaiService.ubahPegawai("DFT1", UbahPegawaiRequest.builder()
+				.namaLengkap("Pegawai Daftar Baru")
+				.email("dft1@daftar.test")
+				.tempatLahir("Bandung")
+				.tanggalLahir(631152000000L)
+				.kdJenisKelamin(1)
+				.kdPendidikan(5)
+				.kdJabatan(3)
+				.kdDepartemen(1)
+				.kdUnitKerja(1)
+				.build());
+		etag = etagDaftar(etag);
+
+		pegawaiImportService.importPegawai(new MockMultipartFile("file", "pegawai.csv", "text/csv",
+				("namaLengkap,email,tempatLahir,tanggalLahir,kdJenisKelamin,kdPendidikan,kdJabatan,"
+						+ "kdDepartemen,kdUnitKerja,password\n"
+						+ "Pegawai Impor,dft2@daftar.test,Solo,631152000000,1,5,3,1,1,rahasia1\n").getBytes()));
+		etag = etagDaftar(etag);
+
+		pegawaiService.ubahPegawaiMassal(UbahPegawaiMassalRequest.builder()
+				.idUsers(List.of("DFT1"))
+				.kdDepartemen(2)
+				.build());
+		etagDaftar(etag);
+	}
+
+	// ETag daftar saat ini; harus berbeda dari ETag sebelumnya (jika ada)
+	private String etagDaftar(String sebelumnya) throws Exception {
+		var request = get("/api/pegawai/daftar");
+		if (sebelumnya != null) {
+			request.header("If-None-Match", sebelumnya);
+		}
+		String etag = mockMvc.perform(request)
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader("ETag");
+		assertThat(etag).isNotEqualTo(sebelumnya);
+		return etag;
+	}
+}
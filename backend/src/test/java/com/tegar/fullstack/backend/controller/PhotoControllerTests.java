@@ -0,0 +1,110 @@
+package com.tegar.fullstack.backend.controller;
+
+import com.tegar.fullstack.backend.service.PhotoStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PhotoControllerTests {
+
+	@TempDir
+	static Path uploads;
+
+	@DynamicPropertySource
+	static void uploadDir(DynamicPropertyRegistry registry) {
+		registry.add("app.upload.dir", uploads::toString);
+	}
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PhotoStorageService photoStorageService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void hapusPegawai() {
+		jdbcTemplate.update("DELETE FROM pegawai WHERE id_user LIKE 'FOTO%'");
+		jdbcTemplate.update("DELETE FROM users WHERE id_user LIKE 'FOTO%'");
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void servesPhotoWithImmutableCachingAndRanges() throws Exception {
+		String photo = photoStorageService.simpan(
+				new MockMultipartFile("files", "a.png", "image/png", "0123456789".getBytes()));
+		String etag = "\"" + photo.substring(photo.lastIndexOf('/') + 1, photo.lastIndexOf('.')) + "\"";
+
+		mockMvc.perform(get("/uploads/" + photo))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("image/png"))
+				.andExpect(content().string("0123456789"))
+				.andExpect(header().string("ETag", etag))
+				.andExpect(header().string("Cache-Control", "private, max-age=31536000, immutable"));
+
+		mockMvc.perform(get("/uploads/" + photo).header("If-None-Match", etag))
+				.andExpect(status().isNotModified());
+
+		mockMvc.perform(get("/uploads/" + photo).header("Range", "bytes=2-5"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string("Content-Range", "bytes 2-5/10"))
+				.andExpect(content().string("2345"));
+
+		mockMvc.perform(get("/uploads/" + photo).header("Range", "bytes=20-"))
+				.andExpect(status().isRequestedRangeNotSatisfiable());
+	}
+
+	@Test
+	void photosAreOnlyVisibleToAdminHrdOrTheirOwner() throws Exception {
+		String milik = photoStorageService.simpan(
+				new MockMultipartFile("files", "a.png", "image/png", "milik".getBytes()));
+		String lain = photoStorageService.simpan(
+				new MockMultipartFile("files", "b.png", "image/png", "lain".getBytes()));
+		tambahPegawai("FOTO1", milik);
+		tambahPegawai("FOTO2", lain);
+
+		mockMvc.perform(get("/uploads/" + milik))
+				.andExpect(status().isForbidden());
+		mockMvc.perform(get("/uploads/" + milik).with(user("foto1@test.com").roles("PEGAWAI")))
+				.andExpect(status().isOk())
+				.andExpect(content().string("milik"));
+		mockMvc.perform(get("/uploads/" + lain).with(user("foto1@test.com").roles("PEGAWAI")))
+				.andExpect(status().isForbidden());
+		mockMvc.perform(get("/uploads/" + lain).with(user("hrd@test.com").roles("HRD")))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void rejectsPathsOutsideUploadDir() throws Exception {
+		mockMvc.perform(get("/uploads/../application.png"))
+				.andExpect(status().is4xxClientError());
+		mockMvc.perform(get("/uploads/.tmp/upload-1.png"))
+				.andExpect(status().isNotFound());
+	}
+
+	private void tambahPegawai(String id, String photo) {
+		jdbcTemplate.update("INSERT INTO users (id_user, email, password, profile, is_active) VALUES (?, ?, 'x', 'PEGAWAI', TRUE)",
+				id, id.toLowerCase() + "@test.com");
+		jdbcTemplate.update("INSERT INTO pegawai (id_user, nama_lengkap, photo) VALUES (?, ?, ?)", id, "Pegawai " + id, photo);
+	}
+}
@@ -0,0 +1,174 @@
+package com.tegar.fullstack.backend.repository;
+
+import com.tegar.fullstack.backend.entity.*;
+import com.tegar.fullstack.backend.exception.BusinessException;
+import com.tegar.fullstack.backend.service.PresensiService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "app.presensi.partition-recheck-ms=0")
+@Transactional
+class PresensiRepositoryTests {
+
+	@Autowired
+	private PresensiRepository presensiRepository;
+
+	@Autowired
+	private PresensiPartitions presensiPartitions;
+
+	@Autowired
+	private PresensiService presensiService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void saveRoutesRowsToMonthlyPartitions() {
+		Pegawai pegawai = tambahPegawai("PRS1");
+		long jan = epoch(2019, 1, 31);
+		long feb = epoch(2019, 2, 1);
+		long mar = epoch(2019, 3, 15);
+
+		presensiRepository.save(presensi(pegawai, jan));
+		presensiRepository.save(presensi(pegawai, feb));
+		presensiRepository.save(presensi(pegawai, mar));
+
+		assertThat(presensiPartitions.getPartisi())
+				.contains(YearMonth.of(2019, 1), YearMonth.of(2019, 2), YearMonth.of(2019, 3));
+		assertThat(count("presensi_201901")).isEqualTo(1);
+		assertThat(count("presensi_201902")).isEqualTo(1);
+
+		// Rentang Jan-Feb hanya membaca dua partisi
+		assertThat(presensiPartitions.tablesBetween(jan, feb))
+				.containsExactly("presensi_201901", "presensi_201902");
+		List<Presensi> rentang = presensiRepository.findByTglAbsensiBetween(jan, feb);
+		assertThat(rentang).extracting(Presensi::getTglAbsensi).containsExactly(jan, feb);
+		assertThat(rentang.get(0).getPegawai().getNamaLengkap()).isEqualTo("Pegawai PRS1");
+
+		assertThat(presensiRepository.findByPegawaiAndTglAbsensiBetween(pegawai, jan, mar)).hasSize(3);
+	}
+
+	@Test
+	void saveUpdatesExistingRowInPlace() {
+		Pegawai pegawai = tambahPegawai("PRS2");
+		long tgl = epoch(2019, 5, 10);
+
+		Presensi presensi = presensiRepository.save(presensi(pegawai, tgl));
+		presensi.setJamKeluar("17:00:00");
+		presensi.setStatusAbsen(entityManager.find(StatusAbsen.class, 1));
+		presensiRepository.save(presensi);
+
+		Presensi found = presensiRepository.findByPegawaiAndTglAbsensi(pegawai, tgl);
+		assertThat(found.getId()).isEqualTo(presensi.getId());
+		assertThat(found.getJamMasuk()).isEqualTo("08:00:00");
+		assertThat(found.getJamKeluar()).isEqualTo("17:00:00");
+		assertThat(found.getStatusAbsen().getNama()).isNotNull();
+		assertThat(presensiRepository.findByPegawaiAndTglAbsensi(pegawai, epoch(2019, 5, 11))).isNull();
+	}
+
+	@Test
+	void partitionRejectsRowsFromOtherMonths() {
+		presensiPartitions.ensure(YearMonth.of(2019, 7));
+
+		assertThatThrownBy(() -> jdbcTemplate.update(
+				"INSERT INTO presensi_201907 (id, id_user, tgl_absensi) VALUES (-1, 'X', ?)", epoch(2019, 8, 1)))
+				.hasMessageContaining("CK_PRESENSI_201907_TGL");
+	}
+
+	@Test
+	void partitionsChangedByOtherNodesAreRechecked() {
+		YearMonth bulan = YearMonth.of(2017, 4);
+		assertThat(presensiPartitions.getPartisi()).doesNotContain(bulan);
+
+		// Dibuat node lain: tidak lewat PresensiPartitions node ini
+		PresensiPartitions.ddl(bulan, ZoneId.systemDefault()).forEach(jdbcTemplate::execute);
+		assertThat(presensiPartitions.tableFor(epoch(2017, 4, 3))).isEqualTo("presensi_201704");
+
+		jdbcTemplate.execute("DROP TABLE presensi_201704");
+		assertThat(presensiPartitions.bulanBetween(epoch(2017, 3, 1), epoch(2017, 5, 1))).isEmpty();
+		assertThat(presensiPartitions.getPartisi()).doesNotContain(bulan);
+	}
+
+	@Test
+	void backdatedAbsenOlderThanAMonthIsAccepted() {
+		Pegawai pegawai = tambahPegawai("PRS3");
+		LocalDate tanggal = LocalDate.now().minusMonths(5).withDayOfMonth(2);
+		long tgl = tanggal.atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+
+		presensiService.absen(pegawai.getId(), tgl, 1);
+
+		assertThat(presensiRepository.findByPegawaiAndTglAbsensi(pegawai, tgl).getStatusAbsen()).isNotNull();
+	}
+
+	@Test
+	void onDemandPartitionsAreLimitedToConfiguredRange() {
+		Pegawai pegawai = tambahPegawai("PRS4");
+		YearMonth sekarang = YearMonth.now();
+
+		// Batas bawah (120 bulan lalu) dan atas (12 bulan ke depan) masih boleh
+		presensiRepository.save(presensi(pegawai, epoch(sekarang.minusMonths(120))));
+		presensiRepository.save(presensi(pegawai, epoch(sekarang.plusMonths(12))));
+		assertThat(presensiPartitions.getPartisi()).contains(sekarang.minusMonths(120), sekarang.plusMonths(12));
+
+		assertThatThrownBy(() -> presensiRepository.save(presensi(pegawai, epoch(sekarang.minusMonths(121)))))
+				.isInstanceOf(BusinessException.class)
+				.hasMessageContaining("di luar rentang");
+		assertThatThrownBy(() -> presensiRepository.save(presensi(pegawai, epoch(sekarang.plusMonths(13)))))
+				.isInstanceOf(BusinessException.class);
+		assertThat(presensiPartitions.getPartisi()).doesNotContain(sekarang.minusMonths(121), sekarang.plusMonths(13));
+	}
+
+	private long epoch(YearMonth bulan) {
+		return epoch(bulan.getYear(), bulan.getMonthValue(), 1);
+	}
+
+	private Presensi presensi(Pegawai pegawai, long tgl) {
+		return Presensi.builder()
+				.pegawai(pegawai)
+				.tglAbsensi(tgl)
+				.jamMasuk("08:00:00")
+				.build();
+	}
+
+	private long epoch(int year, int month, int day) {
+		return LocalDate.of(year, month, day).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+	}
+
+	private int count(String table) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+	}
+
+	private Pegawai tambahPegawai(String id) {
+		User user = User.builder()
+				.id(id)
+				.email(id.toLowerCase() + "@test.com")
+				.password("x")
+				.profile("PEGAWAI")
+				.active(true)
+				.build();
+		entityManager.persist(user);
+
+		Pegawai pegawai = Pegawai.builder()
+				.user(user)
+				.namaLengkap("Pegawai " + id)
+				.build();
+		entityManager.persist(pegawai);
+		entityManager.flush();
+		return pegawai;
+	}
+}
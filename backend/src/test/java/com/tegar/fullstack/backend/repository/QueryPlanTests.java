@@ -0,0 +1,136 @@
+package com.tegar.fullstack.backend.repository;
+
+import com.tegar.fullstack.backend.dto.request.DaftarPegawaiRequest;
+import com.tegar.fullstack.backend.entity.DataVersion;
+import com.tegar.fullstack.backend.entity.Departemen;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Menjalankan EXPLAIN atas SQL yang dihasilkan setiap query repository dan
+ * memastikan tabel utamanya dibaca lewat index (lihat V2__indeks_query.sql
+ * dan index partisi di PresensiPartitions).
+ * <p>
+ * findAllResponses dan findAllPhotos sengaja membaca seluruh tabel sehingga
+ * tidak diperiksa di sini.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.tegar.fullstack.backend.repository.QueryPlanTests$RecordingInspector")
+@Transactional
+class QueryPlanTests {
+
+	@Autowired
+	private PresensiPartitions presensiPartitions;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PegawaiRepository pegawaiRepository;
+
+	@Autowired
+	private DepartemenRepository departemenRepository;
+
+	@Autowired
+	private DataVersionRepository dataVersionRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void presensiQueriesUseIndexes() {
+		long hariIni = Instant.now().getEpochSecond();
+		String table = presensiPartitions.tableForWrite(hariIni).toUpperCase();
+
+		assertThat(explain(PartitionedPresensiRepository.sqlPerPegawaiTanggal(table)))
+				.contains("IDX_" + table + "_USER_TGL");
+		assertThat(explain(PartitionedPresensiRepository.sqlPerPegawaiRentang(List.of(table))))
+				.contains("IDX_" + table + "_USER_TGL");
+		assertThat(explain(PartitionedPresensiRepository.sqlRentang(List.of(table))))
+				.contains("IDX_" + table + "_TGL");
+	}
+
+	@Test
+	void userQueriesUseEmailIndex() {
+		assertThat(plan(() -> userRepository.findByEmail("a@b.c"))).contains("UK_USERS_EMAIL");
+		assertThat(plan(() -> userRepository.findByEmailAndProfile("a@b.c", "ADMIN"))).contains("UK_USERS_EMAIL");
+		assertThat(plan(() -> userRepository.existsByEmail("a@b.c"))).contains("UK_USERS_EMAIL");
+		assertThat(plan(() -> userRepository.findExistingEmails(List.of("a@b.c", "d@e.f")))).contains("UK_USERS_EMAIL");
+	}
+
+	@Test
+	void pegawaiQueriesUseIndexes() {
+		Departemen departemen = entityManager.getReference(Departemen.class, 1);
+
+		// Cukup index FK kd_departemen
+		assertThat(plan(() -> pegawaiRepository.findByDepartemen(departemen)))
+				.contains("KD_DEPARTEMEN = ?1").doesNotContain("TABLESCAN");
+		assertThat(plan(() -> pegawaiRepository.findResponsesByIds(List.of("USR000001", "USR000002"))))
+				.contains("PRIMARY_KEY");
+		assertThat(plan(() -> pegawaiRepository.findExistingNikUsers(List.of("1", "2"))))
+				.contains("UK_PEGAWAI_NIK");
+		assertThat(plan(() -> pegawaiRepository.findPerubahan(0L, "", Limit.of(10))))
+				.contains("IDX_PEGAWAI_PERUBAHAN");
+		// Dengan filter, H2 boleh memilih index filter atau index nama+cursor
+		assertThat(plan(() -> pegawaiRepository.findHalaman(
+				DaftarPegawaiRequest.builder().kdJabatan(1).build(), "a", "USR000001", 10)))
+				.containsAnyOf("IDX_PEGAWAI_JABATAN", "IDX_PEGAWAI_NAMA").doesNotContain("PEGAWAI.TABLESCAN");
+		assertThat(plan(() -> pegawaiRepository.findHalaman(
+				DaftarPegawaiRequest.builder().build(), "a", "USR000001", 10)))
+				.contains("IDX_PEGAWAI_NAMA");
+	}
+
+	@Test
+	void masterQueriesUseIndexes() {
+		assertThat(plan(() -> departemenRepository.findByNama("HRD"))).contains("IDX_DEPARTEMEN_NAMA");
+		assertThat(plan(() -> dataVersionRepository.findVersi(DataVersion.PEGAWAI))).contains("PRIMARY_KEY");
+	}
+
+	/**
+	 * Jalankan query, ambil SELECT terakhir yang dikirim Hibernate, lalu EXPLAIN
+	 * dengan semua parameter bernilai null (rencana H2 tidak bergantung nilai).
+	 */
+	private String plan(Runnable query) {
+		RecordingInspector.SQL.clear();
+		query.run();
+
+		String sql = RecordingInspector.SQL.stream()
+				.filter(s -> s.trim().toLowerCase().startsWith("select"))
+				.reduce((first, second) -> second)
+				.orElseThrow(() -> new AssertionError("Tidak ada SELECT yang tercatat"));
+
+		return explain(sql);
+	}
+
+	private String explain(String sql) {
+		Object[] params = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+		String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, params));
+		return plan.toUpperCase();
+	}
+
+	public static class RecordingInspector implements StatementInspector {
+
+		static final List<String> SQL = new ArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			SQL.add(sql);
+			return sql;
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.BackendApplication;
+import com.tegar.fullstack.backend.dto.request.UbahPegawaiMassalRequest;
+import com.tegar.fullstack.backend.dto.response.PegawaiCariResponse;
+import com.tegar.fullstack.backend.entity.Departemen;
+import com.tegar.fullstack.backend.entity.Pegawai;
+import com.tegar.fullstack.backend.repository.DepartemenRepository;
+import com.tegar.fullstack.backend.repository.PegawaiRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Dua node berbagi satu database H2 (in-memory bernama, satu JVM): node A
+ * adalah context test ini, node B context kedua tanpa second-level cache.
+ * Tanpa @Transactional karena node B hanya melihat data yang sudah commit.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=true")
+class CacheInvalidationBusTests {
+
+	@Autowired
+	private CacheInvalidationBus invalidationBus;
+
+	@Autowired
+	private PegawaiRepository pegawaiRepository;
+
+	@Autowired
+	private PegawaiSearchIndex pegawaiSearchIndex;
+
+	@Autowired
+	private MasterDataRegistry masterDataRegistry;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private ConfigurableApplicationContext nodeB;
+
+	@AfterEach
+	void tutup() {
+		if (nodeB != null) {
+			nodeB.close();
+		}
+		jdbcTemplate.update("DELETE FROM pegawai WHERE id_user = 'INV1'");
+		jdbcTemplate.update("DELETE FROM users WHERE id_user = 'INV1'");
+		jdbcTemplate.update("DELETE FROM departemen WHERE nama_departemen = 'Departemen Node B'");
+	}
+
+	@Test
+	void writesOnOneNodeEvictCachesOnTheOther() {
+		jdbcTemplate.update("INSERT INTO users (id_user, email, password, profile, is_active) "
+				+ "VALUES ('INV1', 'inv1@test.com', 'x', 'PEGAWAI', TRUE)");
+		jdbcTemplate.update("INSERT INTO pegawai (id_user, nama_lengkap, kd_departemen, kd_jabatan) "
+				+ "VALUES ('INV1', 'Pegawai Invalidasi', 1, 1)");
+		nodeB = new SpringApplicationBuilder(BackendApplication.class)
+				.properties("server.port=0", "spring.jpa.properties.hibernate.cache.use_second_level_cache=false")
+				.run();
+		CacheInvalidationBus busB = nodeB.getBean(CacheInvalidationBus.class);
+		assertThat(busB.getNodeId()).isNotEqualTo(invalidationBus.getNodeId());
+
+		// Node A: posisi awal, lalu isi cache
+		invalidationBus.poll();
+		pegawaiSearchIndex.refreshAfterCommit(List.of("INV1"));
+		assertThat(departemenPegawai()).isEqualTo(1);
+		int jumlahDepartemen = masterDataRegistry.getCombo(MasterDataRegistry.Jenis.DEPARTEMEN).size();
+
+		// Node B: ubah pegawai dan tambah master
+		nodeB.getBean(PegawaiService.class).ubahPegawaiMassal(UbahPegawaiMassalRequest.builder()
+				.idUsers(List.of("INV1"))
+				.kdDepartemen(2)
+				.build());
+		Departemen baru = nodeB.getBean(DepartemenRepository.class)
+				.save(Departemen.builder().nama("Departemen Node B").build());
+
+		// Sebelum poll node A masih membaca cache lokalnya
+		assertThat(departemenPegawai()).isEqualTo(1);
+		assertThat(masterDataRegistry.exists(MasterDataRegistry.Jenis.DEPARTEMEN, baru.getId())).isFalse();
+		assertThat(cariDiDepartemen(2)).isEmpty();
+
+		invalidationBus.poll();
+
+		assertThat(departemenPegawai()).isEqualTo(2);
+		assertThat(masterDataRegistry.exists(MasterDataRegistry.Jenis.DEPARTEMEN, baru.getId())).isTrue();
+		assertThat(masterDataRegistry.getCombo(MasterDataRegistry.Jenis.DEPARTEMEN)).hasSize(jumlahDepartemen + 1);
+		assertThat(cariDiDepartemen(2)).extracting(PegawaiCariResponse::getIdUser).containsExactly("INV1");
+	}
+
+	private Integer departemenPegawai() {
+		return transactionTemplate.execute(status -> {
+			Pegawai pegawai = pegawaiRepository.findById("INV1").orElseThrow();
+			return pegawai.getDepartemen().getId();
+		});
+	}
+
+	private List<PegawaiCariResponse> cariDiDepartemen(Integer kdDepartemen) {
+		return pegawaiSearchIndex.search("invalidasi", new PegawaiSearchIndex.Filter(kdDepartemen, null, null, null), 10);
+	}
+}
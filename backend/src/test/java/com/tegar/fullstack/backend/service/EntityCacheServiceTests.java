@@ -0,0 +1,116 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.dto.request.UbahPegawaiMassalRequest;
+import com.tegar.fullstack.backend.dto.response.CacheRegionResponse;
+import com.tegar.fullstack.backend.entity.Pegawai;
+import com.tegar.fullstack.backend.repository.PegawaiRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tanpa @Transactional: entri cache READ_WRITE hanya relevan untuk data yang
+ * sudah commit.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=true")
+class EntityCacheServiceTests {
+
+	@Autowired
+	private PegawaiRepository pegawaiRepository;
+
+	@Autowired
+	private PegawaiService pegawaiService;
+
+	@Autowired
+	private EntityCacheService entityCacheService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void hapusPegawai() {
+		jdbcTemplate.update("DELETE FROM pegawai WHERE id_user = 'CCH1'");
+		jdbcTemplate.update("DELETE FROM users WHERE id_user = 'CCH1'");
+		entityManagerFactory.getCache().evictAll();
+	}
+
+	@Test
+	void pegawaiAndMastersAreServedFromCacheAndEvictedAfterBulkUpdate() {
+		jdbcTemplate.update("INSERT INTO users (id_user, email, password, profile, is_active) "
+				+ "VALUES ('CCH1', 'cch1@test.com', 'x', 'PEGAWAI', TRUE)");
+		jdbcTemplate.update("INSERT INTO pegawai (id_user, nama_lengkap, kd_departemen, kd_jabatan) "
+				+ "VALUES ('CCH1', 'Pegawai Cache', 1, 1)");
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		muat();
+		statistics.clear();
+		Pegawai pegawai = muat();
+
+		assertThat(pegawai.getDepartemen().getNama()).isNotNull();
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+		assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+
+		pegawaiService.ubahPegawaiMassal(UbahPegawaiMassalRequest.builder()
+				.idUsers(List.of("CCH1"))
+				.kdDepartemen(2)
+				.build());
+
+		assertThat(muat().getDepartemen().getId()).isEqualTo(2);
+		assertThat(entityCacheService.getStatistik())
+				.filteredOn(r -> r.getRegion().equals(Pegawai.class.getName()))
+				.singleElement()
+				.satisfies(r -> {
+					assertThat(r.getHit()).isPositive();
+					assertThat(r.getBatas()).isEqualTo(20000L);
+				});
+	}
+
+	@Test
+	void bulkUpdateByFilterEvictsEveryRowItChanged() {
+		jdbcTemplate.update("INSERT INTO users (id_user, email, password, profile, is_active) "
+				+ "VALUES ('CCH1', 'cch1@test.com', 'x', 'PEGAWAI', TRUE)");
+		jdbcTemplate.update("INSERT INTO pegawai (id_user, nama_lengkap, kd_departemen, kd_jabatan) "
+				+ "VALUES ('CCH1', 'Pegawai Cache', 5, 3)");
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		muat();
+		statistics.clear();
+		assertThat(muat().getDepartemen().getId()).isEqualTo(5);
+		assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+
+		// Sasaran dari filter, bukan daftar ID
+		int jumlah = pegawaiService.ubahPegawaiMassal(UbahPegawaiMassalRequest.builder()
+				.filter(UbahPegawaiMassalRequest.Filter.builder().kdDepartemen(5).kdJabatan(3).build())
+				.kdDepartemen(4)
+				.build());
+
+		assertThat(jumlah).isPositive();
+		Pegawai pegawai = muat();
+		assertThat(pegawai.getDepartemen().getId()).isEqualTo(4);
+		assertThat(pegawai.getDepartemen().getNama()).isEqualTo("Marketing");
+	}
+
+	private Pegawai muat() {
+		return transactionTemplate.execute(status -> {
+			Pegawai pegawai = pegawaiRepository.findById("CCH1").orElseThrow();
+			pegawai.getDepartemen().getNama();
+			return pegawai;
+		});
+	}
+}
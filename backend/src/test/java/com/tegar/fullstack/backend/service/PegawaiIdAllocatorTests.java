@@ -0,0 +1,37 @@
+package com.tegar.fullstack.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class PegawaiIdAllocatorTests {
+
+	@Autowired
+	private PegawaiIdAllocator pegawaiIdAllocator;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void nodesWithDifferentBlockSizeNeverShareIds() {
+		// Node lain dengan block-size berbeda dari INCREMENT sequence
+		PegawaiIdAllocator nodeLain = new PegawaiIdAllocator(jdbcTemplate, transactionManager, "USR", 6, 200);
+
+		Set<String> ids = new HashSet<>();
+		for (int i = 0; i < 150; i++) {
+			assertThat(ids.add(pegawaiIdAllocator.nextId())).isTrue();
+			assertThat(ids.add(nodeLain.nextId())).isTrue();
+		}
+	}
+}
@@ -0,0 +1,200 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.dto.response.ImportPegawaiResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class PegawaiImportServiceTests {
+
+	private static final String HEADER = "namaLengkap,email,tempatLahir,tanggalLahir,kdJenisKelamin,"
+			+ "kdPendidikan,kdJabatan,kdDepartemen,kdUnitKerja,password,nikUser\n";
+
+	@Autowired
+	private PegawaiImportService pegawaiImportService;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private PegawaiSearchIndex pegawaiSearchIndex;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void hapusPegawai() {
+		List<String> idUsers = jdbcTemplate.queryForList(
+				"SELECT id_user FROM users WHERE email LIKE '%@impor.test'", String.class);
+		jdbcTemplate.update("DELETE FROM pegawai WHERE id_user IN "
+				+ "(SELECT id_user FROM users WHERE email LIKE '%@impor.test')");
+		jdbcTemplate.update("DELETE FROM users WHERE email LIKE '%@impor.test'");
+		pegawaiSearchIndex.remove(idUsers);
+	}
+
+	@Test
+	void csvRowsAreInsertedWithAllocatedIdsAndHashedPasswords() {
+		String csv = HEADER
+				+ "Budi Santoso,budi@impor.test,Bandung,631152000000,1,5,3,2,1,rahasia1,3201000000000001\n"
+				+ "\"Sari, S.Kom\",sari@impor.test,Jakarta,662688000000,2,4,2,1,2,rahasia2,\n";
+
+		ImportPegawaiResponse response = pegawaiImportService.importPegawai(
+				new MockMultipartFile("file", "pegawai.csv", "text/csv", csv.getBytes()));
+
+		assertThat(response.getTotal()).isEqualTo(2);
+		assertThat(response.getBerhasil()).isEqualTo(2);
+		assertThat(response.getKesalahan()).isEmpty();
+
+		Map<String, Object> budi = tersimpan("budi@impor.test");
+		assertThat((String) budi.get("id_user")).matches("USR[0-9]+");
+		assertThat(budi.get("nama_lengkap")).isEqualTo("Budi Santoso");
+		assertThat(budi.get("kd_departemen")).isEqualTo(2);
+		assertThat(budi.get("nik_user")).isEqualTo("3201000000000001");
+		assertThat((String) budi.get("password")).isNotEqualTo("rahasia1");
+		assertThat(passwordEncoder.matches("rahasia1", (String) budi.get("password"))).isTrue();
+
+		Map<String, Object> sari = tersimpan("sari@impor.test");
+		assertThat(sari.get("nama_lengkap")).isEqualTo("Sari, S.Kom");
+		assertThat(sari.get("nik_user")).isNull();
+		assertThat(sari.get("id_user")).isNotEqualTo(budi.get("id_user"));
+		assertThat(passwordEncoder.matches("rahasia2", (String) sari.get("password"))).isTrue();
+	}
+
+	@Test
+	void jsonRowsAreInsertedWithAllocatedIdsAndHashedPasswords() {
+		String json = "[\n"
+				+ "  {\"namaLengkap\": \"Andi\", \"email\": \"andi@impor.test\", \"tempatLahir\": \"Solo\",\n"
+				+ "   \"tanggalLahir\": 631152000000, \"kdJenisKelamin\": 1, \"kdPendidikan\": 5,\n"
+				+ "   \"kdJabatan\": 3, \"kdDepartemen\": 2, \"kdUnitKerja\": 1,\n"
+				+ "   \"password\": \"rahasia1\", \"passwordC\": \"rahasia1\"}\n"
+				+ "]";
+
+		ImportPegawaiResponse response = pegawaiImportService.importPegawai(
+				new MockMultipartFile("file", "pegawai.json", "application/json", json.getBytes()));
+
+		assertThat(response.getBerhasil()).isEqualTo(1);
+		assertThat(response.getKesalahan()).isEmpty();
+
+		Map<String, Object> andi = tersimpan("andi@impor.test");
+		assertThat((String) andi.get("id_user")).matches("USR[0-9]+");
+		assertThat(andi.get("tempat_lahir")).isEqualTo("Solo");
+		assertThat(passwordEncoder.matches("rahasia1", (String) andi.get("password"))).isTrue();
+	}
+
+	@Test
+	void jsonElementThatIsNotAnObjectIsReportedAndRestIsImported() {
+		String json = "[\n"
+				+ "  \"bukan objek\",\n"
+				+ "  [1, 2],\n"
+				+ "  {\"namaLengkap\": \"Andi\", \"email\": \"andi@impor.test\", \"tempatLahir\": \"Solo\",\n"
+				+ "   \"tanggalLahir\": 631152000000, \"kdJenisKelamin\": 1, \"kdPendidikan\": 5,\n"
+				+ "   \"kdJabatan\": 3, \"kdDepartemen\": 2, \"kdUnitKerja\": 1,\n"
+				+ "   \"password\": \"rahasia1\", \"passwordC\": \"rahasia1\"}\n"
+				+ "]";
+
+		ImportPegawaiResponse response = pegawaiImportService.importPegawai(
+				new MockMultipartFile("file", "pegawai.json", "application/json", json.getBytes()));
+
+		assertThat(response.getTotal()).isEqualTo(3);
+		assertThat(response.getBerhasil()).isEqualTo(1);
+		assertThat(response.getKesalahan())
+				.extracting(ImportPegawaiResponse.Kesalahan::getBaris, ImportPegawaiResponse.Kesalahan::getMessage)
+				.containsExactly(
+						tuple(2, "Elemen harus berupa objek"),
+						tuple(3, "Elemen harus berupa objek"));
+		assertThat(tersimpan("andi@impor.test")).isNotNull();
+	}
+
+	@Test
+	void duplicateEmailAndNikInsideFileAreRejected() {
+		String csv = HEADER
+				+ "Budi,budi@impor.test,Bandung,631152000000,1,5,3,2,1,rahasia1,3201000000000001\n"
+				+ "Budi Lagi,budi@impor.test,Bandung,631152000000,1,5,3,2,1,rahasia1,3201000000000002\n"
+				+ "Sari,sari@impor.test,Jakarta,662688000000,2,4,2,1,2,rahasia2,3201000000000001\n";
+
+		ImportPegawaiResponse response = pegawaiImportService.importPegawai(
+				new MockMultipartFile("file", "pegawai.csv", "text/csv", csv.getBytes()));
+
+		assertThat(response.getBerhasil()).isEqualTo(1);
+		assertThat(response.getKesalahan())
+				.extracting(ImportPegawaiResponse.Kesalahan::getBaris, ImportPegawaiResponse.Kesalahan::getMessage)
+				.containsExactly(
+						tuple(3, "Email duplikat di dalam file"),
+						tuple(4, "NIK duplikat di dalam file"));
+		assertThat(tersimpan("budi@impor.test").get("nama_lengkap")).isEqualTo("Budi");
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM users WHERE email = 'sari@impor.test'", Integer.class)).isZero();
+	}
+
+	@Test
+	void emailAlreadyRegisteredIsRejected() {
+		jdbcTemplate.update("INSERT INTO users (id_user, email, password, profile, is_active) "
+				+ "VALUES ('IMP1', 'ada@impor.test', 'x', 'PEGAWAI', TRUE)");
+
+		String csv = HEADER
+				+ "Ada,ada@impor.test,Bandung,631152000000,1,5,3,2,1,rahasia1,\n"
+				+ "Baru,baru@impor.test,Bandung,631152000000,1,5,3,2,1,rahasia1,\n";
+
+		ImportPegawaiResponse response = pegawaiImportService.importPegawai(
+				new MockMultipartFile("file", "pegawai.csv", "text/csv", csv.getBytes()));
+
+		assertThat(response.getBerhasil()).isEqualTo(1);
+		assertThat(response.getKesalahan())
+				.extracting(ImportPegawaiResponse.Kesalahan::getBaris, ImportPegawaiResponse.Kesalahan::getMessage)
+				.containsExactly(tuple(2, "Email sudah terdaftar"));
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT password FROM users WHERE email = 'ada@impor.test'", String.class)).isEqualTo("x");
+		assertThat(tersimpan("baru@impor.test")).isNotNull();
+	}
+
+	@Test
+	void csvErrorsReportFileLineNumbers() {
+		String csv = "namaLengkap,email,tanggalLahir\n"
+				+ "\n"
+				+ "Budi,budi.import@test.com,bukan-angka\n"
+				+ "\n"
+				+ "Sari,sari.import@test.com,1\n";
+
+		ImportPegawaiResponse response = pegawaiImportService.importPegawai(
+				new MockMultipartFile("file", "pegawai.csv", "text/csv", csv.getBytes()));
+
+		assertThat(response.getKesalahan())
+				.extracting(ImportPegawaiResponse.Kesalahan::getBaris)
+				.containsExactly(3, 5);
+		assertThat(response.getKesalahan().get(0).getMessage()).isEqualTo("Format angka tidak valid");
+	}
+
+	@Test
+	void jsonErrorsReportLineWhereObjectStarts() {
+		String json = "[\n"
+				+ "  {\"namaLengkap\": \"Budi\", \"email\": \"budi.json@test.com\"},\n"
+				+ "\n"
+				+ "  {\"namaLengkap\": \"Sari\",\n"
+				+ "   \"tanggalLahir\": \"bukan-angka\"}\n"
+				+ "]";
+
+		ImportPegawaiResponse response = pegawaiImportService.importPegawai(
+				new MockMultipartFile("file", "pegawai.json", "application/json", json.getBytes()));
+
+		assertThat(response.getKesalahan())
+				.extracting(ImportPegawaiResponse.Kesalahan::getBaris)
+				.containsExactly(2, 4);
+	}
+
+	private Map<String, Object> tersimpan(String email) {
+		return jdbcTemplate.queryForMap("SELECT u.id_user, u.password, p.nama_lengkap, p.tempat_lahir, "
+				+ "p.kd_departemen, p.nik_user FROM users u JOIN pegawai p ON p.id_user = u.id_user "
+				+ "WHERE u.email = ?", email);
+	}
+}
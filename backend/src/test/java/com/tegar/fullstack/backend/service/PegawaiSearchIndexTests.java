@@ -0,0 +1,140 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.config.TenantProperties;
+import com.tegar.fullstack.backend.dto.response.PegawaiCariResponse;
+import com.tegar.fullstack.backend.dto.response.PegawaiResponse;
+import com.tegar.fullstack.backend.repository.PegawaiRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PegawaiSearchIndexTests {
+
+	private static final String[] NAMA_DEPAN = {"Budi", "Siti", "Agus", "Dewi", "Rina", "Andi", "Tegar", "Wati"};
+	private static final String[] NAMA_BELAKANG = {"Santoso", "Rahayu", "Pratama", "Lestari", "Saputra", "Wijaya"};
+
+	private PegawaiSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new PegawaiSearchIndex(null, null, new TenantProperties());
+
+		List<PegawaiResponse> pegawai = new ArrayList<>();
+		for (int i = 0; i < 50_000; i++) {
+			pegawai.add(pegawai(i, NAMA_DEPAN[i % NAMA_DEPAN.length] + " " + NAMA_BELAKANG[i % NAMA_BELAKANG.length] + " " + i,
+					(i % 5) + 1));
+		}
+		index.load(pegawai);
+	}
+
+	@Test
+	void findsBySubstringOfNameNikAndEmail() {
+		assertThat(index.search("tegar saputra 22", null, 5))
+				.extracting(PegawaiCariResponse::getIdUser)
+				.contains("USR000022");
+
+		assertThat(index.search("3210012345", null, 5))
+				.extracting(PegawaiCariResponse::getIdUser)
+				.containsExactly("USR012345");
+
+		assertThat(index.search("pegawai777@", null, 5))
+				.extracting(PegawaiCariResponse::getIdUser)
+				.containsExactly("USR000777");
+	}
+
+	@Test
+	void shortQueryMatchesWordPrefix() {
+		List<PegawaiCariResponse> hasil = index.search("Sa", null, 20);
+
+		assertThat(hasil).hasSize(20);
+		assertThat(hasil).allMatch(p -> p.getNamaLengkap().toLowerCase().matches("(^|.*\\s)sa.*"));
+	}
+
+	@Test
+	void appliesFacetFilters() {
+		List<PegawaiCariResponse> hasil = index.search("budi", new PegawaiSearchIndex.Filter(3, null, null, null), 50);
+
+		assertThat(hasil).isNotEmpty();
+		assertThat(hasil).allMatch(p -> p.getKdDepartemen() == 3 && p.getNamaLengkap().startsWith("Budi"));
+	}
+
+	@Test
+	void upsertReplacesPreviousEntry() {
+		index.upsert(List.of(pegawai(5, "Zulkarnaen Baru", 2)));
+
+		assertThat(index.search("zulkarnaen", null, 5))
+				.extracting(PegawaiCariResponse::getIdUser)
+				.containsExactly("USR000005");
+		assertThat(index.search("rina lestari 5", null, 50))
+				.extracting(PegawaiCariResponse::getIdUser)
+				.doesNotContain("USR000005");
+		assertThat(index.size()).isEqualTo(50_000);
+	}
+
+	@Test
+	void rankingConsidersEveryMatchNotOnlyEarlyPostings() {
+		// Nama yang diawali query ada di ordinal terakhir, setelah 50.000 kecocokan substring
+		index.upsert(List.of(pegawai(60_000, "Santoso Awal", 1)));
+
+		assertThat(index.search("santoso", null, 3))
+				.extracting(PegawaiCariResponse::getNamaLengkap)
+				.first()
+				.isEqualTo("Santoso Awal");
+	}
+
+	@Test
+	void changesDuringRebuildAreNotLost() {
+		PegawaiRepository repository = mock(PegawaiRepository.class);
+		PegawaiSearchIndex rebuilt = new PegawaiSearchIndex(repository, null, new TenantProperties());
+		when(repository.findAllResponses()).thenAnswer(invocation -> {
+			List<PegawaiResponse> snapshot = List.of(pegawai(1, "Lama Sekali", 1), pegawai(2, "Tetap Ada", 1));
+			// Refresh yang selesai saat rebuild masih membaca database
+			rebuilt.upsert(List.of(pegawai(1, "Baru Diubah", 1)));
+			rebuilt.remove(List.of("USR000002"));
+			return snapshot;
+		});
+
+		rebuilt.rebuild();
+
+		assertThat(rebuilt.search("baru", null, 5)).extracting(PegawaiCariResponse::getIdUser)
+				.containsExactly("USR000001");
+		assertThat(rebuilt.search("lama", null, 5)).isEmpty();
+		assertThat(rebuilt.search("tetap", null, 5)).isEmpty();
+	}
+
+	@Test
+	void typeaheadStaysFastOnFiftyThousandEmployees() {
+		String[] queries = {"b", "bu", "bud", "budi s", "santoso 12", "wati", "@test", "321001"};
+
+		// Pemanasan JIT
+		for (int i = 0; i < 200; i++) {
+			index.search(queries[i % queries.length], null, 20);
+		}
+
+		int runs = 400;
+		long start = System.nanoTime();
+		for (int i = 0; i < runs; i++) {
+			index.search(queries[i % queries.length], null, 20);
+		}
+		double averageMs = (System.nanoTime() - start) / 1_000_000.0 / runs;
+
+		assertThat(averageMs).isLessThan(5.0);
+	}
+
+	private PegawaiResponse pegawai(int i, String nama, int kdDepartemen) {
+		return PegawaiResponse.builder()
+				.idUser(String.format("USR%06d", i))
+				.namaLengkap(nama)
+				.nikUser(String.format("321%07d", i))
+				.email("pegawai" + i + "@test.com")
+				.kdDepartemen(kdDepartemen)
+				.kdJabatan(1)
+				.build();
+	}
+}
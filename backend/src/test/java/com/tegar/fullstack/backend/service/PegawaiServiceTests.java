@@ -0,0 +1,327 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.dto.request.DaftarPegawaiRequest;
+import com.tegar.fullstack.backend.dto.request.UbahPegawaiMassalRequest;
+import com.tegar.fullstack.backend.dto.response.HalamanResponse;
+import com.tegar.fullstack.backend.dto.response.PegawaiPerubahanResponse;
+import com.tegar.fullstack.backend.dto.response.PegawaiResponse;
+import com.tegar.fullstack.backend.entity.*;
+import com.tegar.fullstack.backend.exception.BusinessException;
+import com.tegar.fullstack.backend.repository.DataVersionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class PegawaiServiceTests {
+
+	@Autowired
+	private PegawaiService pegawaiService;
+
+	@Autowired
+	private PegawaiQueryService pegawaiQueryService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private DataVersionRepository dataVersionRepository;
+
+	@Autowired
+	private PegawaiVersi pegawaiVersi;
+
+	@Autowired
+	private PegawaiSearchIndex pegawaiSearchIndex;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+
+	@Test
+	void getAllPegawaiUsesOneStatementRegardlessOfSize() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		tambahPegawai(0, 5);
+		long statementsForFive = countStatements(statistics, 5);
+
+		tambahPegawai(5, 50);
+		long statementsForFifty = countStatements(statistics, 50);
+
+		assertThat(statementsForFive).isEqualTo(1);
+		assertThat(statementsForFifty).isEqualTo(statementsForFive);
+	}
+
+	@Test
+	void getAllPegawaiIncludesMasterNames() {
+		tambahPegawai(0, 1);
+		entityManager.clear();
+
+		PegawaiResponse response = pegawaiQueryService.getAllPegawai().get(0);
+
+		assertThat(response.getIdUser()).isEqualTo("TST0");
+		assertThat(response.getEmail()).isEqualTo("tst0@test.com");
+		assertThat(response.getNamaJabatan()).isNotNull();
+		assertThat(response.getNamaDepartemen()).isNotNull();
+		assertThat(response.getNamaPendidikan()).isNotNull();
+	}
+
+	@Test
+	void queryServiceReturnsProjectionsWithoutLoadingEntities() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		tambahPegawai(0, 3);
+		entityManager.clear();
+		statistics.clear();
+
+		assertThat(pegawaiQueryService.getAllPegawai()).hasSize(3);
+		assertThat(pegawaiQueryService.getHalamanPegawai(DaftarPegawaiRequest.builder().build()).getData()).hasSize(3);
+		pegawaiQueryService.getComboDepartemenHrd();
+
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void getHalamanPegawaiWalksAllPagesInOrder() {
+		tambahPegawai(0, 20);
+		entityManager.clear();
+
+		List<PegawaiResponse> all = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			HalamanResponse<PegawaiResponse> halaman = pegawaiQueryService.getHalamanPegawai(DaftarPegawaiRequest.builder()
+					.kdDepartemen(1)
+					.size(7)
+					.setelah(cursor)
+					.build());
+			all.addAll(halaman.getData());
+			cursor = halaman.getCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertThat(pages).isEqualTo(3);
+		assertThat(all).hasSize(20);
+		assertThat(all).extracting(PegawaiResponse::getIdUser).doesNotHaveDuplicates();
+		assertThat(all).isSortedAccordingTo(Comparator.comparing(PegawaiResponse::getNamaLengkap));
+	}
+
+	@Test
+	void getHalamanPegawaiFiltersByMaster() {
+		tambahPegawai(0, 3);
+		entityManager.clear();
+
+		HalamanResponse<PegawaiResponse> halaman = pegawaiQueryService.getHalamanPegawai(DaftarPegawaiRequest.builder()
+				.kdDepartemen(-1)
+				.build());
+
+		assertThat(halaman.getData()).isEmpty();
+		assertThat(halaman.isAdaLagi()).isFalse();
+	}
+
+	@Test
+	void getPerubahanPegawaiReturnsChangesAfterCursorWithTombstones() {
+		tambahPegawai(0, 5);
+
+		HalamanResponse<PegawaiPerubahanResponse> awal = pegawaiQueryService.getPerubahanPegawai(null, 3);
+		assertThat(awal.getData()).extracting(PegawaiPerubahanResponse::getIdUser)
+				.containsExactly("TST0", "TST1", "TST2");
+		assertThat(awal.isAdaLagi()).isTrue();
+
+		pegawaiService.nonaktifkanPegawai("TST1");
+		entityManager.clear();
+
+		HalamanResponse<PegawaiPerubahanResponse> delta = pegawaiQueryService.getPerubahanPegawai(awal.getCursor(), 10);
+		assertThat(delta.getData()).extracting(PegawaiPerubahanResponse::getIdUser)
+				.containsExactly("TST3", "TST4", "TST1");
+		assertThat(delta.getData().get(0).getPegawai().getNamaLengkap()).isEqualTo("Pegawai 3");
+		assertThat(delta.getData().get(2).isAktif()).isFalse();
+		assertThat(delta.getData().get(2).getPegawai()).isNull();
+
+		HalamanResponse<PegawaiPerubahanResponse> kosong = pegawaiQueryService.getPerubahanPegawai(delta.getCursor(), 10);
+		assertThat(kosong.getData()).isEmpty();
+		assertThat(kosong.getCursor()).isEqualTo(delta.getCursor());
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void getPerubahanPegawaiDeliversRowCommittedAfterCursorWasTaken() throws Exception {
+		try {
+			transactionTemplate.executeWithoutResult(status -> simpanPegawai("SYN1"));
+			HalamanResponse<PegawaiPerubahanResponse> awal = pegawaiQueryService.getPerubahanPegawai(null, 1000);
+			assertThat(awal.getData()).extracting(PegawaiPerubahanResponse::getIdUser).contains("SYN1");
+
+			// Transaksi lambat (mis. import besar): waktu perubahannya lebih tua dari
+			// cursor dan baru commit setelah klien sinkron
+			CountDownLatch dicap = new CountDownLatch(1);
+			CountDownLatch lanjut = new CountDownLatch(1);
+			CompletableFuture<Void> lambat = CompletableFuture.runAsync(() ->
+					transactionTemplate.executeWithoutResult(status -> {
+						simpanPegawai("SYN2");
+						jdbcTemplate.update("UPDATE pegawai SET updated_at_epoch = 1 WHERE id_user = 'SYN2'");
+						dicap.countDown();
+						try {
+							lanjut.await(10, TimeUnit.SECONDS);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}));
+			assertThat(dicap.await(10, TimeUnit.SECONDS)).isTrue();
+
+			HalamanResponse<PegawaiPerubahanResponse> selama =
+					pegawaiQueryService.getPerubahanPegawai(awal.getCursor(), 1000);
+			assertThat(selama.getData()).isEmpty();
+
+			lanjut.countDown();
+			lambat.get(10, TimeUnit.SECONDS);
+
+			HalamanResponse<PegawaiPerubahanResponse> delta =
+					pegawaiQueryService.getPerubahanPegawai(selama.getCursor(), 1000);
+			assertThat(delta.getData()).extracting(PegawaiPerubahanResponse::getIdUser).containsExactly("SYN2");
+		} finally {
+			jdbcTemplate.update("DELETE FROM pegawai WHERE id_user LIKE 'SYN%'");
+			jdbcTemplate.update("DELETE FROM users WHERE id_user LIKE 'SYN%'");
+			pegawaiSearchIndex.remove(List.of("SYN1", "SYN2"));
+		}
+	}
+
+	@Test
+	void ubahPegawaiMassalByFilterChangesOnlyMatchingRows() {
+		tambahPegawai(0, 3);
+		ubahDepartemen("TST2", 2);
+
+		int jumlah = pegawaiService.ubahPegawaiMassal(UbahPegawaiMassalRequest.builder()
+				.filter(UbahPegawaiMassalRequest.Filter.builder().kdDepartemen(1).kdJabatan(1).build())
+				.kdDepartemen(3)
+				.build());
+		entityManager.clear();
+
+		assertThat(jumlah).isGreaterThanOrEqualTo(2);
+		assertThat(entityManager.find(Pegawai.class, "TST0").getDepartemen().getId()).isEqualTo(3);
+		assertThat(entityManager.find(Pegawai.class, "TST1").getDepartemen().getId()).isEqualTo(3);
+		assertThat(entityManager.find(Pegawai.class, "TST2").getDepartemen().getId()).isEqualTo(2);
+	}
+
+	@Test
+	void ubahPegawaiMassalByIdListChangesOnlyListedRows() {
+		tambahPegawai(0, 3);
+		long versi = dataVersionRepository.findVersi(DataVersion.PEGAWAI);
+
+		int jumlah = pegawaiService.ubahPegawaiMassal(UbahPegawaiMassalRequest.builder()
+				.idUsers(List.of("TST0", "TST2"))
+				.kdJabatan(2)
+				.kdUnitKerja(1)
+				.build());
+		entityManager.clear();
+
+		assertThat(jumlah).isEqualTo(2);
+		assertThat(entityManager.find(Pegawai.class, "TST0").getJabatan().getId()).isEqualTo(2);
+		assertThat(entityManager.find(Pegawai.class, "TST1").getJabatan().getId()).isEqualTo(1);
+		assertThat(entityManager.find(Pegawai.class, "TST2").getJabatan().getId()).isEqualTo(2);
+		assertThat(dataVersionRepository.findVersi(DataVersion.PEGAWAI)).isEqualTo(versi + 1);
+	}
+
+	@Test
+	void ubahPegawaiMassalWithNoMatchingTargetChangesNothing() {
+		tambahPegawai(0, 1);
+		long versi = dataVersionRepository.findVersi(DataVersion.PEGAWAI);
+
+		int jumlah = pegawaiService.ubahPegawaiMassal(UbahPegawaiMassalRequest.builder()
+				.idUsers(List.of("TIDAK_ADA"))
+				.kdDepartemen(2)
+				.build());
+
+		assertThat(jumlah).isZero();
+		assertThat(dataVersionRepository.findVersi(DataVersion.PEGAWAI)).isEqualTo(versi);
+	}
+
+	@Test
+	void ubahPegawaiMassalRejectsUnknownMasterCode() {
+		tambahPegawai(0, 1);
+
+		assertThatThrownBy(() -> pegawaiService.ubahPegawaiMassal(UbahPegawaiMassalRequest.builder()
+				.idUsers(List.of("TST0"))
+				.kdDepartemen(-1)
+				.build()))
+				.isInstanceOf(BusinessException.class)
+				.hasMessage("Departemen tidak ditemukan")
+				.extracting("statusCode").isEqualTo(501);
+	}
+
+	private void simpanPegawai(String idUser) {
+		jdbcTemplate.update("INSERT INTO users (id_user, email, password, profile, is_active) "
+				+ "VALUES (?, ?, 'x', 'PEGAWAI', TRUE)", idUser, idUser.toLowerCase() + "@test.com");
+		jdbcTemplate.update("INSERT INTO pegawai (id_user, nama_lengkap, kd_departemen, updated_at_epoch) "
+				+ "VALUES (?, ?, 1, ?)", idUser, "Pegawai " + idUser, Instant.now().getEpochSecond());
+		pegawaiVersi.tandaiBerubah(List.of(idUser));
+	}
+
+	private void ubahDepartemen(String idUser, int kdDepartemen) {
+		entityManager.find(Pegawai.class, idUser).setDepartemen(entityManager.find(Departemen.class, kdDepartemen));
+		entityManager.flush();
+	}
+
+	private long countStatements(Statistics statistics, int expectedSize) {
+		entityManager.clear();
+		statistics.clear();
+
+		List<PegawaiResponse> result = pegawaiQueryService.getAllPegawai();
+
+		assertThat(result).hasSize(expectedSize);
+		return statistics.getPrepareStatementCount();
+	}
+
+	private void tambahPegawai(int from, int to) {
+		Jabatan jabatan = entityManager.find(Jabatan.class, 1);
+		Departemen departemen = entityManager.find(Departemen.class, 1);
+		UnitKerja unitKerja = entityManager.find(UnitKerja.class, 1);
+		Pendidikan pendidikan = entityManager.find(Pendidikan.class, 1);
+		JenisKelamin jenisKelamin = entityManager.find(JenisKelamin.class, 1);
+
+		for (int i = from; i < to; i++) {
+			User user = User.builder()
+					.id("TST" + i)
+					.email("tst" + i + "@test.com")
+					.password("x")
+					.profile("PEGAWAI")
+					.active(true)
+					.build();
+			entityManager.persist(user);
+
+			entityManager.persist(Pegawai.builder()
+					.user(user)
+					.namaLengkap("Pegawai " + i)
+					.jabatan(jabatan)
+					.departemen(departemen)
+					.unitKerja(unitKerja)
+					.pendidikan(pendidikan)
+					.jenisKelamin(jenisKelamin)
+					.build());
+		}
+		entityManager.flush();
+	}
+}
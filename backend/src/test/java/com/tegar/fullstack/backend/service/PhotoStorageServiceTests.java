@@ -0,0 +1,75 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.config.TenantProperties;
+import com.tegar.fullstack.backend.repository.PegawaiRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PhotoStorageServiceTests {
+
+	@TempDir
+	Path root;
+
+	private final PegawaiRepository pegawaiRepository = mock(PegawaiRepository.class);
+
+	@Test
+	void simpanDeduplicatesIdenticalContent() throws Exception {
+		PhotoStorageService storage = new PhotoStorageService(pegawaiRepository, new TenantProperties(), new SimpleMeterRegistry(), root.toString(), 60);
+
+		String first = storage.simpan(photo("a.jpg", "isi foto"));
+		String second = storage.simpan(photo("b.JPG", "isi foto"));
+		String other = storage.simpan(photo("c.jpg", "foto lain"));
+
+		assertThat(first).isEqualTo(second).matches("[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.jpg");
+		assertThat(other).isNotEqualTo(first);
+		assertThat(Files.readString(root.resolve(first))).isEqualTo("isi foto");
+		assertThat(countFiles()).isEqualTo(2);
+	}
+
+	@Test
+	void sapuDeletesOnlyUnreferencedFilesPastGrace() throws Exception {
+		PhotoStorageService storage = new PhotoStorageService(pegawaiRepository, new TenantProperties(), new SimpleMeterRegistry(), root.toString(), 60);
+
+		String referenced = storage.simpan(photo("a.jpg", "dipakai"));
+		String orphan = storage.simpan(photo("b.jpg", "yatim"));
+		String fresh = storage.simpan(photo("c.jpg", "baru"));
+		Path legacy = Files.writeString(root.resolve("0d6f5c1e-legacy.jpg"), "lama");
+
+		FileTime old = FileTime.from(Instant.now().minus(2, ChronoUnit.HOURS));
+		Files.setLastModifiedTime(root.resolve(referenced), old);
+		Files.setLastModifiedTime(root.resolve(orphan), old);
+		Files.setLastModifiedTime(legacy, old);
+		when(pegawaiRepository.findAllPhotos()).thenReturn(List.of(referenced));
+
+		int deleted = storage.sapu();
+
+		assertThat(deleted).isEqualTo(2);
+		assertThat(root.resolve(referenced)).exists();
+		assertThat(root.resolve(fresh)).exists();
+		assertThat(root.resolve(orphan)).doesNotExist();
+		assertThat(legacy).doesNotExist();
+	}
+
+	private MockMultipartFile photo(String name, String content) {
+		return new MockMultipartFile("files", name, "image/jpeg", content.getBytes());
+	}
+
+	private long countFiles() throws Exception {
+		try (var walk = Files.walk(root)) {
+			return walk.filter(Files::isRegularFile).count();
+		}
+	}
+}
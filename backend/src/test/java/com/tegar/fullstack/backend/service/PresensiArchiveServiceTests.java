@@ -0,0 +1,236 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.entity.Pegawai;
+import com.tegar.fullstack.backend.entity.Presensi;
+import com.tegar.fullstack.backend.entity.StatusAbsen;
+import com.tegar.fullstack.backend.exception.BusinessException;
+import com.tegar.fullstack.backend.repository.PresensiArchive;
+import com.tegar.fullstack.backend.repository.PresensiPartitions;
+import com.tegar.fullstack.backend.repository.PresensiRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tanpa @Transactional: pengarsipan menghapus baris di transaksi terpisah,
+ * jadi data uji harus sudah di-commit.
+ */
+@SpringBootTest(properties = "app.presensi.archive.batch-size=2")
+class PresensiArchiveServiceTests {
+
+	private static final YearMonth BULAN = YearMonth.of(2018, 3);
+
+	@TempDir
+	static Path archiveDir;
+
+	@DynamicPropertySource
+	static void archiveDir(DynamicPropertyRegistry registry) {
+		registry.add("app.presensi.archive.dir", () -> archiveDir.toString());
+	}
+
+	@Autowired
+	private PresensiArchiveService presensiArchiveService;
+
+	@Autowired
+	private PresensiRepository presensiRepository;
+
+	@Autowired
+	private PresensiPartitions presensiPartitions;
+
+	@Autowired
+	private PresensiArchive presensiArchive;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void hapusPegawai() {
+		jdbcTemplate.update("DELETE FROM pegawai WHERE id_user LIKE 'ARS%'");
+		jdbcTemplate.update("DELETE FROM users WHERE id_user LIKE 'ARS%'");
+	}
+
+	@Test
+	void arsipkanBulanMovesRowsToColumnarFileAndKeepsReadsTransparent() {
+		tambahPegawai("ARS1");
+		tambahPegawai("ARS2");
+		long awal = epoch(1);
+		long akhir = epoch(31);
+
+		presensiRepository.save(presensi("ARS2", epoch(2), "08:01:02", "17:00:00", 1));
+		presensiRepository.save(presensi("ARS1", epoch(2), "07:59:00", null, null));
+		presensiRepository.save(presensi("ARS1", epoch(31), "08:30:00", "16:45:30", 1));
+		presensiRepository.save(presensi("ARS1", epoch(15), null, null, null));
+		presensiRepository.save(presensi("ARS2", epoch(15), "09:00:00", null, 1));
+		List<Presensi> sebelum = presensiRepository.findByTglAbsensiBetween(awal, akhir);
+
+		presensiArchiveService.arsipkanBulan(BULAN);
+
+		assertThat(presensiPartitions.getPartisi()).doesNotContain(BULAN);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables "
+				+ "WHERE LOWER(table_name) = 'presensi_201803'", Integer.class)).isZero();
+		assertThat(Files.exists(archiveDir.resolve("presensi_201803.col"))).isTrue();
+		assertThat(presensiArchive.count(BULAN)).isEqualTo(5);
+
+		List<Presensi> sesudah = presensiRepository.findByTglAbsensiBetween(awal, akhir);
+		assertThat(sesudah).hasSize(sebelum.size());
+		for (int i = 0; i < sebelum.size(); i++) {
+			Presensi expected = sebelum.get(i);
+			Presensi actual = sesudah.get(i);
+			assertThat(actual.getId()).isEqualTo(expected.getId());
+			assertThat(actual.getTglAbsensi()).isEqualTo(expected.getTglAbsensi());
+			assertThat(actual.getPegawai().getId()).isEqualTo(expected.getPegawai().getId());
+			assertThat(actual.getPegawai().getNamaLengkap()).isEqualTo(expected.getPegawai().getNamaLengkap());
+			assertThat(actual.getJamMasuk()).isEqualTo(expected.getJamMasuk());
+			assertThat(actual.getJamKeluar()).isEqualTo(expected.getJamKeluar());
+			assertThat(actual.getCreatedAtEpoch()).isEqualTo(expected.getCreatedAtEpoch());
+			if (expected.getStatusAbsen() == null) {
+				assertThat(actual.getStatusAbsen()).isNull();
+			} else {
+				assertThat(actual.getStatusAbsen().getNama()).isEqualTo(expected.getStatusAbsen().getNama());
+			}
+		}
+
+		Pegawai ars1 = Pegawai.builder().id("ARS1").build();
+		assertThat(presensiRepository.findByPegawaiAndTglAbsensiBetween(ars1, epoch(10), akhir))
+				.extracting(Presensi::getTglAbsensi)
+				.containsExactly(epoch(15), epoch(31));
+		assertThat(presensiRepository.findByPegawaiAndTglAbsensi(ars1, epoch(31)).getJamKeluar())
+				.isEqualTo("16:45:30");
+		assertThat(presensiRepository.findByPegawaiAndTglAbsensi(ars1, epoch(3))).isNull();
+
+		assertThatThrownBy(() -> presensiRepository.save(presensi("ARS1", epoch(20), "08:00:00", null, null)))
+				.isInstanceOf(BusinessException.class);
+	}
+
+	@Test
+	void lockedPartitionRejectsWritesBeforeSnapshot() {
+		tambahPegawai("ARS3");
+		YearMonth bulan = YearMonth.of(2018, 5);
+		long tgl = LocalDate.of(2018, 5, 7).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+		Presensi ada = presensiRepository.save(presensi("ARS3", tgl, "08:00:00", null, null));
+
+		// Tahap pertama arsipkanBulan, dilihat dari node yang masih menulis
+		presensiPartitions.kunci(bulan);
+		ada.setJamKeluar("17:00:00");
+		assertThatThrownBy(() -> presensiRepository.save(ada))
+				.isInstanceOf(BusinessException.class)
+				.hasMessageContaining("sedang diarsipkan");
+		assertThatThrownBy(() -> presensiRepository.save(presensi("ARS3", tgl + 86400, "08:00:00", null, null)))
+				.isInstanceOf(BusinessException.class);
+
+		presensiArchiveService.arsipkanBulan(bulan);
+		assertThat(presensiArchive.count(bulan)).isEqualTo(1);
+	}
+
+	@Test
+	void monthLeasedByAnotherNodeIsSkipped() {
+		tambahPegawai("ARS4");
+		YearMonth bulan = YearMonth.of(2018, 7);
+		long tgl = LocalDate.of(2018, 7, 2).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+		presensiRepository.save(presensi("ARS4", tgl, "08:00:00", null, null));
+
+		jdbcTemplate.update("INSERT INTO job_lock (nama, node_id, sampai_ms) VALUES (?, 'node-lain', ?)",
+				"presensi-arsip-presensi_201807", System.currentTimeMillis() + 60_000);
+		presensiArchiveService.arsipkanBulan(bulan);
+		assertThat(presensiPartitions.ada(bulan)).isTrue();
+		assertThat(presensiArchive.isArchived(bulan)).isFalse();
+
+		// Lease node lain kedaluwarsa: node ini mengambil alih
+		jdbcTemplate.update("UPDATE job_lock SET sampai_ms = 0 WHERE nama = 'presensi-arsip-presensi_201807'");
+		presensiArchiveService.arsipkanBulan(bulan);
+		assertThat(presensiPartitions.ada(bulan)).isFalse();
+		assertThat(presensiArchive.count(bulan)).isEqualTo(1);
+
+		// Node yang terlambat mendapat lease tidak mengerjakan apa-apa lagi
+		presensiArchiveService.arsipkanBulan(bulan);
+		assertThat(presensiArchive.count(bulan)).isEqualTo(1);
+	}
+
+	@Test
+	void monthArchivedByAnotherNodeIsReadFromItsArchive() throws Exception {
+		tambahPegawai("ARS7");
+		YearMonth bulan = YearMonth.of(2018, 9);
+		long tgl = LocalDate.of(2018, 9, 4).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+		long akhir = LocalDate.of(2018, 9, 30).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+		presensiRepository.save(presensi("ARS7", tgl, "08:00:00", "17:00:00", null));
+		List<Presensi> rows = presensiRepository.findByTglAbsensiBetween(tgl, akhir);
+		assertThat(rows).hasSize(1);
+
+		// Node lain menulis arsip lalu men-drop partisi; node ini belum menerima invalidasi
+		new PresensiArchive(archiveDir.toString()).write(bulan, rows);
+		jdbcTemplate.execute("DROP TABLE presensi_201809");
+
+		assertThat(presensiRepository.findByTglAbsensiBetween(tgl, akhir))
+				.extracting(Presensi::getJamKeluar)
+				.containsExactly("17:00:00");
+		assertThat(presensiRepository.findByPegawaiAndTglAbsensi(Pegawai.builder().id("ARS7").build(), tgl))
+				.isNotNull();
+	}
+
+	@Test
+	void monthArchivedElsewhereIsFoundWhenNoPartitionExists() throws Exception {
+		tambahPegawai("ARS8");
+		YearMonth bulan = YearMonth.of(2015, 6);
+		long tgl = LocalDate.of(2015, 6, 8).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+		assertThat(presensiRepository.findByTglAbsensiBetween(tgl, tgl)).isEmpty();
+
+		Presensi row = presensi("ARS8", tgl, "07:30:00", null, null);
+		row.setId(-8L);
+		new PresensiArchive(archiveDir.toString()).write(bulan, List.of(row));
+
+		assertThat(presensiRepository.findByTglAbsensiBetween(tgl, tgl))
+				.extracting(Presensi::getJamMasuk)
+				.containsExactly("07:30:00");
+	}
+
+	@Test
+	void existingArchiveFileIsNeverOverwritten() throws Exception {
+		YearMonth bulan = YearMonth.of(2016, 2);
+		long tgl = LocalDate.of(2016, 2, 3).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+		Presensi satu = presensi("ARS5", tgl, "08:00:00", null, null);
+		satu.setId(1L);
+		Presensi dua = presensi("ARS6", tgl, "08:00:00", null, null);
+		dua.setId(2L);
+
+		presensiArchive.write(bulan, List.of(satu));
+		presensiArchive.write(bulan, List.of(satu, dua));
+
+		assertThat(presensiArchive.count(bulan)).isEqualTo(1);
+		assertThat(Files.list(archiveDir).filter(f -> f.toString().endsWith(".part"))).isEmpty();
+	}
+
+	private Presensi presensi(String idUser, long tgl, String masuk, String keluar, Integer kdStatus) {
+		return Presensi.builder()
+				.pegawai(Pegawai.builder().id(idUser).build())
+				.tglAbsensi(tgl)
+				.jamMasuk(masuk)
+				.jamKeluar(keluar)
+				.statusAbsen(kdStatus != null ? StatusAbsen.builder().id(kdStatus).build() : null)
+				.build();
+	}
+
+	private long epoch(int day) {
+		return LocalDate.of(BULAN.getYear(), BULAN.getMonth(), day).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+	}
+
+	private void tambahPegawai(String id) {
+		jdbcTemplate.update("INSERT INTO users (id_user, email, password, profile, is_active) VALUES (?, ?, 'x', 'PEGAWAI', TRUE)",
+				id, id.toLowerCase() + "@test.com");
+		jdbcTemplate.update("INSERT INTO pegawai (id_user, nama_lengkap) VALUES (?, ?)", id, "Pegawai " + id);
+	}
+}
@@ -0,0 +1,99 @@
+package com.tegar.fullstack.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotServiceTests {
+
+	@TempDir
+	Path dir;
+
+	private final DriverManagerDataSource dataSource =
+			new DriverManagerDataSource("jdbc:h2:mem:snapshot_test;DB_CLOSE_DELAY=-1", "sa", "");
+	private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+	@AfterEach
+	void bersihkan() {
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+	}
+
+	@Test
+	void restoreLoadsLatestSnapshotAndReplaysCommittedJournal() throws Exception {
+		jdbcTemplate.execute("CREATE TABLE pegawai (id_user VARCHAR(20) PRIMARY KEY, nama VARCHAR(50), aktif BOOLEAN)");
+		jdbcTemplate.execute("CREATE TABLE status (kd INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, nama VARCHAR(20))");
+		jdbcTemplate.execute("CREATE SEQUENCE user_seq START WITH 1");
+
+		SnapshotService service = new SnapshotService(dataSource, dir.toString());
+		assertThat(service.restore()).isFalse();
+		service.start(false);
+
+		jdbcTemplate.update("INSERT INTO pegawai VALUES ('A', 'Ani', TRUE), ('B', 'Budi', TRUE), ('C', 'C''est', FALSE)");
+		jdbcTemplate.update("INSERT INTO status (nama) VALUES ('Hadir')");
+		service.snapshot();
+
+		jdbcTemplate.update("UPDATE pegawai SET nama = 'Ani Baru' WHERE id_user = 'A'");
+		jdbcTemplate.update("UPDATE pegawai SET id_user = 'B2' WHERE id_user = 'B'");
+		jdbcTemplate.update("DELETE FROM pegawai WHERE id_user = 'C'");
+		jdbcTemplate.update("INSERT INTO status (nama) VALUES ('Izin')");
+		jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR user_seq", Long.class);
+		jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR user_seq", Long.class);
+		new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+			jdbcTemplate.update("INSERT INTO pegawai VALUES ('X', 'Batal', TRUE)");
+			status.setRollbackOnly();
+		});
+		service.close();
+
+		assertThat(dir.resolve("snapshot-1.sql.gz")).doesNotExist();
+		assertThat(Files.size(dir.resolve("journal-2.log"))).isPositive();
+
+		// "Restart": database kosong, pulihkan dari disk
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+		SnapshotService restarted = new SnapshotService(dataSource, dir.toString());
+		assertThat(restarted.restore()).isTrue();
+
+		assertThat(jdbcTemplate.queryForList("SELECT id_user || ':' || nama FROM pegawai ORDER BY id_user", String.class))
+				.containsExactly("A:Ani Baru", "B2:Budi");
+		assertThat(jdbcTemplate.queryForList("SELECT nama FROM status ORDER BY kd", String.class))
+				.containsExactly("Hadir", "Izin");
+		assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR user_seq", Long.class)).isEqualTo(3);
+		jdbcTemplate.update("INSERT INTO status (nama) VALUES ('Sakit')");
+		assertThat(jdbcTemplate.queryForObject("SELECT kd FROM status WHERE nama = 'Sakit'", Integer.class)).isEqualTo(3);
+
+		// Jurnal generasi yang sama dilanjutkan setelah restore
+		restarted.start(true);
+		jdbcTemplate.update("INSERT INTO pegawai VALUES ('D', 'Dewi', TRUE)");
+		restarted.close();
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+		assertThat(new SnapshotService(dataSource, dir.toString()).restore()).isTrue();
+		assertThat(jdbcTemplate.queryForList("SELECT id_user FROM pegawai ORDER BY id_user", String.class))
+				.containsExactly("A", "B2", "D");
+	}
+
+	@Test
+	void sequenceCreatedAfterSnapshotIsRestored() throws Exception {
+		jdbcTemplate.execute("CREATE TABLE pegawai (id_user VARCHAR(20) PRIMARY KEY)");
+		SnapshotService service = new SnapshotService(dataSource, dir.toString());
+		service.start(false);
+
+		// Seperti PegawaiIdAllocator: sequence baru dibuat saat ID pertama dialokasikan
+		jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS user_id_seq START WITH 7 INCREMENT BY 50");
+		assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR user_id_seq", Long.class)).isEqualTo(7);
+		service.close();
+
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+		assertThat(new SnapshotService(dataSource, dir.toString()).restore()).isTrue();
+		assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR user_id_seq", Long.class)).isEqualTo(57);
+		assertThat(jdbcTemplate.queryForObject("SELECT increment FROM information_schema.sequences "
+				+ "WHERE LOWER(sequence_name) = 'user_id_seq'", Long.class)).isEqualTo(50);
+	}
+}
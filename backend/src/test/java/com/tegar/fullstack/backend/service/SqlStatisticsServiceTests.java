@@ -0,0 +1,73 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.dto.response.SqlStatistikResponse;
+import com.tegar.fullstack.backend.repository.PegawaiRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SqlStatisticsServiceTests {
+
+	@Autowired
+	private SqlStatisticsService sqlStatisticsService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PegawaiRepository pegawaiRepository;
+
+	@Test
+	void normalizeStripsLiteralsAndCollapsesInLists() {
+		assertThat(SqlStatisticsService.normalize(
+				"SELECT  *\n FROM presensi_202401 p1_0 WHERE p1_0.id_user = 'USR000001' AND p1_0.kd_status IN (?, ?, ?) LIMIT 10"))
+				.isEqualTo("SELECT * FROM presensi_yyyymm p1_0 WHERE p1_0.id_user = ? AND p1_0.kd_status IN (?...) LIMIT ?");
+		assertThat(SqlStatisticsService.normalize("SELECT 1 FROM users WHERE id_user IN (?, ?)"))
+				.isEqualTo(SqlStatisticsService.normalize("SELECT 7 FROM users WHERE id_user IN (?,?,?,?)"));
+	}
+
+	@Test
+	void jdbcAndHibernateStatementsAreTimedPerNormalizedStatement() {
+		for (int i = 1; i <= 3; i++) {
+			jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE is_active = TRUE AND id_user <> 'SQL" + i + "'",
+					Integer.class);
+		}
+		pegawaiRepository.findById("SQL-TIDAK-ADA");
+
+		List<SqlStatistikResponse> top = sqlStatisticsService.getTop("sering", 1000);
+		assertThat(top).filteredOn(r -> r.getSql().equals(
+						"SELECT COUNT(*) FROM users WHERE is_active = TRUE AND id_user <> ?"))
+				.singleElement()
+				.satisfies(r -> {
+					assertThat(r.getJumlah()).isGreaterThanOrEqualTo(3);
+					assertThat(r.getMaxMs()).isGreaterThanOrEqualTo(r.getRataRataMs());
+				});
+		assertThat(top).anyMatch(r -> r.getSql().startsWith("select") && r.getSql().contains("from pegawai"));
+		assertThat(top).extracting(SqlStatistikResponse::getJumlah).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+	}
+
+	@Test
+	void thresholdAndStatementLimitAreApplied() {
+		SqlStatisticsService statistik = new SqlStatisticsService(100, 2);
+		statistik.record("SELECT a FROM t WHERE x = ?", TimeUnit.MILLISECONDS.toNanos(150), "[String]");
+		statistik.record("SELECT a FROM t WHERE x = ?", TimeUnit.MILLISECONDS.toNanos(3), "[String]");
+		statistik.record("SELECT b FROM t", TimeUnit.MILLISECONDS.toNanos(1), "[]");
+		statistik.record("SELECT c FROM t", TimeUnit.MILLISECONDS.toNanos(1), "[]");
+
+		List<SqlStatistikResponse> top = statistik.getTop("lambat", 10);
+		assertThat(top).extracting(SqlStatistikResponse::getSql)
+				.containsExactly("SELECT a FROM t WHERE x = ?", "SELECT b FROM t", SqlStatisticsService.LAINNYA);
+		SqlStatistikResponse lambat = top.get(0);
+		assertThat(lambat.getJumlah()).isEqualTo(2);
+		assertThat(lambat.getLambat()).isEqualTo(1);
+		assertThat(lambat.getP50Ms()).isEqualTo(5);
+		assertThat(lambat.getP99Ms()).isEqualTo(200);
+	}
+}
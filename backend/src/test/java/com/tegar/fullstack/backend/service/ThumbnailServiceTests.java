@@ -0,0 +1,127 @@
+package com.tegar.fullstack.backend.service;
+
+import com.tegar.fullstack.backend.config.TenantProperties;
+import com.tegar.fullstack.backend.repository.PegawaiRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ThumbnailServiceTests {
+
+	@TempDir
+	Path root;
+
+	private final PegawaiRepository pegawaiRepository = mock(PegawaiRepository.class);
+
+	private PhotoStorageService storage;
+	private ThumbnailService thumbnails;
+
+	@AfterEach
+	void shutdown() {
+		if (thumbnails != null) {
+			thumbnails.shutdown();
+		}
+	}
+
+	@Test
+	void buatWritesScaledJpegVariants() throws Exception {
+		init();
+		String photo = storage.simpan(png(400, 200));
+
+		thumbnails.buat(photo);
+
+		BufferedImage small = ImageIO.read(root.resolve(storage.variant(photo, 40)).toFile());
+		BufferedImage medium = ImageIO.read(root.resolve(storage.variant(photo, 160)).toFile());
+		assertThat(small.getWidth()).isEqualTo(40);
+		assertThat(small.getHeight()).isEqualTo(20);
+		assertThat(medium.getWidth()).isEqualTo(160);
+		assertThat(thumbnails.getVariant(photo, 40)).exists();
+	}
+
+	@Test
+	void largeImagesAreSubsampledToTheRequestedSize() throws Exception {
+		init();
+		String photo = storage.simpan(png(2000, 1000));
+
+		thumbnails.buat(photo);
+
+		BufferedImage medium = ImageIO.read(root.resolve(storage.variant(photo, 160)).toFile());
+		assertThat(medium.getWidth()).isEqualTo(160);
+		assertThat(medium.getHeight()).isEqualTo(80);
+	}
+
+	@Test
+	void oversizedCorruptAndVariantFilesAreNotQueued() throws Exception {
+		init(10_000);
+		String besar = storage.simpan(png(400, 200));
+		String rusak = storage.simpan(new MockMultipartFile("files", "rusak.png", "image/png", new byte[]{1, 2, 3}));
+
+		thumbnails.buat(besar);
+		thumbnails.buat(rusak);
+
+		assertThat(root.resolve(storage.variant(besar, 40))).doesNotExist();
+		assertThat(thumbnails.getVariant(besar, 40)).isNull();
+		assertThat(thumbnails.getVariant(rusak, 40)).isNull();
+		assertThat(thumbnails.getVariant(storage.variant(besar, 160), 40)).isNull();
+		assertThat(thumbnails.getAntrean()).isZero();
+	}
+
+	@Test
+	void pilihUkuranPicksSmallestSufficientVariant() {
+		init();
+
+		assertThat(thumbnails.pilihUkuran(32)).isEqualTo(40);
+		assertThat(thumbnails.pilihUkuran(100)).isEqualTo(160);
+		assertThat(thumbnails.pilihUkuran(500)).isNull();
+	}
+
+	@Test
+	void sapuKeepsVariantsOfReferencedPhotos() throws Exception {
+		init();
+		String referenced = storage.simpan(png(100, 100));
+		thumbnails.buat(referenced);
+
+		Path variant = root.resolve(storage.variant(referenced, 40));
+		Path orphanVariant = Files.writeString(root.resolve("yatim_40.jpg"), "x");
+		FileTime old = FileTime.from(Instant.now().minus(2, ChronoUnit.HOURS));
+		Files.setLastModifiedTime(variant, old);
+		Files.setLastModifiedTime(orphanVariant, old);
+		when(pegawaiRepository.findAllPhotos()).thenReturn(List.of(referenced));
+
+		storage.sapu();
+
+		assertThat(variant).exists();
+		assertThat(orphanVariant).doesNotExist();
+	}
+
+	private void init() {
+		init(40_000_000);
+	}
+
+	private void init(long maxPixels) {
+		storage = new PhotoStorageService(pegawaiRepository, new TenantProperties(), new SimpleMeterRegistry(), root.toString(), 60);
+		thumbnails = new ThumbnailService(storage, new int[]{160, 40}, 1, 10, maxPixels);
+	}
+
+	private MockMultipartFile png(int width, int height) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+		return new MockMultipartFile("files", "foto.png", "image/png", out.toByteArray());
+	}
+}